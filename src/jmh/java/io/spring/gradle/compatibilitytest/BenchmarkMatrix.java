@@ -0,0 +1,87 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import io.spring.gradle.compatibilitytest.CompatibilityMatrix.DependencyVersion;
+
+/**
+ * A matrix used by the benchmarks, described by its shape. A shape of {@code 10x10x10}
+ * describes a matrix of three dependencies with ten versions each.
+ *
+ * @author Andy Wilkinson
+ */
+final class BenchmarkMatrix {
+
+	private final int[] versions;
+
+	private BenchmarkMatrix(int[] versions) {
+		this.versions = versions;
+	}
+
+	static BenchmarkMatrix of(String shape) {
+		String[] dimensions = shape.split("x");
+		int[] versions = new int[dimensions.length];
+		for (int i = 0; i < dimensions.length; i++) {
+			versions[i] = Integer.parseInt(dimensions[i]);
+		}
+		return new BenchmarkMatrix(versions);
+	}
+
+	List<Set<DependencyVersion>> entries() {
+		List<Set<DependencyVersion>> entries = new ArrayList<>();
+		for (int i = 0; i < this.versions.length; i++) {
+			Set<DependencyVersion> dependencyVersions = new LinkedHashSet<>();
+			for (String version : versions(i)) {
+				dependencyVersions.add(new DependencyVersion(name(i), groupId(i), null, version));
+			}
+			entries.add(dependencyVersions);
+		}
+		return entries;
+	}
+
+	void configure(CompatibilityTestExtension extension) {
+		for (int i = 0; i < this.versions.length; i++) {
+			int dependency = i;
+			extension.dependency(name(i), (configurer) -> {
+				configurer.setGroupId(groupId(dependency));
+				configurer.setVersions(versions(dependency));
+			});
+		}
+	}
+
+	private String name(int dependency) {
+		return "Dependency " + dependency;
+	}
+
+	private String groupId(int dependency) {
+		return "com.example.dependency" + dependency;
+	}
+
+	private List<String> versions(int dependency) {
+		List<String> versions = new ArrayList<>();
+		for (int i = 0; i < this.versions[dependency]; i++) {
+			versions.add("1.0." + i);
+		}
+		return versions;
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.spring.gradle.compatibilitytest.CompatibilityMatrix.DependencyVersion;
+
+/**
+ * Benchmarks for generating the permutations of matrices of increasing size and for
+ * building the identifiers and descriptions of those permutations.
+ *
+ * @author Andy Wilkinson
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartesianProductBenchmark {
+
+	@Param({ "2x2", "10x10", "5x5x5", "10x10x10" })
+	private String matrix;
+
+	private List<Set<DependencyVersion>> entries;
+
+	@Setup
+	public void setUp() {
+		this.entries = BenchmarkMatrix.of(this.matrix).entries();
+	}
+
+	@Benchmark
+	public void product(Blackhole blackhole) {
+		for (List<DependencyVersion> permutation : CartesianProduct.of(this.entries)) {
+			blackhole.consume(permutation);
+		}
+	}
+
+	@Benchmark
+	public void identifiers(Blackhole blackhole) {
+		for (List<DependencyVersion> dependencyVersions : CartesianProduct.of(this.entries)) {
+			blackhole.consume(new Permutation(dependencyVersions).getIdentifier());
+		}
+	}
+
+	@Benchmark
+	public void descriptions(Blackhole blackhole) {
+		for (List<DependencyVersion> dependencyVersions : CartesianProduct.of(this.entries)) {
+			blackhole.consume(new Permutation(dependencyVersions).getDescription());
+		}
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.util.concurrent.TimeUnit;
+
+import org.gradle.api.Project;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.tasks.testing.Test;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for applying the plugin to a project and configuring a matrix of increasing
+ * size. A new project is built before each invocation so that only the application and
+ * configuration of the plugin is measured.
+ *
+ * @author Andy Wilkinson
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CompatibilityTestPluginBenchmark {
+
+	@Param({ "2x2", "10x10", "5x5x5", "10x10x10" })
+	private String matrix;
+
+	private Project project;
+
+	@Setup(Level.Invocation)
+	public void setUp() {
+		this.project = ProjectBuilder.builder().build();
+		this.project.getPluginManager().apply(JavaPlugin.class);
+	}
+
+	@Benchmark
+	public Project apply() {
+		configure();
+		return this.project;
+	}
+
+	@Benchmark
+	public void applyAndRealizeTestTasks(Blackhole blackhole) {
+		configure();
+		this.project.getTasks().withType(Test.class).forEach(blackhole::consume);
+	}
+
+	private void configure() {
+		this.project.getPluginManager().apply(CompatibilityTestPlugin.class);
+		CompatibilityTestExtension extension = this.project.getExtensions().getByType(CompatibilityTestExtension.class);
+		BenchmarkMatrix.of(this.matrix).configure(extension);
+		((ProjectInternal) this.project).evaluate();
+	}
+
+}
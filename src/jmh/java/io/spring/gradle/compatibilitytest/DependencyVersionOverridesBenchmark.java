@@ -0,0 +1,111 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.spring.gradle.compatibilitytest.CompatibilityMatrix.DependencyVersion;
+
+/**
+ * Benchmarks for matching the modules in a dependency graph of 400 modules against the
+ * dependency versions of a permutation.
+ *
+ * @author Andy Wilkinson
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DependencyVersionOverridesBenchmark {
+
+	private static final int MODULES = 400;
+
+	private final List<String[]> modules = new ArrayList<>();
+
+	private List<DependencyVersion> dependencyVersions;
+
+	private DependencyVersionOverrides overrides;
+
+	@Setup
+	public void setUp() {
+		addModules("org.springframework", "spring-aop", "spring-beans", "spring-context", "spring-core",
+				"spring-expression", "spring-jcl", "spring-jdbc", "spring-tx", "spring-web", "spring-webflux",
+				"spring-webmvc");
+		addModules("io.projectreactor", "reactor-core", "reactor-test");
+		addModules("io.projectreactor.netty", "reactor-netty-core", "reactor-netty-http");
+		addModules("io.micrometer", "micrometer-commons", "micrometer-core", "micrometer-observation");
+		addModules("com.fasterxml.jackson.core", "jackson-annotations", "jackson-core", "jackson-databind");
+		addModules("io.netty", "netty-buffer", "netty-codec", "netty-codec-http", "netty-common", "netty-handler",
+				"netty-resolver", "netty-transport");
+		for (int i = 0; this.modules.size() < MODULES; i++) {
+			this.modules.add(new String[] { "com.example.group" + (i % 60), "module-" + i });
+		}
+		this.dependencyVersions = Arrays.asList(
+				new DependencyVersion("Spring Framework", "org.springframework", null, "6.0.0"),
+				new DependencyVersion("Reactor", "io.projectreactor", null, "3.5.0"),
+				new DependencyVersion("Reactor Netty", "io.projectreactor.netty", null, "1.1.0"),
+				new DependencyVersion("Micrometer", "io.micrometer", "micrometer-core", "1.10.0"),
+				new DependencyVersion("Jackson", "com.fasterxml.jackson.core", null, "2.14.0"),
+				new DependencyVersion("Netty", "io.netty", null, "4.1.85.Final"));
+		this.overrides = new DependencyVersionOverrides(this.dependencyVersions);
+	}
+
+	private void addModules(String group, String... names) {
+		for (String name : names) {
+			this.modules.add(new String[] { group, name });
+		}
+	}
+
+	@Benchmark
+	public void indexedOverrides(Blackhole blackhole) {
+		for (String[] module : this.modules) {
+			blackhole.consume(this.overrides.versionFor(module[0], module[1]));
+		}
+	}
+
+	@Benchmark
+	public void streamedMatching(Blackhole blackhole) {
+		for (String[] module : this.modules) {
+			this.dependencyVersions.stream()
+				.filter((dependencyVersion) -> matches(dependencyVersion, module[0], module[1]))
+				.forEach((dependencyVersion) -> blackhole.consume(dependencyVersion.getVersion()));
+		}
+	}
+
+	private boolean matches(DependencyVersion dependencyVersion, String group, String name) {
+		return dependencyVersion.getGroupId().equals(group)
+				&& (dependencyVersion.getArtifactId() == null || dependencyVersion.getArtifactId().equals(name));
+	}
+
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import io.spring.gradle.compatibilitytest.ClassFile.InnerClass;
+import io.spring.gradle.compatibilitytest.ClassFile.Member;
+
+/**
+ * Fingerprint of the application binary interface (ABI) of a classpath entry. The
+ * fingerprint covers the non-private classes and members of the entry, including their
+ * generic signatures, checked exceptions, compile-time constants, annotations, nested
+ * classes, permitted subclasses, and record components, and the service declarations
+ * that may affect compilation. The classes of each version of a multi-release jar are
+ * fingerprinted separately. Code and other implementation details are ignored so
+ * entries that differ only in their implementation have the same fingerprint.
+ *
+ * @author Andy Wilkinson
+ */
+final class AbiFingerprint {
+
+	private static final String SERVICES_PREFIX = "META-INF/services/";
+
+	private static final String VERSIONS_PREFIX = "META-INF/versions/";
+
+	private AbiFingerprint() {
+
+	}
+
+	static String of(File file) {
+		Map<String, String> entries = new TreeMap<>();
+		try {
+			if (file.isDirectory()) {
+				readDirectory(file.toPath(), entries);
+			}
+			else if (file.isFile()) {
+				readJar(file, entries);
+			}
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Failed to fingerprint the ABI of " + file, ex);
+		}
+		return hash(entries);
+	}
+
+	private static void readDirectory(Path root, Map<String, String> entries) throws IOException {
+		List<Path> files;
+		try (Stream<Path> stream = Files.walk(root)) {
+			files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+		}
+		for (Path path : files) {
+			String name = root.relativize(path).toString().replace(File.separatorChar, '/');
+			if (isRelevant(name)) {
+				try (InputStream input = Files.newInputStream(path)) {
+					read(name, input, entries);
+				}
+			}
+		}
+	}
+
+	private static void readJar(File file, Map<String, String> entries) throws IOException {
+		try (ZipFile zip = new ZipFile(file)) {
+			Enumeration<? extends ZipEntry> zipEntries = zip.entries();
+			while (zipEntries.hasMoreElements()) {
+				ZipEntry entry = zipEntries.nextElement();
+				if (!entry.isDirectory() && isRelevant(entry.getName())) {
+					try (InputStream input = zip.getInputStream(entry)) {
+						read(entry.getName(), input, entries);
+					}
+				}
+			}
+		}
+	}
+
+	private static boolean isRelevant(String name) {
+		return name.endsWith(".class") || name.startsWith(SERVICES_PREFIX);
+	}
+
+	private static void read(String name, InputStream input, Map<String, String> entries) throws IOException {
+		if (name.startsWith(SERVICES_PREFIX)) {
+			entries.put(name, new String(readAllBytes(input), StandardCharsets.UTF_8));
+			return;
+		}
+		ClassFile classFile = ClassFile.read(input);
+		if ((classFile.getAccess() & ClassFile.ACC_SYNTHETIC) != 0 || isPrivateNestedClass(classFile)) {
+			return;
+		}
+		StringBuilder abi = new StringBuilder();
+		abi.append(classFile.getAccess())
+			.append(' ')
+			.append(classFile.getSuperName())
+			.append(' ')
+			.append(classFile.getInterfaces())
+			.append(' ')
+			.append(classFile.getSignature())
+			.append(' ')
+			.append(classFile.getPermittedSubclasses())
+			.append(' ')
+			.append(sorted(classFile.getAnnotations()))
+			.append('\n');
+		appendInnerClasses(abi, classFile);
+		appendMembers(abi, classFile.getRecordComponents());
+		appendMembers(abi, classFile.getFields());
+		appendMembers(abi, classFile.getMethods());
+		entries.put(versionPrefix(name) + classFile.getName(), abi.toString());
+	}
+
+	private static String versionPrefix(String name) {
+		if (name.startsWith(VERSIONS_PREFIX)) {
+			int end = name.indexOf('/', VERSIONS_PREFIX.length());
+			if (end != -1) {
+				return name.substring(0, end + 1);
+			}
+		}
+		return "";
+	}
+
+	private static boolean isPrivateNestedClass(ClassFile classFile) {
+		for (InnerClass innerClass : classFile.getInnerClasses()) {
+			if (classFile.getName().equals(innerClass.getName())) {
+				return (innerClass.getAccess() & ClassFile.ACC_PRIVATE) != 0;
+			}
+		}
+		return false;
+	}
+
+	private static void appendInnerClasses(StringBuilder abi, ClassFile classFile) {
+		List<String> descriptions = new ArrayList<>();
+		for (InnerClass innerClass : classFile.getInnerClasses()) {
+			if (isAbi(classFile, innerClass)) {
+				descriptions.add(innerClass.toString());
+			}
+		}
+		descriptions.sort(null);
+		descriptions.forEach((description) -> abi.append(description).append('\n'));
+	}
+
+	private static boolean isAbi(ClassFile classFile, InnerClass innerClass) {
+		if (classFile.getName().equals(innerClass.getName())) {
+			return true;
+		}
+		return classFile.getName().equals(innerClass.getOuterName())
+				&& (innerClass.getAccess() & (ClassFile.ACC_PRIVATE | ClassFile.ACC_SYNTHETIC)) == 0;
+	}
+
+	private static void appendMembers(StringBuilder abi, List<Member> members) {
+		List<String> descriptions = new ArrayList<>();
+		for (Member member : members) {
+			if ((member.getAccess() & (ClassFile.ACC_PRIVATE | ClassFile.ACC_SYNTHETIC)) == 0) {
+				descriptions.add(member.getAccess() + " " + member.getName() + " " + member.getDescriptor() + " "
+						+ member.getSignature() + " " + member.getConstantValue() + " " + member.getExceptions() + " "
+						+ sorted(member.getAnnotations()) + " " + member.getAnnotationDefault());
+			}
+		}
+		descriptions.sort(null);
+		descriptions.forEach((description) -> abi.append(description).append('\n'));
+	}
+
+	private static List<String> sorted(List<String> annotations) {
+		List<String> sorted = new ArrayList<>(annotations);
+		sorted.sort(null);
+		return sorted;
+	}
+
+	private static byte[] readAllBytes(InputStream input) throws IOException {
+		byte[] buffer = new byte[4096];
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		int read;
+		while ((read = input.read(buffer)) != -1) {
+			output.write(buffer, 0, read);
+		}
+		return output.toByteArray();
+	}
+
+	private static String hash(Map<String, String> entries) {
+		MessageDigest digest = Digests.sha256();
+		entries.forEach((name, value) -> {
+			digest.update(name.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+			digest.update(value.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+		});
+		return Digests.toHex(digest.digest());
+	}
+
+}
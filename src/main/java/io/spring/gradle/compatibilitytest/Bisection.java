@@ -0,0 +1,131 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+/**
+ * A binary search for the first failure in an ordered list of versions, assuming that
+ * every version after a failing version also fails. Each index is probed at a fixed
+ * level of the search, allowing every index at a level to be ordered after every index
+ * at the previous level before it is known which of them will be probed.
+ *
+ * @author Andy Wilkinson
+ */
+final class Bisection {
+
+	private final int[] levels;
+
+	private int depth;
+
+	private int low;
+
+	private int high;
+
+	private int probed;
+
+	Bisection(int size) {
+		this.levels = new int[size];
+		this.high = size;
+		assignLevels(0, size, 0);
+	}
+
+	private void assignLevels(int low, int high, int level) {
+		if (low < high) {
+			int middle = (low + high) >>> 1;
+			this.levels[middle] = level;
+			this.depth = Math.max(this.depth, level + 1);
+			assignLevels(low, middle, level + 1);
+			assignLevels(middle + 1, high, level + 1);
+		}
+	}
+
+	/**
+	 * Returns the number of versions that are searched.
+	 * @return the number of versions
+	 */
+	int size() {
+		return this.levels.length;
+	}
+
+	/**
+	 * Returns the level of the search at which the index may be probed.
+	 * @param index the index
+	 * @return the level
+	 */
+	int level(int index) {
+		return this.levels[index];
+	}
+
+	/**
+	 * Returns the number of levels in the search.
+	 * @return the depth
+	 */
+	int depth() {
+		return this.depth;
+	}
+
+	/**
+	 * Returns the index that is to be probed next.
+	 * @return the index or {@code -1} if the search is complete
+	 */
+	int probe() {
+		return isComplete() ? -1 : (this.low + this.high) >>> 1;
+	}
+
+	/**
+	 * Records the outcome of probing the index returned by {@link #probe()}.
+	 * @param failed whether the probed index failed
+	 */
+	void record(boolean failed) {
+		int probe = probe();
+		if (failed) {
+			this.high = probe;
+		}
+		else {
+			this.low = probe + 1;
+		}
+		this.probed++;
+	}
+
+	boolean isComplete() {
+		return this.low >= this.high;
+	}
+
+	/**
+	 * Returns the number of indices that have been probed.
+	 * @return the number of probes
+	 */
+	int getProbed() {
+		return this.probed;
+	}
+
+	/**
+	 * Returns the index of the last version that passed once the search is complete.
+	 * @return the index or {@code -1} if no version passed
+	 */
+	int getLastPassing() {
+		return this.low - 1;
+	}
+
+	/**
+	 * Returns the index of the first version that failed once the search is complete.
+	 * @return the index or {@code -1} if no version failed
+	 */
+	int getFirstFailing() {
+		return (this.high < this.levels.length) ? this.high : -1;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2019 the original author or authors.
+ * Copyright 2014-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,12 +17,19 @@
 package io.spring.gradle.compatibilitytest;
 
 import java.util.ArrayList;
-import java.util.LinkedHashSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.function.Predicate;
 
 /**
- * Helper class for calculating cartesian products.
+ * Helper class for calculating cartesian products. Products are produced lazily, one
+ * permutation at a time, by advancing an odometer of indices over the sets so that
+ * only the permutation being produced is held in memory. A filter can be applied to the
+ * prefixes of each permutation as the odometer advances. When a prefix is rejected,
+ * every permutation that starts with it is skipped without being produced.
  *
  * @author Andy Wilkinson
  */
@@ -32,24 +39,116 @@ final class CartesianProduct {
 
 	}
 
-	static <E> Set<List<E>> of(List<? extends Set<? extends E>> sets) {
-		return cartesianProduct(sets, 0);
+	static <E> Iterable<List<E>> of(List<? extends Set<? extends E>> sets) {
+		return of(sets, null);
 	}
 
-	private static <E> Set<List<E>> cartesianProduct(List<? extends Set<? extends E>> sets, int index) {
-		Set<List<E>> result = new LinkedHashSet<>();
-		if (index == sets.size()) {
-			result.add(new ArrayList<>());
+	/**
+	 * Returns the permutations of the cartesian product of the given {@code sets} whose
+	 * every prefix is accepted by the given {@code filter}.
+	 * @param <E> the type of the items in the product
+	 * @param sets the sets
+	 * @param filter the filter, called with each prefix of a permutation from the
+	 * shortest to the permutation itself, or {@code null} to produce every permutation
+	 * @return the permutations
+	 */
+	static <E> Iterable<List<E>> of(List<? extends Set<? extends E>> sets, Predicate<? super List<E>> filter) {
+		List<List<E>> items = new ArrayList<>(sets.size());
+		for (Set<? extends E> set : sets) {
+			items.add(new ArrayList<>(set));
 		}
-		else {
-			for (E item : sets.get(index)) {
-				for (List<E> product : cartesianProduct(sets, index + 1)) {
-					product.add(0, item);
-					result.add(product);
+		return () -> new ProductIterator<>(items, filter);
+	}
+
+	static long size(List<? extends Set<?>> sets) {
+		long size = 1;
+		for (Set<?> set : sets) {
+			size *= set.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Iterator over the permutations of a cartesian product. The last set varies
+	 * fastest, matching the order in which the product would be produced by nested
+	 * loops over the sets.
+	 *
+	 * @param <E> the type of the items in the product
+	 */
+	private static final class ProductIterator<E> implements Iterator<List<E>> {
+
+		private final List<List<E>> items;
+
+		private final int[] indices;
+
+		private final Predicate<? super List<E>> filter;
+
+		private boolean hasNext;
+
+		private ProductIterator(List<List<E>> items, Predicate<? super List<E>> filter) {
+			this.items = items;
+			this.indices = new int[items.size()];
+			this.filter = filter;
+			this.hasNext = items.stream().noneMatch(List::isEmpty) && skipRejected();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.hasNext;
+		}
+
+		@Override
+		public List<E> next() {
+			if (!this.hasNext) {
+				throw new NoSuchElementException();
+			}
+			List<E> permutation = prefix(this.indices.length);
+			this.hasNext = advance(this.indices.length - 1) && skipRejected();
+			return permutation;
+		}
+
+		private List<E> prefix(int length) {
+			List<E> prefix = new ArrayList<>(length);
+			for (int i = 0; i < length; i++) {
+				prefix.add(this.items.get(i).get(this.indices[i]));
+			}
+			return prefix;
+		}
+
+		private boolean advance(int position) {
+			for (int i = position; i >= 0; i--) {
+				if (++this.indices[i] < this.items.get(i).size()) {
+					return true;
 				}
+				this.indices[i] = 0;
 			}
+			return false;
 		}
-		return result;
+
+		private boolean skipRejected() {
+			if (this.filter == null) {
+				return true;
+			}
+			int rejected = rejectedPrefixLength();
+			while (rejected != -1) {
+				Arrays.fill(this.indices, rejected, this.indices.length, 0);
+				if (!advance(rejected - 1)) {
+					return false;
+				}
+				rejected = rejectedPrefixLength();
+			}
+			return true;
+		}
+
+		private int rejectedPrefixLength() {
+			for (int length = 1; length <= this.indices.length; length++) {
+				if (!this.filter.test(prefix(length))) {
+					return length;
+				}
+			}
+			return -1;
+		}
+
 	}
 
 }
@@ -0,0 +1,739 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal reader for the structure of a class file, as described in chapter 4 of the
+ * Java Virtual Machine Specification. Code and the attributes that do not affect
+ * compilation against the class are skipped.
+ *
+ * @author Andy Wilkinson
+ */
+final class ClassFile {
+
+	static final int ACC_PUBLIC = 0x0001;
+
+	static final int ACC_PRIVATE = 0x0002;
+
+	static final int ACC_INTERFACE = 0x0200;
+
+	static final int ACC_ABSTRACT = 0x0400;
+
+	static final int ACC_SYNTHETIC = 0x1000;
+
+	private static final int CONSTANT_UTF8 = 1;
+
+	private static final int CONSTANT_INTEGER = 3;
+
+	private static final int CONSTANT_FLOAT = 4;
+
+	private static final int CONSTANT_LONG = 5;
+
+	private static final int CONSTANT_DOUBLE = 6;
+
+	private static final int CONSTANT_CLASS = 7;
+
+	private static final int CONSTANT_STRING = 8;
+
+	private static final int CONSTANT_FIELDREF = 9;
+
+	private static final int CONSTANT_METHODREF = 10;
+
+	private static final int CONSTANT_INTERFACE_METHODREF = 11;
+
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+	private static final int CONSTANT_METHOD_HANDLE = 15;
+
+	private static final int CONSTANT_METHOD_TYPE = 16;
+
+	private static final int CONSTANT_DYNAMIC = 17;
+
+	private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+
+	private static final int CONSTANT_MODULE = 19;
+
+	private static final int CONSTANT_PACKAGE = 20;
+
+	private static final Pattern CLASS_IN_DESCRIPTOR = Pattern.compile("L([\\w/$]+)[;<]");
+
+	private final ConstantPool constantPool;
+
+	private final int access;
+
+	private final String name;
+
+	private final String superName;
+
+	private final List<String> interfaces;
+
+	private final String signature;
+
+	private final List<Member> fields;
+
+	private final List<Member> methods;
+
+	private final List<String> annotations;
+
+	private final List<InnerClass> innerClasses;
+
+	private final List<String> permittedSubclasses;
+
+	private final List<Member> recordComponents;
+
+	private ClassFile(DataInputStream input) throws IOException {
+		if (input.readInt() != 0xCAFEBABE) {
+			throw new IOException("Not a class file");
+		}
+		input.readUnsignedShort();
+		input.readUnsignedShort();
+		this.constantPool = new ConstantPool(input);
+		this.access = input.readUnsignedShort();
+		this.name = this.constantPool.className(input.readUnsignedShort());
+		this.superName = this.constantPool.className(input.readUnsignedShort());
+		int interfaceCount = input.readUnsignedShort();
+		List<String> interfaces = new ArrayList<>(interfaceCount);
+		for (int i = 0; i < interfaceCount; i++) {
+			interfaces.add(this.constantPool.className(input.readUnsignedShort()));
+		}
+		this.interfaces = Collections.unmodifiableList(interfaces);
+		this.fields = readMembers(input);
+		this.methods = readMembers(input);
+		Attributes attributes = readAttributes(input);
+		this.signature = attributes.signature;
+		this.annotations = Collections.unmodifiableList(attributes.annotations);
+		this.innerClasses = Collections.unmodifiableList(attributes.innerClasses);
+		this.permittedSubclasses = Collections.unmodifiableList(attributes.permittedSubclasses);
+		this.recordComponents = Collections.unmodifiableList(attributes.recordComponents);
+	}
+
+	private List<Member> readMembers(DataInputStream input) throws IOException {
+		int count = input.readUnsignedShort();
+		List<Member> members = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			int access = input.readUnsignedShort();
+			String name = this.constantPool.utf8(input.readUnsignedShort());
+			String descriptor = this.constantPool.utf8(input.readUnsignedShort());
+			members.add(new Member(access, name, descriptor, readAttributes(input)));
+		}
+		return Collections.unmodifiableList(members);
+	}
+
+	private Attributes readAttributes(DataInputStream input) throws IOException {
+		Attributes attributes = new Attributes();
+		int count = input.readUnsignedShort();
+		for (int i = 0; i < count; i++) {
+			String name = this.constantPool.utf8(input.readUnsignedShort());
+			int length = input.readInt();
+			switch (name) {
+				case "Signature":
+					attributes.signature = this.constantPool.utf8(input.readUnsignedShort());
+					break;
+				case "ConstantValue":
+					attributes.constantValue = this.constantPool.constant(input.readUnsignedShort());
+					break;
+				case "Exceptions":
+					attributes.exceptions = readClassNames(input);
+					break;
+				case "RuntimeVisibleAnnotations":
+				case "RuntimeInvisibleAnnotations":
+					int annotationCount = input.readUnsignedShort();
+					for (int j = 0; j < annotationCount; j++) {
+						attributes.annotations.add(name + " " + readAnnotation(input));
+					}
+					break;
+				case "RuntimeVisibleParameterAnnotations":
+				case "RuntimeInvisibleParameterAnnotations":
+					int parameterCount = input.readUnsignedByte();
+					for (int parameter = 0; parameter < parameterCount; parameter++) {
+						int parameterAnnotationCount = input.readUnsignedShort();
+						for (int j = 0; j < parameterAnnotationCount; j++) {
+							attributes.annotations.add(name + " " + parameter + " " + readAnnotation(input));
+						}
+					}
+					break;
+				case "RuntimeVisibleTypeAnnotations":
+				case "RuntimeInvisibleTypeAnnotations":
+					int typeAnnotationCount = input.readUnsignedShort();
+					for (int j = 0; j < typeAnnotationCount; j++) {
+						attributes.annotations.add(name + " " + readTypeAnnotation(input));
+					}
+					break;
+				case "AnnotationDefault":
+					attributes.annotationDefault = readElementValue(input);
+					break;
+				case "InnerClasses":
+					int innerClassCount = input.readUnsignedShort();
+					for (int j = 0; j < innerClassCount; j++) {
+						attributes.innerClasses.add(readInnerClass(input));
+					}
+					break;
+				case "PermittedSubclasses":
+					attributes.permittedSubclasses = readClassNames(input);
+					break;
+				case "Record":
+					int componentCount = input.readUnsignedShort();
+					for (int j = 0; j < componentCount; j++) {
+						attributes.recordComponents.add(readRecordComponent(input));
+					}
+					break;
+				default:
+					skip(input, length);
+			}
+		}
+		return attributes;
+	}
+
+	private InnerClass readInnerClass(DataInputStream input) throws IOException {
+		String name = this.constantPool.className(input.readUnsignedShort());
+		String outerName = this.constantPool.className(input.readUnsignedShort());
+		String simpleName = this.constantPool.utf8(input.readUnsignedShort());
+		return new InnerClass(name, outerName, simpleName, input.readUnsignedShort());
+	}
+
+	private Member readRecordComponent(DataInputStream input) throws IOException {
+		String name = this.constantPool.utf8(input.readUnsignedShort());
+		String descriptor = this.constantPool.utf8(input.readUnsignedShort());
+		return new Member(0, name, descriptor, readAttributes(input));
+	}
+
+	private List<String> readClassNames(DataInputStream input) throws IOException {
+		int count = input.readUnsignedShort();
+		List<String> classNames = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			classNames.add(this.constantPool.className(input.readUnsignedShort()));
+		}
+		return classNames;
+	}
+
+	private String readAnnotation(DataInputStream input) throws IOException {
+		StringBuilder annotation = new StringBuilder("@");
+		annotation.append(this.constantPool.utf8(input.readUnsignedShort())).append('(');
+		int pairCount = input.readUnsignedShort();
+		for (int i = 0; i < pairCount; i++) {
+			if (i > 0) {
+				annotation.append(", ");
+			}
+			annotation.append(this.constantPool.utf8(input.readUnsignedShort()))
+				.append('=')
+				.append(readElementValue(input));
+		}
+		return annotation.append(')').toString();
+	}
+
+	private String readElementValue(DataInputStream input) throws IOException {
+		int tag = input.readUnsignedByte();
+		switch (tag) {
+			case 'B':
+			case 'C':
+			case 'D':
+			case 'F':
+			case 'I':
+			case 'J':
+			case 'S':
+			case 'Z':
+			case 's':
+				return (char) tag + String.valueOf(this.constantPool.constant(input.readUnsignedShort()));
+			case 'e':
+				String type = this.constantPool.utf8(input.readUnsignedShort());
+				return "e" + type + "." + this.constantPool.utf8(input.readUnsignedShort());
+			case 'c':
+				return "c" + this.constantPool.utf8(input.readUnsignedShort());
+			case '@':
+				return readAnnotation(input);
+			case '[':
+				int count = input.readUnsignedShort();
+				List<String> values = new ArrayList<>(count);
+				for (int i = 0; i < count; i++) {
+					values.add(readElementValue(input));
+				}
+				return values.toString();
+			default:
+				throw new IOException("Unknown element value tag " + (char) tag);
+		}
+	}
+
+	private String readTypeAnnotation(DataInputStream input) throws IOException {
+		int targetType = input.readUnsignedByte();
+		StringBuilder typeAnnotation = new StringBuilder(Integer.toHexString(targetType));
+		switch (targetType) {
+			case 0x00:
+			case 0x01:
+			case 0x16:
+				typeAnnotation.append(':').append(input.readUnsignedByte());
+				break;
+			case 0x10:
+			case 0x17:
+				typeAnnotation.append(':').append(input.readUnsignedShort());
+				break;
+			case 0x11:
+			case 0x12:
+				typeAnnotation.append(':').append(input.readUnsignedByte());
+				typeAnnotation.append(':').append(input.readUnsignedByte());
+				break;
+			case 0x13:
+			case 0x14:
+			case 0x15:
+				break;
+			default:
+				throw new IOException("Unknown type annotation target type " + targetType);
+		}
+		int pathLength = input.readUnsignedByte();
+		for (int i = 0; i < pathLength; i++) {
+			typeAnnotation.append(' ').append(input.readUnsignedByte()).append(':').append(input.readUnsignedByte());
+		}
+		return typeAnnotation.append(' ').append(readAnnotation(input)).toString();
+	}
+
+	private static void skip(DataInputStream input, int length) throws IOException {
+		int remaining = length;
+		while (remaining > 0) {
+			int skipped = input.skipBytes(remaining);
+			if (skipped <= 0) {
+				throw new IOException("Unexpected end of class file");
+			}
+			remaining -= skipped;
+		}
+	}
+
+	int getAccess() {
+		return this.access;
+	}
+
+	String getName() {
+		return this.name;
+	}
+
+	String getSuperName() {
+		return this.superName;
+	}
+
+	List<String> getInterfaces() {
+		return this.interfaces;
+	}
+
+	String getSignature() {
+		return this.signature;
+	}
+
+	List<Member> getFields() {
+		return this.fields;
+	}
+
+	List<Member> getMethods() {
+		return this.methods;
+	}
+
+	/**
+	 * Returns descriptions of the annotations and type annotations of this class,
+	 * whether they are visible at runtime or not.
+	 * @return the annotations
+	 */
+	List<String> getAnnotations() {
+		return this.annotations;
+	}
+
+	/**
+	 * Returns the entries of the {@code InnerClasses} attribute of this class.
+	 * @return the inner classes
+	 */
+	List<InnerClass> getInnerClasses() {
+		return this.innerClasses;
+	}
+
+	/**
+	 * Returns the internal names of the classes that are permitted to extend or
+	 * implement this sealed class.
+	 * @return the permitted subclasses, empty if the class is not sealed
+	 */
+	List<String> getPermittedSubclasses() {
+		return this.permittedSubclasses;
+	}
+
+	/**
+	 * Returns the components of this record.
+	 * @return the record components, empty if the class is not a record
+	 */
+	List<Member> getRecordComponents() {
+		return this.recordComponents;
+	}
+
+	/**
+	 * Returns the internal names of the classes that are referenced by this class. The
+	 * references are found in the constant pool and include the classes that appear in
+	 * descriptors and generic signatures, such as the types of annotations. Any constant
+	 * that looks like a descriptor is considered so the result may include names that are
+	 * not classes but it will not omit any class that is referenced.
+	 * @return the names of the referenced classes
+	 */
+	Set<String> getReferencedClasses() {
+		return this.constantPool.referencedClasses();
+	}
+
+	/**
+	 * Returns the internal names of the classes that are linked by this class. These are
+	 * the classes named by the {@code CONSTANT_Class} entries in the constant pool, with
+	 * array classes replaced by their element classes and arrays of primitives omitted.
+	 * @return the names of the linked classes
+	 */
+	Set<String> getLinkedClasses() {
+		return this.constantPool.linkedClasses();
+	}
+
+	/**
+	 * Returns the fields and methods that are referenced by this class.
+	 * @return the member references
+	 */
+	List<MemberReference> getMemberReferences() {
+		return this.constantPool.memberReferences();
+	}
+
+	static ClassFile read(InputStream input) throws IOException {
+		return new ClassFile(new DataInputStream(input));
+	}
+
+	/**
+	 * A field, method, or record component declared by a class.
+	 */
+	static final class Member {
+
+		private final int access;
+
+		private final String name;
+
+		private final String descriptor;
+
+		private final String signature;
+
+		private final Object constantValue;
+
+		private final List<String> exceptions;
+
+		private final List<String> annotations;
+
+		private final String annotationDefault;
+
+		private Member(int access, String name, String descriptor, Attributes attributes) {
+			this.access = access;
+			this.name = name;
+			this.descriptor = descriptor;
+			this.signature = attributes.signature;
+			this.constantValue = attributes.constantValue;
+			this.exceptions = attributes.exceptions;
+			this.annotations = Collections.unmodifiableList(attributes.annotations);
+			this.annotationDefault = attributes.annotationDefault;
+		}
+
+		int getAccess() {
+			return this.access;
+		}
+
+		String getName() {
+			return this.name;
+		}
+
+		String getDescriptor() {
+			return this.descriptor;
+		}
+
+		String getSignature() {
+			return this.signature;
+		}
+
+		Object getConstantValue() {
+			return this.constantValue;
+		}
+
+		List<String> getExceptions() {
+			return this.exceptions;
+		}
+
+		/**
+		 * Returns descriptions of the annotations of this member and of its parameters
+		 * and types.
+		 * @return the annotations
+		 */
+		List<String> getAnnotations() {
+			return this.annotations;
+		}
+
+		/**
+		 * Returns a description of the default value of this annotation interface
+		 * element.
+		 * @return the default value or {@code null}
+		 */
+		String getAnnotationDefault() {
+			return this.annotationDefault;
+		}
+
+	}
+
+	/**
+	 * An entry in the {@code InnerClasses} attribute of a class.
+	 */
+	static final class InnerClass {
+
+		private final String name;
+
+		private final String outerName;
+
+		private final String simpleName;
+
+		private final int access;
+
+		InnerClass(String name, String outerName, String simpleName, int access) {
+			this.name = name;
+			this.outerName = outerName;
+			this.simpleName = simpleName;
+			this.access = access;
+		}
+
+		String getName() {
+			return this.name;
+		}
+
+		/**
+		 * Returns the internal name of the class of which the inner class is a member.
+		 * @return the outer class or {@code null} for a local or anonymous class
+		 */
+		String getOuterName() {
+			return this.outerName;
+		}
+
+		/**
+		 * Returns the simple name of the inner class.
+		 * @return the simple name or {@code null} for an anonymous class
+		 */
+		String getSimpleName() {
+			return this.simpleName;
+		}
+
+		int getAccess() {
+			return this.access;
+		}
+
+		@Override
+		public String toString() {
+			return this.access + " " + this.name + " " + this.outerName + " " + this.simpleName;
+		}
+
+	}
+
+	/**
+	 * A reference to a field or method of a class.
+	 */
+	static final class MemberReference {
+
+		private final boolean field;
+
+		private final String owner;
+
+		private final String name;
+
+		private final String descriptor;
+
+		MemberReference(boolean field, String owner, String name, String descriptor) {
+			this.field = field;
+			this.owner = owner;
+			this.name = name;
+			this.descriptor = descriptor;
+		}
+
+		boolean isField() {
+			return this.field;
+		}
+
+		String getOwner() {
+			return this.owner;
+		}
+
+		String getName() {
+			return this.name;
+		}
+
+		String getDescriptor() {
+			return this.descriptor;
+		}
+
+	}
+
+	/**
+	 * The attributes of a class or member that are of interest.
+	 */
+	private static final class Attributes {
+
+		private String signature;
+
+		private Object constantValue;
+
+		private List<String> exceptions = Collections.emptyList();
+
+		private final List<String> annotations = new ArrayList<>();
+
+		private String annotationDefault;
+
+		private final List<InnerClass> innerClasses = new ArrayList<>();
+
+		private List<String> permittedSubclasses = Collections.emptyList();
+
+		private final List<Member> recordComponents = new ArrayList<>();
+
+	}
+
+	/**
+	 * A class file's constant pool.
+	 */
+	private static final class ConstantPool {
+
+		private final int[] tags;
+
+		private final int[] first;
+
+		private final int[] second;
+
+		private final Object[] values;
+
+		private ConstantPool(DataInputStream input) throws IOException {
+			int count = input.readUnsignedShort();
+			this.tags = new int[count];
+			this.first = new int[count];
+			this.second = new int[count];
+			this.values = new Object[count];
+			for (int index = 1; index < count; index++) {
+				int tag = input.readUnsignedByte();
+				this.tags[index] = tag;
+				switch (tag) {
+					case CONSTANT_UTF8:
+						this.values[index] = input.readUTF();
+						break;
+					case CONSTANT_INTEGER:
+						this.values[index] = input.readInt();
+						break;
+					case CONSTANT_FLOAT:
+						this.values[index] = input.readFloat();
+						break;
+					case CONSTANT_LONG:
+						this.values[index++] = input.readLong();
+						break;
+					case CONSTANT_DOUBLE:
+						this.values[index++] = input.readDouble();
+						break;
+					case CONSTANT_CLASS:
+					case CONSTANT_STRING:
+					case CONSTANT_METHOD_TYPE:
+					case CONSTANT_MODULE:
+					case CONSTANT_PACKAGE:
+						this.first[index] = input.readUnsignedShort();
+						break;
+					case CONSTANT_FIELDREF:
+					case CONSTANT_METHODREF:
+					case CONSTANT_INTERFACE_METHODREF:
+					case CONSTANT_NAME_AND_TYPE:
+					case CONSTANT_DYNAMIC:
+					case CONSTANT_INVOKE_DYNAMIC:
+						this.first[index] = input.readUnsignedShort();
+						this.second[index] = input.readUnsignedShort();
+						break;
+					case CONSTANT_METHOD_HANDLE:
+						this.first[index] = input.readUnsignedByte();
+						this.second[index] = input.readUnsignedShort();
+						break;
+					default:
+						throw new IOException("Unknown constant pool tag " + tag + " at index " + index);
+				}
+			}
+		}
+
+		private String utf8(int index) {
+			return (String) this.values[index];
+		}
+
+		private String className(int index) {
+			return (index != 0) ? utf8(this.first[index]) : null;
+		}
+
+		private Object constant(int index) {
+			return (this.tags[index] == CONSTANT_STRING) ? utf8(this.first[index]) : this.values[index];
+		}
+
+		private Set<String> referencedClasses() {
+			Set<String> referencedClasses = new HashSet<>();
+			for (int index = 1; index < this.tags.length; index++) {
+				if (this.tags[index] == CONSTANT_CLASS) {
+					String name = utf8(this.first[index]);
+					if (name.charAt(0) != '[') {
+						referencedClasses.add(name);
+					}
+				}
+				else if (this.tags[index] == CONSTANT_UTF8) {
+					Matcher matcher = CLASS_IN_DESCRIPTOR.matcher(utf8(index));
+					while (matcher.find()) {
+						referencedClasses.add(matcher.group(1));
+					}
+				}
+			}
+			return referencedClasses;
+		}
+
+		private Set<String> linkedClasses() {
+			Set<String> linkedClasses = new HashSet<>();
+			for (int index = 1; index < this.tags.length; index++) {
+				if (this.tags[index] == CONSTANT_CLASS) {
+					String name = utf8(this.first[index]);
+					if (name.charAt(0) == '[') {
+						int elementType = name.lastIndexOf('[') + 1;
+						if (name.charAt(elementType) != 'L') {
+							continue;
+						}
+						name = name.substring(elementType + 1, name.length() - 1);
+					}
+					linkedClasses.add(name);
+				}
+			}
+			return linkedClasses;
+		}
+
+		private List<MemberReference> memberReferences() {
+			List<MemberReference> memberReferences = new ArrayList<>();
+			for (int index = 1; index < this.tags.length; index++) {
+				int tag = this.tags[index];
+				if (tag == CONSTANT_FIELDREF || tag == CONSTANT_METHODREF || tag == CONSTANT_INTERFACE_METHODREF) {
+					String owner = className(this.first[index]);
+					if (owner.charAt(0) != '[') {
+						int nameAndType = this.second[index];
+						memberReferences.add(new MemberReference(tag == CONSTANT_FIELDREF, owner,
+								utf8(this.first[nameAndType]), utf8(this.second[nameAndType])));
+					}
+				}
+			}
+			return memberReferences;
+		}
+
+	}
+
+}
@@ -0,0 +1,457 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import io.spring.gradle.compatibilitytest.ClassFile.Member;
+
+/**
+ * {@link BuildService} that indexes the classes referenced by compiled classes, the test
+ * classes among them, and the packages and class declarations contained in jars. Each class file and jar is only
+ * read once during the build for as long as its length and last modified time are
+ * unchanged, allowing the indexes of a jar to be shared by every permutation that uses
+ * it. The classes of a JDK are read from its installation on demand.
+ *
+ * @author Andy Wilkinson
+ */
+public abstract class ClassReferenceIndex implements BuildService<BuildServiceParameters.None>, AutoCloseable {
+
+	static final String NAME = "compatibilityTestClassReferenceIndex";
+
+	private static final List<String> TEST_ANNOTATIONS = Arrays.asList("org/junit/Test", "org/junit/jupiter/api/Test",
+			"org/junit/jupiter/api/RepeatedTest", "org/junit/jupiter/api/TestFactory",
+			"org/junit/jupiter/api/TestTemplate", "org/junit/jupiter/params/ParameterizedTest",
+			"org/testng/annotations/Test");
+
+	private static final List<String> TEST_SUPERCLASSES = Arrays.asList("junit/framework/TestCase",
+			"spock/lang/Specification");
+
+	private final Map<String, ClassReferences> classes = new ConcurrentHashMap<>();
+
+	private final Map<String, Set<String>> packages = new ConcurrentHashMap<>();
+
+	private final Map<String, Map<String, ClassDeclaration>> declarations = new ConcurrentHashMap<>();
+
+	private final Map<String, JdkClasses> jdks = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the classes in the given {@code classesDir} and the classes that they
+	 * reference.
+	 * @param classesDir the directory containing the classes
+	 * @return the names of the referenced classes keyed by the name of the referencing
+	 * class
+	 */
+	Map<String, Set<String>> references(File classesDir) {
+		Map<String, Set<String>> references = new HashMap<>();
+		for (ClassReferences classReferences : index(classesDir)) {
+			references.put(classReferences.name, classReferences.references);
+		}
+		return references;
+	}
+
+	/**
+	 * Returns the test classes in the given {@code classesDir}. A test class is a
+	 * concrete class that is annotated with, or has a method that is annotated with, a
+	 * JUnit or TestNG test annotation, or that extends a class in the directory that is.
+	 * Concrete subclasses of JUnit 3's {@code TestCase} and Spock's
+	 * {@code Specification} are also test classes.
+	 * @param classesDir the directory containing the classes
+	 * @return the internal names of the test classes
+	 */
+	Set<String> testClasses(File classesDir) {
+		Map<String, ClassReferences> classes = new HashMap<>();
+		for (ClassReferences classReferences : index(classesDir)) {
+			classes.put(classReferences.name, classReferences);
+		}
+		Set<String> testClasses = new HashSet<>();
+		for (ClassReferences candidate : classes.values()) {
+			if (candidate.concrete && isTestClass(candidate, classes)) {
+				testClasses.add(candidate.name);
+			}
+		}
+		return testClasses;
+	}
+
+	private boolean isTestClass(ClassReferences candidate, Map<String, ClassReferences> classes) {
+		Deque<ClassReferences> hierarchy = new ArrayDeque<>();
+		Set<String> seen = new HashSet<>();
+		hierarchy.add(candidate);
+		while (!hierarchy.isEmpty()) {
+			ClassReferences type = hierarchy.poll();
+			if (type.declaresTests) {
+				return true;
+			}
+			for (String supertype : type.supertypes) {
+				if (TEST_SUPERCLASSES.contains(supertype)) {
+					return true;
+				}
+				ClassReferences indexed = classes.get(supertype);
+				if (indexed != null && seen.add(supertype)) {
+					hierarchy.add(indexed);
+				}
+			}
+		}
+		return false;
+	}
+
+	private List<ClassReferences> index(File classesDir) {
+		if (!classesDir.isDirectory()) {
+			return Collections.emptyList();
+		}
+		List<Path> classFiles;
+		try (Stream<Path> stream = Files.walk(classesDir.toPath())) {
+			classFiles = stream.filter((path) -> path.toString().endsWith(".class")).collect(Collectors.toList());
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Failed to index the classes in " + classesDir, ex);
+		}
+		List<ClassReferences> index = new ArrayList<>(classFiles.size());
+		for (Path classFile : classFiles) {
+			File file = classFile.toFile();
+			index.add(this.classes.computeIfAbsent(key(file), (key) -> read(file)));
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the packages of the classes contained in the given {@code jar}.
+	 * @param jar the jar
+	 * @return the internal names of the packages
+	 */
+	Set<String> packages(File jar) {
+		return this.packages.computeIfAbsent(key(jar), (key) -> readPackages(jar));
+	}
+
+	/**
+	 * Returns the classes declared in the given classpath {@code entry}, either a jar or
+	 * a directory.
+	 * @param entry the classpath entry
+	 * @return the class declarations keyed by internal name
+	 */
+	Map<String, ClassDeclaration> declarations(File entry) {
+		if (entry.isDirectory()) {
+			return readDeclarations(entry);
+		}
+		return this.declarations.computeIfAbsent(key(entry), (key) -> readDeclarations(entry));
+	}
+
+	/**
+	 * Returns the declaration of the class with the given {@code name} that is provided by
+	 * the JDK installed in the given {@code javaHome}.
+	 * @param javaHome the installation directory of the JDK
+	 * @param name the internal name of the class
+	 * @return the declaration or {@code null} if the JDK does not provide the class
+	 */
+	ClassDeclaration jdkDeclaration(File javaHome, String name) {
+		return this.jdks.computeIfAbsent(javaHome.getAbsolutePath(), (key) -> openJdk(javaHome)).declaration(name);
+	}
+
+	@Override
+	public void close() throws IOException {
+		for (JdkClasses jdk : this.jdks.values()) {
+			jdk.close();
+		}
+	}
+
+	private String key(File file) {
+		return file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified();
+	}
+
+	private ClassReferences read(File file) {
+		try (InputStream input = Files.newInputStream(file.toPath())) {
+			return new ClassReferences(ClassFile.read(input));
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Failed to read class file " + file, ex);
+		}
+	}
+
+	private Set<String> readPackages(File jar) {
+		if (!jar.isFile()) {
+			return Collections.emptySet();
+		}
+		Set<String> packages = new HashSet<>();
+		try (ZipFile zip = new ZipFile(jar)) {
+			Enumeration<? extends ZipEntry> entries = zip.entries();
+			while (entries.hasMoreElements()) {
+				String name = entries.nextElement().getName();
+				if (name.endsWith(".class") && !name.startsWith("META-INF/")) {
+					packages.add(packageOf(name));
+				}
+			}
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Failed to index the packages in " + jar, ex);
+		}
+		return packages;
+	}
+
+	private Map<String, ClassDeclaration> readDeclarations(File entry) {
+		Map<String, ClassDeclaration> declarations = new HashMap<>();
+		if (entry.isDirectory()) {
+			try (Stream<Path> stream = Files.walk(entry.toPath())) {
+				for (Path path : (Iterable<Path>) stream::iterator) {
+					if (isClass(entry.toPath().relativize(path).toString())) {
+						try (InputStream input = Files.newInputStream(path)) {
+							add(declarations, ClassFile.read(input));
+						}
+					}
+				}
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException("Failed to index the classes declared in " + entry, ex);
+			}
+		}
+		else if (entry.isFile()) {
+			try (ZipFile zip = new ZipFile(entry)) {
+				Enumeration<? extends ZipEntry> entries = zip.entries();
+				while (entries.hasMoreElements()) {
+					ZipEntry zipEntry = entries.nextElement();
+					if (isClass(zipEntry.getName())) {
+						try (InputStream input = zip.getInputStream(zipEntry)) {
+							add(declarations, ClassFile.read(input));
+						}
+					}
+				}
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException("Failed to index the classes declared in " + entry, ex);
+			}
+		}
+		return declarations;
+	}
+
+	private boolean isClass(String name) {
+		return name.endsWith(".class") && !name.startsWith("META-INF") && !name.endsWith("module-info.class");
+	}
+
+	private void add(Map<String, ClassDeclaration> declarations, ClassFile classFile) {
+		declarations.put(classFile.getName(), new ClassDeclaration(classFile));
+	}
+
+	private JdkClasses openJdk(File javaHome) {
+		File jrtFs = new File(javaHome, "lib/jrt-fs.jar");
+		if (jrtFs.isFile()) {
+			try {
+				URLClassLoader loader = new URLClassLoader(new URL[] { jrtFs.toURI().toURL() });
+				FileSystem modules = FileSystems.newFileSystem(URI.create("jrt:/"),
+						Collections.singletonMap("java.home", javaHome.getAbsolutePath()), loader);
+				return new JdkClasses(modules, loader, null);
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException("Failed to open the modules of the JDK in " + javaHome, ex);
+			}
+		}
+		File runtimeJar = new File(javaHome, "jre/lib/rt.jar");
+		if (!runtimeJar.isFile()) {
+			runtimeJar = new File(javaHome, "lib/rt.jar");
+		}
+		return new JdkClasses(null, null, declarations(runtimeJar));
+	}
+
+	static String packageOf(String name) {
+		int lastSlash = name.lastIndexOf('/');
+		return (lastSlash != -1) ? name.substring(0, lastSlash) : "";
+	}
+
+	/**
+	 * The declaration of a class: its supertypes and the names and descriptors of its
+	 * fields and methods.
+	 */
+	static final class ClassDeclaration {
+
+		private final String name;
+
+		private final List<String> supertypes;
+
+		private final Set<String> fields;
+
+		private final Set<String> methods;
+
+		ClassDeclaration(ClassFile classFile) {
+			this.name = classFile.getName();
+			List<String> supertypes = new ArrayList<>();
+			if (classFile.getSuperName() != null) {
+				supertypes.add(classFile.getSuperName());
+			}
+			supertypes.addAll(classFile.getInterfaces());
+			this.supertypes = supertypes;
+			this.fields = members(classFile.getFields());
+			this.methods = members(classFile.getMethods());
+		}
+
+		private static Set<String> members(List<Member> members) {
+			Set<String> result = new HashSet<>();
+			for (Member member : members) {
+				result.add(member.getName() + member.getDescriptor());
+			}
+			return result;
+		}
+
+		String getName() {
+			return this.name;
+		}
+
+		List<String> getSupertypes() {
+			return this.supertypes;
+		}
+
+		boolean declaresField(String name, String descriptor) {
+			return this.fields.contains(name + descriptor);
+		}
+
+		boolean declaresMethod(String name, String descriptor) {
+			return this.methods.contains(name + descriptor);
+		}
+
+	}
+
+	/**
+	 * The classes of a JDK, read from its modules or, for Java 8, from its runtime jar.
+	 */
+	private static final class JdkClasses implements Closeable {
+
+		private final FileSystem modules;
+
+		private final URLClassLoader loader;
+
+		private final Map<String, ClassDeclaration> runtimeJar;
+
+		private final Map<String, Optional<ClassDeclaration>> declarations = new ConcurrentHashMap<>();
+
+		private JdkClasses(FileSystem modules, URLClassLoader loader, Map<String, ClassDeclaration> runtimeJar) {
+			this.modules = modules;
+			this.loader = loader;
+			this.runtimeJar = runtimeJar;
+		}
+
+		private ClassDeclaration declaration(String name) {
+			if (this.runtimeJar != null) {
+				return this.runtimeJar.get(name);
+			}
+			return this.declarations.computeIfAbsent(name, this::read).orElse(null);
+		}
+
+		private Optional<ClassDeclaration> read(String name) {
+			Path packageDir = this.modules.getPath("/packages", packageOf(name).replace('/', '.'));
+			if (!Files.isDirectory(packageDir)) {
+				return Optional.empty();
+			}
+			try (Stream<Path> moduleLinks = Files.list(packageDir)) {
+				for (Path moduleLink : (Iterable<Path>) moduleLinks::iterator) {
+					Path classFile = this.modules.getPath("/modules", moduleLink.getFileName().toString(),
+							name + ".class");
+					if (Files.isRegularFile(classFile)) {
+						try (InputStream input = Files.newInputStream(classFile)) {
+							return Optional.of(new ClassDeclaration(ClassFile.read(input)));
+						}
+					}
+				}
+				return Optional.empty();
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException("Failed to read JDK class " + name, ex);
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (this.modules != null) {
+				this.modules.close();
+			}
+			if (this.loader != null) {
+				this.loader.close();
+			}
+		}
+
+	}
+
+	/**
+	 * The classes referenced by a class and whether it may be a test class.
+	 */
+	private static final class ClassReferences {
+
+		private final String name;
+
+		private final Set<String> references;
+
+		private final List<String> supertypes;
+
+		private final boolean concrete;
+
+		private final boolean declaresTests;
+
+		private ClassReferences(ClassFile classFile) {
+			this.name = classFile.getName();
+			this.references = classFile.getReferencedClasses();
+			List<String> supertypes = new ArrayList<>();
+			if (classFile.getSuperName() != null) {
+				supertypes.add(classFile.getSuperName());
+			}
+			supertypes.addAll(classFile.getInterfaces());
+			this.supertypes = supertypes;
+			this.concrete = (classFile.getAccess() & (ClassFile.ACC_INTERFACE | ClassFile.ACC_ABSTRACT)) == 0;
+			this.declaresTests = hasTestAnnotation(classFile.getAnnotations())
+					|| classFile.getMethods().stream().anyMatch((method) -> hasTestAnnotation(method.getAnnotations()));
+		}
+
+		private static boolean hasTestAnnotation(List<String> annotations) {
+			for (String annotation : annotations) {
+				for (String testAnnotation : TEST_ANNOTATIONS) {
+					if (annotation.startsWith("RuntimeVisibleAnnotations @L" + testAnnotation + ";")) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+	}
+
+}
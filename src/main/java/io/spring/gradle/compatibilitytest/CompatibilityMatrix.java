@@ -58,6 +58,10 @@ class CompatibilityMatrix {
 			this.version = version;
 		}
 
+		String getName() {
+			return this.name;
+		}
+
 		String getGroupId() {
 			return this.groupId;
 		}
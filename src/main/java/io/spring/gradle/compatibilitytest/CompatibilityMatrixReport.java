@@ -0,0 +1,221 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A report of the outcome of each test in each permutation. Tests are rows and
+ * permutations are columns. The outcome and duration of each test are held in compact
+ * arrays with one entry per permutation.
+ *
+ * @author Andy Wilkinson
+ */
+final class CompatibilityMatrixReport {
+
+	private final List<String> permutations;
+
+	private final Map<String, Row> rows = new TreeMap<>();
+
+	private final double[] durations;
+
+	private final int[] failures;
+
+	CompatibilityMatrixReport(List<String> permutations) {
+		this.permutations = permutations;
+		this.durations = new double[permutations.size()];
+		this.failures = new int[permutations.size()];
+	}
+
+	/**
+	 * Adds the result of a test in a permutation.
+	 * @param permutation the index of the permutation
+	 * @param test the name of the test
+	 * @param outcome the outcome of the test
+	 * @param duration the duration of the test in seconds
+	 */
+	void add(int permutation, String test, Outcome outcome, double duration) {
+		Row row = this.rows.computeIfAbsent(test, (key) -> new Row(this.permutations.size()));
+		row.outcomes[permutation] = (byte) outcome.ordinal();
+		row.durations[permutation] = (float) duration;
+		this.durations[permutation] += duration;
+		if (outcome == Outcome.FAILED) {
+			this.failures[permutation]++;
+		}
+	}
+
+	/**
+	 * Writes the report as HTML to the given {@code writer}.
+	 * @param writer the writer
+	 */
+	void writeHtml(PrintWriter writer) {
+		int collapsed = 0;
+		for (Row row : this.rows.values()) {
+			if (row.passedEverywhere()) {
+				collapsed++;
+			}
+		}
+		writer.println("<!DOCTYPE html>");
+		writer.println("<html>");
+		writer.println("<head>");
+		writer.println("<meta charset=\"UTF-8\">");
+		writer.println("<title>Compatibility Test Report</title>");
+		writer.println("<style>");
+		writer.println("body { font-family: sans-serif; font-size: 14px; }");
+		writer.println("table { border-collapse: collapse; }");
+		writer.println("th, td { border: 1px solid #ccc; padding: 4px 8px; text-align: left; }");
+		writer.println("td.passed { background: #dfd; } td.failed { background: #fdd; } "
+				+ "td.skipped { background: #ffd; } td.not-run { background: #eee; }");
+		writer.println("</style>");
+		writer.println("</head>");
+		writer.println("<body>");
+		writer.println("<h1>Compatibility Test Report</h1>");
+		writer.printf("<p>%d tests in %d permutations. ", this.rows.size(), this.permutations.size());
+		writer.printf("%d tests passed in every permutation in which they were run.</p>%n", collapsed);
+		writer.println("<table>");
+		writer.println("<tr><th>Test</th>");
+		for (int i = 0; i < this.permutations.size(); i++) {
+			writer.printf(Locale.ROOT, "<th>%s<br>%d failed, %.3fs</th>%n", escape(this.permutations.get(i)),
+					this.failures[i], this.durations[i]);
+		}
+		writer.println("</tr>");
+		if (collapsed > 0) {
+			writer.printf("<tr><td colspan=\"%d\"><details><summary>%d tests passed in every permutation</summary>%n",
+					this.permutations.size() + 1, collapsed);
+			writer.println("<ul>");
+			this.rows.forEach((test, row) -> {
+				if (row.passedEverywhere()) {
+					writer.printf("<li>%s</li>%n", escape(test));
+				}
+			});
+			writer.println("</ul></details></td></tr>");
+		}
+		this.rows.forEach((test, row) -> {
+			if (!row.passedEverywhere()) {
+				writeRow(writer, test, row);
+			}
+		});
+		writer.println("</table>");
+		writer.println("</body>");
+		writer.println("</html>");
+	}
+
+	private void writeRow(PrintWriter writer, String test, Row row) {
+		writer.printf("<tr><td>%s</td>", escape(test));
+		for (int i = 0; i < row.outcomes.length; i++) {
+			Outcome outcome = Outcome.values()[row.outcomes[i]];
+			if (outcome == Outcome.NOT_RUN) {
+				writer.print("<td class=\"not-run\">not run</td>");
+			}
+			else {
+				writer.printf(Locale.ROOT, "<td class=\"%s\">%s %.3fs</td>", outcome.label, outcome.label,
+						row.durations[i]);
+			}
+		}
+		writer.println("</tr>");
+	}
+
+	private static String escape(String text) {
+		StringBuilder escaped = new StringBuilder(text.length());
+		for (char c : text.toCharArray()) {
+			switch (c) {
+				case '<':
+					escaped.append("&lt;");
+					break;
+				case '>':
+					escaped.append("&gt;");
+					break;
+				case '&':
+					escaped.append("&amp;");
+					break;
+				case '"':
+					escaped.append("&quot;");
+					break;
+				default:
+					escaped.append(c);
+			}
+		}
+		return escaped.toString();
+	}
+
+	/**
+	 * The outcome of a test in a permutation.
+	 */
+	enum Outcome {
+
+		/**
+		 * The test was not run in the permutation.
+		 */
+		NOT_RUN("not-run"),
+
+		/**
+		 * The test passed.
+		 */
+		PASSED("passed"),
+
+		/**
+		 * The test failed.
+		 */
+		FAILED("failed"),
+
+		/**
+		 * The test was skipped.
+		 */
+		SKIPPED("skipped");
+
+		private final String label;
+
+		Outcome(String label) {
+			this.label = label;
+		}
+
+	}
+
+	/**
+	 * The outcomes and durations of a test in each permutation.
+	 */
+	private static final class Row {
+
+		private final byte[] outcomes;
+
+		private final float[] durations;
+
+		private Row(int permutations) {
+			this.outcomes = new byte[permutations];
+			this.durations = new float[permutations];
+		}
+
+		private boolean passedEverywhere() {
+			boolean passed = false;
+			for (byte outcome : this.outcomes) {
+				if (outcome == Outcome.PASSED.ordinal()) {
+					passed = true;
+				}
+				else if (outcome != Outcome.NOT_RUN.ordinal()) {
+					return false;
+				}
+			}
+			return passed;
+		}
+
+	}
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Task that reports the outcome of bisecting the versions of the matrix's dependency. The
+ * permutations that were probed are tested by the task's dependencies and this task
+ * reports the last version that passed and the first version that failed.
+ *
+ * @author Andy Wilkinson
+ */
+public abstract class CompatibilityTestBisect extends DefaultTask {
+
+	/**
+	 * Returns the build service that performs the bisection.
+	 * @return the bisection
+	 */
+	@Internal
+	public abstract Property<PermutationBisection> getBisection();
+
+	@TaskAction
+	public void report() {
+		PermutationBisection service = getBisection().get();
+		Bisection bisection = service.complete();
+		int lastPassing = bisection.getLastPassing();
+		int firstFailing = bisection.getFirstFailing();
+		getLogger().lifecycle("Bisected {} permutations by testing {}", bisection.size(), bisection.getProbed());
+		getLogger().lifecycle("Last passing: {}", (lastPassing != -1) ? service.getDescription(lastPassing) : "none");
+		getLogger().lifecycle("First failing: {}",
+				(firstFailing != -1) ? service.getDescription(firstFailing) : "none");
+	}
+
+}
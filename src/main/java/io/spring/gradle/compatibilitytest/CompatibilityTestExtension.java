@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2023 the original author or authors.
+ * Copyright 2014-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,15 +16,23 @@
 
 package io.spring.gradle.compatibilitytest;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.gradle.api.Action;
+import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.tasks.testing.Test;
 
 import io.spring.gradle.compatibilitytest.CompatibilityMatrix.DependencyVersion;
+import io.spring.gradle.compatibilitytest.PermutationConstraints.Constraint;
 
 /**
  * DSL extension for configuring compatibility {@link Test} tasks.
@@ -37,6 +45,42 @@ public class CompatibilityTestExtension {
 
 	private boolean useJUnitPlatform;
 
+	private boolean reuseCompiledTestClasses;
+
+	private boolean deduplicatePermutations;
+
+	private boolean runInSingleJvm;
+
+	private int singleJvmConcurrency = 1;
+
+	private boolean runInPooledJvms;
+
+	private int pooledJvms = 1;
+
+	private Integer maxConcurrentPermutations;
+
+	private Integer maxParallelForksPerPermutation;
+
+	private String maxHeapSize;
+
+	private boolean failFast;
+
+	private boolean selectImpactedTests;
+
+	private boolean recordMetrics;
+
+	private boolean checkLinkage;
+
+	private PermutationStrategy strategy = new PermutationStrategy.FullProduct();
+
+	private Duration metadataCacheTimeout = Duration.ofHours(24);
+
+	private final List<DynamicVersions> dynamicVersions = new ArrayList<>();
+
+	private final List<Constraint> constraints = new ArrayList<>();
+
+	private final List<Integer> javaVersions = new ArrayList<>();
+
 	CompatibilityTestExtension(CompatibilityMatrix testMatrix) {
 		this.testMatrix = testMatrix;
 	}
@@ -52,8 +96,116 @@ public class CompatibilityTestExtension {
 		action.execute(configurer);
 		Set<DependencyVersion> dependencyVersions = configurer.versions.stream()
 			.map((version) -> new DependencyVersion(name, configurer.getGroupId(), configurer.getArtifactId(), version))
-			.collect(Collectors.toSet());
+			.collect(Collectors.toCollection(LinkedHashSet::new));
 		this.testMatrix.add(dependencyVersions);
+		if (!configurer.selectors.isEmpty()) {
+			String artifactId = (configurer.getVersionsFrom() != null) ? configurer.getVersionsFrom()
+					: configurer.getArtifactId();
+			if (artifactId == null) {
+				throw new InvalidUserDataException("Versions of " + name + " are selected from Maven metadata so "
+						+ "its artifactId or versionsFrom must be set");
+			}
+			this.dynamicVersions.add(new DynamicVersions(name, configurer.getGroupId(), configurer.getArtifactId(),
+					artifactId, configurer.selectors, dependencyVersions));
+		}
+	}
+
+	/**
+	 * Excludes the combinations of dependency versions that match the conditions
+	 * configured by the given {@code action}. For example, to exclude every combination
+	 * of Spring Framework 6 and Reactor 3.4:
+	 * <pre class="code">
+	 * exclude { constraint -&gt;
+	 *     constraint.when('Spring Framework', '6.*')
+	 *     constraint.when('Reactor', '3.4.*')
+	 * }
+	 * </pre>
+	 * @param action configures the conditions of the exclusion
+	 */
+	public void exclude(Action<ConstraintConfigurer> action) {
+		ConstraintConfigurer configurer = new ConstraintConfigurer();
+		action.execute(configurer);
+		if (configurer.conditions.isEmpty() || !configurer.requirements.isEmpty()) {
+			throw new InvalidUserDataException("An exclusion must have at least one condition and no requirements");
+		}
+		this.constraints.add(Constraint.exclude(configurer.conditions));
+	}
+
+	/**
+	 * Requires that the combinations of dependency versions that match the conditions
+	 * configured by the given {@code action} also match its requirements. For example, to
+	 * require that Spring Framework 6 is only tested with Reactor 3.5 or 3.6:
+	 * <pre class="code">
+	 * requires { constraint -&gt;
+	 *     constraint.when('Spring Framework', '6.*')
+	 *     constraint.then('Reactor', '3.5.*', '3.6.*')
+	 * }
+	 * </pre>
+	 * @param action configures the conditions and requirements of the constraint
+	 */
+	public void requires(Action<ConstraintConfigurer> action) {
+		ConstraintConfigurer configurer = new ConstraintConfigurer();
+		action.execute(configurer);
+		if (configurer.requirements.isEmpty()) {
+			throw new InvalidUserDataException("A requirement must have at least one requirement");
+		}
+		this.constraints.add(Constraint.require(configurer.conditions, configurer.requirements));
+	}
+
+	/**
+	 * Returns the versions of Java on which each permutation of the matrix's dependency
+	 * versions is tested. Defaults to an empty list, in which case each permutation is
+	 * tested on the Java version used by the project's {@code test} task.
+	 * @return the Java versions
+	 */
+	public List<Integer> getJavaVersions() {
+		return this.javaVersions;
+	}
+
+	/**
+	 * Sets the versions of Java, for example {@code [17, 21]}, on which each permutation
+	 * of the matrix's dependency versions is tested. The tests of each permutation are
+	 * compiled once, targeting the lowest of the versions, and run on each version using
+	 * a launcher from a Java toolchain.
+	 * @param javaVersions the Java versions
+	 */
+	public void setJavaVersions(List<Integer> javaVersions) {
+		this.javaVersions.clear();
+		this.javaVersions.addAll(javaVersions);
+	}
+
+	CompatibilityMatrix getMatrix() {
+		return this.testMatrix;
+	}
+
+	boolean definesMatrix() {
+		return !this.testMatrix.getEntries().isEmpty();
+	}
+
+	PermutationConstraints getConstraints() {
+		return new PermutationConstraints(this.constraints);
+	}
+
+	List<DynamicVersions> getDynamicVersions() {
+		return this.dynamicVersions;
+	}
+
+	/**
+	 * Returns how long the Maven metadata from which versions are selected is cached
+	 * before it is downloaded again. Defaults to 24 hours.
+	 * @return the metadata cache timeout
+	 */
+	public Duration getMetadataCacheTimeout() {
+		return this.metadataCacheTimeout;
+	}
+
+	/**
+	 * Sets how long the Maven metadata from which versions are selected is cached before
+	 * it is downloaded again.
+	 * @param metadataCacheTimeout the metadata cache timeout
+	 */
+	public void setMetadataCacheTimeout(Duration metadataCacheTimeout) {
+		this.metadataCacheTimeout = metadataCacheTimeout;
 	}
 
 	/**
@@ -68,6 +220,277 @@ public class CompatibilityTestExtension {
 		return this.useJUnitPlatform;
 	}
 
+	/**
+	 * Configures the compilation of the test source for each permutation to reuse test
+	 * classes that have already been compiled against a classpath with an identical ABI,
+	 * either by the {@code compileTestJava} task or for another permutation, rather than
+	 * compiling them again.
+	 */
+	public void reuseCompiledTestClasses() {
+		this.reuseCompiledTestClasses = true;
+	}
+
+	boolean isReuseCompiledTestClasses() {
+		return this.reuseCompiledTestClasses;
+	}
+
+	/**
+	 * Configures the tests of every permutation to be run in a single worker JVM by the
+	 * {@code compatibilityTestInSingleJvm} task, with each permutation's tests launched
+	 * on the JUnit Platform using an isolated class loader. The JUnit Platform launcher
+	 * must be on the test runtime classpath.
+	 */
+	public void runInSingleJvm() {
+		this.runInSingleJvm = true;
+	}
+
+	boolean isRunInSingleJvm() {
+		return this.runInSingleJvm;
+	}
+
+	/**
+	 * Returns the number of permutations whose tests are run concurrently when running
+	 * in a single JVM. Defaults to {@code 1}.
+	 * @return the concurrency
+	 */
+	public int getSingleJvmConcurrency() {
+		return this.singleJvmConcurrency;
+	}
+
+	/**
+	 * Sets the number of permutations whose tests are run concurrently when running in a
+	 * single JVM. Tests that modify JVM-wide state, such as system properties, should
+	 * not be run concurrently.
+	 * @param singleJvmConcurrency the concurrency
+	 */
+	public void setSingleJvmConcurrency(int singleJvmConcurrency) {
+		this.singleJvmConcurrency = singleJvmConcurrency;
+	}
+
+	/**
+	 * Configures the tests of each permutation to be run in a pool of long-lived worker
+	 * JVMs that is shared by every permutation in the build, rather than in JVMs that are
+	 * forked for the permutation. Each permutation's tests are launched on the JUnit
+	 * Platform using a class loader that contains only that permutation's test runtime
+	 * classpath and that is discarded once the tests have run, so each JVM is only
+	 * started and warmed up once. The JUnit Platform launcher must be on the test runtime
+	 * classpath. When impacted tests are selected or metrics are recorded, the tests of
+	 * each permutation are run in forked JVMs instead.
+	 */
+	public void runInPooledJvms() {
+		this.runInPooledJvms = true;
+	}
+
+	boolean isRunInPooledJvms() {
+		return this.runInPooledJvms;
+	}
+
+	/**
+	 * Returns the number of JVMs in the pool in which the tests of each permutation are
+	 * run when pooled JVMs are enabled. Defaults to {@code 1}.
+	 * @return the number of pooled JVMs
+	 */
+	public int getPooledJvms() {
+		return this.pooledJvms;
+	}
+
+	/**
+	 * Sets the number of JVMs in the pool in which the tests of each permutation are run
+	 * when pooled JVMs are enabled. This is also the maximum number of permutations whose
+	 * tests are run concurrently in pooled JVMs. The pool is shared by every project in the
+	 * build so the build fails when projects configure different sizes.
+	 * @param pooledJvms the number of pooled JVMs
+	 */
+	public void setPooledJvms(int pooledJvms) {
+		this.pooledJvms = pooledJvms;
+	}
+
+	/**
+	 * Returns the maximum number of permutations whose tests are run concurrently across
+	 * all of the projects in the build. Defaults to {@code null}, in which case the number
+	 * is only limited by Gradle's maximum number of workers.
+	 * @return the maximum number of concurrent permutations or {@code null}
+	 */
+	public Integer getMaxConcurrentPermutations() {
+		return this.maxConcurrentPermutations;
+	}
+
+	/**
+	 * Sets the maximum number of permutations whose tests are run concurrently across all
+	 * of the projects in the build. The limit is shared by every project in the build so
+	 * the build fails when projects configure different limits.
+	 * @param maxConcurrentPermutations the maximum number of concurrent permutations
+	 */
+	public void setMaxConcurrentPermutations(Integer maxConcurrentPermutations) {
+		this.maxConcurrentPermutations = maxConcurrentPermutations;
+	}
+
+	/**
+	 * Returns the maximum number of test processes that are forked when testing each
+	 * permutation. Defaults to {@code null}, in which case the {@link Test} task's
+	 * default is used.
+	 * @return the maximum number of forks per permutation or {@code null}
+	 */
+	public Integer getMaxParallelForksPerPermutation() {
+		return this.maxParallelForksPerPermutation;
+	}
+
+	/**
+	 * Sets the maximum number of test processes that are forked when testing each
+	 * permutation. In combination with {@link #setMaxConcurrentPermutations(Integer)},
+	 * this bounds the total number of test processes used for compatibility testing.
+	 * @param maxParallelForksPerPermutation the maximum number of forks per permutation
+	 */
+	public void setMaxParallelForksPerPermutation(Integer maxParallelForksPerPermutation) {
+		this.maxParallelForksPerPermutation = maxParallelForksPerPermutation;
+	}
+
+	/**
+	 * Returns the maximum heap size of the JVMs in which each permutation's tests are
+	 * run. Defaults to {@code null}, in which case the JVM's default is used.
+	 * @return the maximum heap size or {@code null}
+	 */
+	public String getMaxHeapSize() {
+		return this.maxHeapSize;
+	}
+
+	/**
+	 * Sets the maximum heap size, for example {@code "512m"}, of the JVMs in which each
+	 * permutation's tests are run.
+	 * @param maxHeapSize the maximum heap size
+	 */
+	public void setMaxHeapSize(String maxHeapSize) {
+		this.maxHeapSize = maxHeapSize;
+	}
+
+	/**
+	 * Configures each permutation to only run the test classes that can observe the
+	 * versions of the permutation's dependencies. A test class is run when it references
+	 * a class in a package of the dependencies' artifacts, either directly or through
+	 * other test classes or the project's main classes.
+	 */
+	public void selectImpactedTests() {
+		this.selectImpactedTests = true;
+	}
+
+	boolean isSelectImpactedTests() {
+		return this.selectImpactedTests;
+	}
+
+	/**
+	 * Configures the plugin to record metrics of each permutation that is tested in its
+	 * own JVMs. The durations of the permutation's tasks, the time taken to start its
+	 * test JVMs and to run its tests, the number of tests, the number and size of the
+	 * artifacts on its runtime classpath, and the peak heap usage of its test JVMs are
+	 * written to {@code build/reports/compatibilityTest/metrics.json} and
+	 * {@code metrics.csv}, and the permutations that cost the most are summarized when
+	 * the build finishes.
+	 */
+	public void recordMetrics() {
+		this.recordMetrics = true;
+	}
+
+	boolean isRecordMetrics() {
+		return this.recordMetrics;
+	}
+
+	/**
+	 * Configures each permutation's tests to only run once the binary linkage of the
+	 * project's main and test classes with the permutation's runtime classpath has been
+	 * checked. The check is performed by the {@code compatibilityLinkageCheck_*} tasks
+	 * which fail when a class, method, or field that the classes reference is missing
+	 * from the permutation's dependencies.
+	 */
+	public void checkLinkage() {
+		this.checkLinkage = true;
+	}
+
+	boolean isCheckLinkage() {
+		return this.checkLinkage;
+	}
+
+	/**
+	 * Returns whether testing stops after the first permutation fails. Defaults to
+	 * {@code false}.
+	 * @return whether testing stops after the first failure
+	 */
+	public boolean isFailFast() {
+		return this.failFast;
+	}
+
+	/**
+	 * Sets whether testing stops after the first permutation fails. When enabled, each
+	 * permutation's tests stop at the first failing test, matrix test tasks that have not
+	 * started when a permutation fails are skipped, and the permutations that failed
+	 * when last tested are run first.
+	 * @param failFast whether testing stops after the first failure
+	 */
+	public void setFailFast(boolean failFast) {
+		this.failFast = failFast;
+	}
+
+	/**
+	 * Configures permutations whose runtime classpaths and compiled test classes are
+	 * identical to those of another permutation to only be tested once. The tests of the
+	 * first such permutation are run and the others are skipped and reported as its
+	 * aliases.
+	 */
+	public void deduplicatePermutations() {
+		this.deduplicatePermutations = true;
+	}
+
+	boolean isDeduplicatePermutations() {
+		return this.deduplicatePermutations;
+	}
+
+	/**
+	 * Returns the strategy used to select the permutations of the matrix that are
+	 * tested. Defaults to {@link #fullProduct()}.
+	 * @return the permutation strategy
+	 */
+	public PermutationStrategy getStrategy() {
+		return this.strategy;
+	}
+
+	/**
+	 * Sets the strategy used to select the permutations of the matrix that are tested.
+	 * @param strategy the permutation strategy
+	 * @see #fullProduct()
+	 * @see #pairwise()
+	 * @see #nWise(int)
+	 */
+	public void setStrategy(PermutationStrategy strategy) {
+		this.strategy = strategy;
+	}
+
+	/**
+	 * Returns a strategy that tests every permutation of the configured dependency
+	 * versions.
+	 * @return the full product strategy
+	 */
+	public PermutationStrategy fullProduct() {
+		return new PermutationStrategy.FullProduct();
+	}
+
+	/**
+	 * Returns a strategy that tests a covering array in which every pair of versions of
+	 * any two dependencies appears at least once.
+	 * @return the pairwise strategy
+	 */
+	public PermutationStrategy.NWise pairwise() {
+		return nWise(2);
+	}
+
+	/**
+	 * Returns a strategy that tests a covering array in which every combination of
+	 * versions of any {@code strength} dependencies appears at least once.
+	 * @param strength the number of dependencies whose combinations are covered
+	 * @return the n-wise strategy
+	 */
+	public PermutationStrategy.NWise nWise(int strength) {
+		return new PermutationStrategy.NWise(strength, 0);
+	}
+
 	/**
 	 * Configurer for the versions of a dependency or set of dependencies identified by a
 	 * {@code groupId} and optional {@code artifactId} against which compatibility testing
@@ -81,6 +504,10 @@ public class CompatibilityTestExtension {
 
 		private List<String> versions = new ArrayList<>();
 
+		private String versionsFrom;
+
+		private final List<VersionSelector> selectors = new ArrayList<>();
+
 		public String getGroupId() {
 			return this.groupId;
 		}
@@ -105,6 +532,146 @@ public class CompatibilityTestExtension {
 			this.versions = versions;
 		}
 
+		/**
+		 * Returns the artifact ID of the module whose Maven metadata is used to select
+		 * versions. Defaults to the {@code artifactId}.
+		 * @return the artifact ID of the module whose metadata is used
+		 */
+		public String getVersionsFrom() {
+			return this.versionsFrom;
+		}
+
+		/**
+		 * Sets the artifact ID of the module whose Maven metadata is used to select
+		 * versions. Required when only the {@code groupId} is set.
+		 * @param versionsFrom the artifact ID of the module whose metadata is used
+		 */
+		public void setVersionsFrom(String versionsFrom) {
+			this.versionsFrom = versionsFrom;
+		}
+
+		/**
+		 * Selects the latest patch release of each of the given minor versions, for
+		 * example {@code 5.3} and {@code 6.0}, from the versions that have been published.
+		 * @param minors the minor versions
+		 */
+		public void latestPatchOf(String... minors) {
+			for (String minor : minors) {
+				this.selectors.add(VersionSelector.latestPatchOf(minor));
+			}
+		}
+
+		/**
+		 * Selects every release that is the same as or later than the given
+		 * {@code version} from the versions that have been published. Milestones, release
+		 * candidates, and snapshots are not selected.
+		 * @param version the earliest version to select
+		 */
+		public void releasesSince(String version) {
+			this.selectors.add(VersionSelector.releasesSince(version));
+		}
+
+	}
+
+	/**
+	 * Configurer for a constraint on the combinations of dependency versions that are
+	 * tested. Versions are matched against patterns in which {@code *} matches any
+	 * sequence of characters.
+	 */
+	public static class ConstraintConfigurer {
+
+		private final Map<String, List<String>> conditions = new LinkedHashMap<>();
+
+		private final Map<String, List<String>> requirements = new LinkedHashMap<>();
+
+		/**
+		 * Adds a condition that the version of the dependency with the given
+		 * {@code name} matches one of the given {@code versions}.
+		 * @param name the name of the dependency
+		 * @param versions the version patterns
+		 */
+		public void when(String name, String... versions) {
+			this.conditions.put(name, Arrays.asList(versions));
+		}
+
+		/**
+		 * Adds a requirement that the version of the dependency with the given
+		 * {@code name} matches one of the given {@code versions}.
+		 * @param name the name of the dependency
+		 * @param versions the version patterns
+		 */
+		public void then(String name, String... versions) {
+			this.requirements.put(name, Arrays.asList(versions));
+		}
+
+	}
+
+	/**
+	 * Versions of a dependency that are selected from its Maven metadata.
+	 */
+	static final class DynamicVersions {
+
+		private final String name;
+
+		private final String groupId;
+
+		private final String artifactId;
+
+		private final String metadataArtifactId;
+
+		private final List<VersionSelector> selectors;
+
+		private final Set<DependencyVersion> dependencyVersions;
+
+		private DynamicVersions(String name, String groupId, String artifactId, String metadataArtifactId,
+				List<VersionSelector> selectors, Set<DependencyVersion> dependencyVersions) {
+			this.name = name;
+			this.groupId = groupId;
+			this.artifactId = artifactId;
+			this.metadataArtifactId = metadataArtifactId;
+			this.selectors = selectors;
+			this.dependencyVersions = dependencyVersions;
+		}
+
+		String getName() {
+			return this.name;
+		}
+
+		String getGroupId() {
+			return this.groupId;
+		}
+
+		String getMetadataArtifactId() {
+			return this.metadataArtifactId;
+		}
+
+		List<VersionSelector> getSelectors() {
+			return this.selectors;
+		}
+
+		/**
+		 * Adds the versions selected from the given {@code available} versions to the
+		 * dependency's entry in the matrix.
+		 * @param available the available versions
+		 * @return the selected versions
+		 */
+		Set<String> select(Collection<String> available) {
+			Set<String> selected = new LinkedHashSet<>();
+			for (VersionSelector selector : this.selectors) {
+				selected.addAll(selector.select(available));
+			}
+			Set<String> existing = this.dependencyVersions.stream()
+				.map(DependencyVersion::getVersion)
+				.collect(Collectors.toSet());
+			for (String version : selected) {
+				if (existing.add(version)) {
+					this.dependencyVersions
+						.add(new DependencyVersion(this.name, this.groupId, this.artifactId, version));
+				}
+			}
+			return selected;
+		}
+
 	}
 
 }
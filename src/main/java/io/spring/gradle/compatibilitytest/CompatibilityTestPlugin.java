@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2025 the original author or authors.
+ * Copyright 2014-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,23 +16,66 @@
 
 package io.spring.gradle.compatibilitytest;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import javax.inject.Inject;
+
+import org.gradle.StartParameter;
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.NamedDomainObjectProvider;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
+import org.gradle.api.Task;
 import org.gradle.api.artifacts.Configuration;
-import org.gradle.api.artifacts.DependencyResolveDetails;
-import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.RegularFile;
 import org.gradle.api.plugins.JavaBasePlugin;
+import org.gradle.api.plugins.JavaPlugin;
 import org.gradle.api.plugins.JavaPluginExtension;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildServiceRegistration;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.SourceSet;
 import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.api.tasks.TaskProvider;
 import org.gradle.api.tasks.compile.JavaCompile;
 import org.gradle.api.tasks.testing.Test;
+import org.gradle.api.tasks.testing.TestFrameworkOptions;
+import org.gradle.api.tasks.testing.junit.JUnitOptions;
+import org.gradle.api.tasks.testing.junitplatform.JUnitPlatformOptions;
+import org.gradle.api.tasks.testing.testng.TestNGOptions;
+import org.gradle.build.event.BuildEventsListenerRegistry;
+import org.gradle.jvm.toolchain.JavaLanguageVersion;
+import org.gradle.jvm.toolchain.JavaToolchainService;
 
 import io.spring.gradle.compatibilitytest.CompatibilityMatrix.DependencyVersion;
+import io.spring.gradle.compatibilitytest.CompatibilityTestExtension.DynamicVersions;
+import io.spring.gradle.compatibilitytest.CompiledTestClasses.CompilationInputs;
+import io.spring.gradle.compatibilitytest.CompiledTestClasses.RegisterAction;
+import io.spring.gradle.compatibilitytest.FailFast.AddFailureListenerAction;
+import io.spring.gradle.compatibilitytest.FailFast.NoFailureSpec;
+import io.spring.gradle.compatibilitytest.PermutationBisection.ProbeSpec;
+import io.spring.gradle.compatibilitytest.PermutationBisection.TestedSpec;
+import io.spring.gradle.compatibilitytest.PermutationMetrics.HeapAgentArguments;
+import io.spring.gradle.compatibilitytest.PermutationMetrics.RecordMetricsAction;
+import io.spring.gradle.compatibilitytest.ReuseCompiledTestClasses.NotReusedSpec;
+import io.spring.gradle.compatibilitytest.SelectImpactedTests.IncludeSelectedTestsSpec;
+import io.spring.gradle.compatibilitytest.TestedClasspaths.UniqueClasspathSpec;
 
 /**
  * Gradle plugin for compatibility testing.
@@ -41,87 +84,962 @@ import io.spring.gradle.compatibilitytest.CompatibilityMatrix.DependencyVersion;
  */
 public class CompatibilityTestPlugin implements Plugin<Project> {
 
+	private static final String SINGLE_JVM_TASK_NAME = "compatibilityTestInSingleJvm";
+
+	private static final String RESOLVE_TASK_NAME = "compatibilityTestResolve";
+
+	private static final String REPORT_TASK_NAME = "compatibilityTestReport";
+
+	private static final String BISECT_TASK_NAME = "compatibilityTestBisect";
+
+	private static final String METADATA_CACHE_DIRECTORY = "caches/compatibility-test/maven-metadata";
+
+	private static final String SHARD_PROPERTY = "compatibilityTest.shard";
+
+	private static final String DURATIONS_PROPERTY = "compatibilityTest.durations";
+
+	private static final String HISTORY_FILE = "compatibilityTest/durations.properties";
+
+	private static final String FAILURES_FILE = "compatibilityTest/failures.txt";
+
+	private static final String HEAP_DIRECTORY = "compatibilityTest/metrics/heap";
+
+	private static final String HEAP_AGENT_JAR = "tmp/compatibilityTest/heap-agent.jar";
+
+	private static final String HEAP_AGENT_JAR_TASK_NAME = "compatibilityTestHeapAgentJar";
+
+	private final BuildEventsListenerRegistry listenerRegistry;
+
+	@Inject
+	public CompatibilityTestPlugin(BuildEventsListenerRegistry listenerRegistry) {
+		this.listenerRegistry = listenerRegistry;
+	}
+
 	@Override
 	public void apply(Project project) {
 		CompatibilityMatrix testMatrix = new CompatibilityMatrix();
 		CompatibilityTestExtension extension = new CompatibilityTestExtension(testMatrix);
 		project.getExtensions().add("compatibilityTest", extension);
-		project.afterEvaluate((evaluated) -> configure(project, testMatrix, extension));
+		project.afterEvaluate((evaluated) -> configure(project, extension));
 	}
 
-	private void configure(Project project, CompatibilityMatrix testMatrix, CompatibilityTestExtension extension) {
-		List<Set<DependencyVersion>> matrixEntries = testMatrix.getEntries();
-		if (matrixEntries.isEmpty()) {
+	private void configure(Project project, CompatibilityTestExtension extension) {
+		Project definingProject = definingProject(project, extension);
+		if (definingProject == null) {
 			return;
 		}
-		CartesianProduct.of(matrixEntries)
-			.forEach((dependencyVersions) -> configureTasks(project, dependencyVersions, extension));
+		CompatibilityTestExtension definition = definingProject.getExtensions()
+			.getByType(CompatibilityTestExtension.class);
+		List<List<DependencyVersion>> generated = project.getGradle()
+			.getSharedServices()
+			.registerIfAbsent(SharedMatrices.NAME, SharedMatrices.class, (spec) -> {
+			})
+			.get()
+			.permutations(definingProject.getPath(), () -> generatePermutations(definingProject, definition));
+		if (!project.getPlugins().hasPlugin(JavaPlugin.class)) {
+			if (definingProject == project && project == project.getRootProject()) {
+				registerAggregateTasks(project, generated);
+			}
+			return;
+		}
+		List<Integer> javaVersions = javaVersions(project, definition, extension);
+		boolean pooled = runInPooledJvms(project, extension, javaVersions);
+		registerBuildWideServices(project, extension, pooled);
+		List<Permutation> permutations = new ArrayList<>();
+		for (List<DependencyVersion> dependencyVersions : generated) {
+			permutations.addAll(configureTasks(project, dependencyVersions, javaVersions, extension, pooled));
+		}
+		if (extension.isReuseCompiledTestClasses()) {
+			orderCompiledTestClassesReuse(project, permutations);
+		}
+		List<Permutation> selected = schedule(project, permutations, extension);
+		registerResolveTask(project, permutations, selected);
+		if (extension.isRunInSingleJvm()) {
+			TaskProvider<IsolatedCompatibilityTest> isolatedCompatibilityTest = project.getTasks()
+				.register(SINGLE_JVM_TASK_NAME, IsolatedCompatibilityTest.class,
+						(task) -> configureIsolatedTestTask(project, task, selected, extension));
+			project.getTasks()
+				.named(JavaBasePlugin.CHECK_TASK_NAME)
+				.configure((check) -> check.dependsOn(isolatedCompatibilityTest));
+			registerReportTask(project, selected, (permutation) -> "test-results/" + SINGLE_JVM_TASK_NAME + "/"
+					+ permutation.getIdentifier(), Collections.singletonList(SINGLE_JVM_TASK_NAME));
+		}
+		else {
+			List<String> testTaskNames = selected.stream()
+				.map(Permutation::getTestTaskName)
+				.collect(Collectors.toList());
+			project.getTasks()
+				.named(JavaBasePlugin.CHECK_TASK_NAME)
+				.configure((check) -> check.dependsOn(testTaskNames));
+			recordHistory(project);
+			if (extension.isRecordMetrics()) {
+				recordMetrics(project, selected);
+			}
+			if (extension.isFailFast()) {
+				this.listenerRegistry.onTaskCompletion(failFast(project));
+			}
+			order(project, testTaskNames);
+			if (!pooled && definition.getMatrix().getEntries().size() == 1 && javaVersions.isEmpty()) {
+				registerBisectTask(project, permutations, extension);
+			}
+			registerReportTask(project, selected, (permutation) -> "test-results/" + permutation.getTestTaskName()
+					+ (pooled ? "/" + permutation.getIdentifier() : ""), testTaskNames);
+		}
 	}
 
-	private void configureTasks(Project project, List<DependencyVersion> dependencyVersions,
+	private void registerBuildWideServices(Project project, CompatibilityTestExtension extension, boolean pooled) {
+		Integer maxConcurrentPermutations = extension.getMaxConcurrentPermutations();
+		if (maxConcurrentPermutations != null) {
+			Integer registered = registeredMaxParallelUsages(project, ConcurrentPermutations.NAME);
+			if (registered != null && !registered.equals(maxConcurrentPermutations)) {
+				throw new InvalidUserDataException("The maxConcurrentPermutations of " + project + " ("
+						+ maxConcurrentPermutations + ") differs from the build-wide limit (" + registered
+						+ ") that was configured by another project");
+			}
+			concurrentPermutations(project, maxConcurrentPermutations);
+		}
+		if (pooled) {
+			Integer registered = registeredMaxParallelUsages(project, TestJvmPool.NAME);
+			if (registered != null && registered != extension.getPooledJvms()) {
+				throw new InvalidUserDataException("The pooledJvms of " + project + " (" + extension.getPooledJvms()
+						+ ") differs from the build-wide pool size (" + registered
+						+ ") that was configured by another project");
+			}
+			testJvmPool(project, extension);
+		}
+	}
+
+	private Project definingProject(Project project, CompatibilityTestExtension extension) {
+		if (extension.definesMatrix()) {
+			return project;
+		}
+		Project rootProject = project.getRootProject();
+		if (rootProject != project && rootProject.getPlugins().hasPlugin(CompatibilityTestPlugin.class)
+				&& rootProject.getExtensions().getByType(CompatibilityTestExtension.class).definesMatrix()) {
+			return rootProject;
+		}
+		return null;
+	}
+
+	private List<List<DependencyVersion>> generatePermutations(Project project, CompatibilityTestExtension extension) {
+		selectDynamicVersions(project, extension);
+		List<Set<DependencyVersion>> matrixEntries = extension.getMatrix().getEntries();
+		PermutationStrategy strategy = extension.getStrategy();
+		PermutationConstraints constraints = extension.getConstraints();
+		validate(constraints, matrixEntries);
+		AtomicLong pruned = new AtomicLong();
+		Predicate<List<DependencyVersion>> filter = (prefix) -> {
+			if (constraints.test(prefix)) {
+				return true;
+			}
+			pruned.addAndGet(CartesianProduct.size(matrixEntries.subList(prefix.size(), matrixEntries.size())));
+			return false;
+		};
+		List<List<DependencyVersion>> permutations = new ArrayList<>();
+		strategy.permutations(matrixEntries, filter).forEach(permutations::add);
+		if (!constraints.isEmpty()) {
+			project.getLogger()
+				.lifecycle("Pruned {} compatibility test permutations using {} constraints", pruned.get(),
+						constraints.size());
+		}
+		if (!(strategy instanceof PermutationStrategy.FullProduct)) {
+			project.getLogger()
+				.lifecycle("Generated {} of {} compatibility test permutations using a {}", permutations.size(),
+						CartesianProduct.size(matrixEntries), strategy);
+		}
+		return permutations;
+	}
+
+	private void registerAggregateTasks(Project project, List<List<DependencyVersion>> generated) {
+		for (List<DependencyVersion> dependencyVersions : generated) {
+			Permutation permutation = new Permutation(dependencyVersions);
+			String name = permutation.getTestTaskName();
+			project.getTasks().register(name, (task) -> {
+				task.setDescription("Runs the unit tests of every project that inherits the matrix with "
+						+ permutation.getDescription());
+				task.setGroup(JavaBasePlugin.VERIFICATION_GROUP);
+				task.dependsOn((Callable<List<String>>) () -> inheritingProjects(project).stream()
+					.map((inheriting) -> inheriting.getPath() + Project.PATH_SEPARATOR + name)
+					.collect(Collectors.toList()));
+			});
+		}
+	}
+
+	private List<Project> inheritingProjects(Project project) {
+		return project.getSubprojects()
+			.stream()
+			.filter((subproject) -> subproject.getPlugins().hasPlugin(CompatibilityTestPlugin.class)
+					&& subproject.getPlugins().hasPlugin(JavaPlugin.class)
+					&& !subproject.getExtensions().getByType(CompatibilityTestExtension.class).definesMatrix())
+			.collect(Collectors.toList());
+	}
+
+	private List<Integer> javaVersions(Project project, CompatibilityTestExtension definition,
 			CompatibilityTestExtension extension) {
-		String identifier = dependencyVersions.stream()
-			.map(DependencyVersion::getIdentifier)
-			.collect(Collectors.joining("_"));
-		JavaCompile javaCompile = project.getTasks()
-			.create("compileCompatibilityTestJava_" + identifier, JavaCompile.class,
-					(task) -> configureJavaCompileTask(project, task, identifier, dependencyVersions));
-		Test compatibilityTest = project.getTasks()
-			.create("compatibilityTest_" + identifier, Test.class,
-					(task) -> configureMatrixTestTask(project, task, javaCompile, identifier, dependencyVersions));
-		if (extension.isUseJUnitPlatform()) {
-			compatibilityTest.useJUnitPlatform();
-		}
-		project.getTasks().getByName(JavaBasePlugin.CHECK_TASK_NAME).dependsOn(compatibilityTest);
-	}
-
-	private void configureJavaCompileTask(Project project, JavaCompile javaCompile, String identifier,
-			List<DependencyVersion> dependencyVersions) {
-		javaCompile.setDescription("Compiles test Java source with "
-				+ dependencyVersions.stream().map(DependencyVersion::getDescription).collect(Collectors.joining(", ")));
+		if (definition.getJavaVersions().isEmpty()) {
+			return Collections.emptyList();
+		}
+		if (extension.isRunInSingleJvm()) {
+			project.getLogger()
+				.warn("Java versions cannot be used when running permutations in a single JVM. The tests of every "
+						+ "permutation will be run on the Java version of the single JVM");
+			return Collections.emptyList();
+		}
+		return new ArrayList<>(new LinkedHashSet<>(definition.getJavaVersions()));
+	}
+
+	private boolean runInPooledJvms(Project project, CompatibilityTestExtension extension,
+			List<Integer> javaVersions) {
+		if (!extension.isRunInPooledJvms() || extension.isRunInSingleJvm()) {
+			return false;
+		}
+		if (extension.isSelectImpactedTests() || extension.isRecordMetrics() || !javaVersions.isEmpty()) {
+			project.getLogger()
+				.warn("Pooled JVMs cannot be used when selecting impacted tests, recording metrics, or testing on "
+						+ "multiple Java versions. The tests of each permutation will be run in JVMs that are forked "
+						+ "for the permutation");
+			return false;
+		}
+		return true;
+	}
+
+	private void validate(PermutationConstraints constraints, List<Set<DependencyVersion>> matrixEntries) {
+		Set<String> names = new HashSet<>();
+		for (Set<DependencyVersion> entry : matrixEntries) {
+			entry.forEach((dependencyVersion) -> names.add(dependencyVersion.getName()));
+		}
+		for (String name : constraints.getDependencyNames()) {
+			if (!names.contains(name)) {
+				throw new InvalidUserDataException(
+						"A compatibility test constraint refers to '" + name + "' which is not in the matrix");
+			}
+		}
+	}
+
+	private void selectDynamicVersions(Project project, CompatibilityTestExtension extension) {
+		if (extension.getDynamicVersions().isEmpty()) {
+			return;
+		}
+		List<String> repositories = project.getRepositories()
+			.withType(MavenArtifactRepository.class)
+			.stream()
+			.map((repository) -> repository.getUrl().toString())
+			.collect(Collectors.toList());
+		if (repositories.isEmpty()) {
+			throw new InvalidUserDataException("Compatibility test versions are selected from Maven metadata but "
+					+ project + " has no Maven repositories. Repositories that are declared in settings are not "
+					+ "used to select versions");
+		}
+		StartParameter startParameter = project.getGradle().getStartParameter();
+		File cacheDirectory = new File(project.getGradle().getGradleUserHomeDir(), METADATA_CACHE_DIRECTORY);
+		for (DynamicVersions dynamicVersions : extension.getDynamicVersions()) {
+			List<String> available = project.getProviders().of(MavenMetadataVersions.class, (spec) -> {
+				MavenMetadataVersions.Parameters parameters = spec.getParameters();
+				parameters.getRepositories().set(repositories);
+				parameters.getGroupId().set(dynamicVersions.getGroupId());
+				parameters.getArtifactId().set(dynamicVersions.getMetadataArtifactId());
+				parameters.getCacheDirectory().set(cacheDirectory);
+				parameters.getTimeToLive()
+					.set(startParameter.isRefreshDependencies() ? 0 : extension.getMetadataCacheTimeout().toMillis());
+				parameters.getOffline().set(startParameter.isOffline());
+			}).get();
+			if (available.isEmpty()) {
+				throw new InvalidUserDataException("No published versions of " + dynamicVersions.getGroupId() + ":"
+						+ dynamicVersions.getMetadataArtifactId() + " were found in the Maven metadata of "
+						+ repositories + (startParameter.isOffline() ? " that has been cached for offline use" : ""));
+			}
+			for (VersionSelector selector : dynamicVersions.getSelectors()) {
+				if (selector.select(available).isEmpty()) {
+					project.getLogger()
+						.warn("None of the {} published versions of {}:{} matched {}", available.size(),
+								dynamicVersions.getGroupId(), dynamicVersions.getMetadataArtifactId(), selector);
+				}
+			}
+			Set<String> selected = dynamicVersions.select(available);
+			if (selected.isEmpty()) {
+				throw new InvalidUserDataException("None of the " + available.size() + " published versions of "
+						+ dynamicVersions.getGroupId() + ":" + dynamicVersions.getMetadataArtifactId() + " matched "
+						+ dynamicVersions.getSelectors());
+			}
+			project.getLogger()
+				.info("Selected versions {} of {} using {}", selected, dynamicVersions.getName(),
+						dynamicVersions.getSelectors());
+		}
+	}
+
+	private List<Permutation> schedule(Project project, List<Permutation> permutations,
+			CompatibilityTestExtension extension) {
+		String shardProperty = project.getProviders().gradleProperty(SHARD_PROPERTY).getOrNull();
+		Shard shard = (shardProperty != null) ? Shard.parse(shardProperty) : null;
+		String durationsProperty = project.getProviders().gradleProperty(DURATIONS_PROPERTY).getOrNull();
+		List<String> schedule = project.getProviders().of(PermutationSchedule.class, (spec) -> {
+			PermutationSchedule.Parameters parameters = spec.getParameters();
+			parameters.getIdentifiers()
+				.set(permutations.stream().map(Permutation::getIdentifier).collect(Collectors.toList()));
+			parameters.getDurationsFile().set(project.getLayout().getBuildDirectory().file(HISTORY_FILE));
+			if (durationsProperty != null) {
+				parameters.getShardDurationsFile().set(project.file(durationsProperty));
+			}
+			if (extension.isFailFast() && !extension.isRunInSingleJvm()) {
+				parameters.getFailuresFile().set(project.getLayout().getBuildDirectory().file(FAILURES_FILE));
+			}
+			parameters.getShard().set(shardProperty);
+		}).get();
+		Map<String, Permutation> permutationsByIdentifier = new LinkedHashMap<>();
+		permutations.forEach((permutation) -> permutationsByIdentifier.put(permutation.getIdentifier(), permutation));
+		List<Permutation> selected = schedule.stream()
+			.map(permutationsByIdentifier::get)
+			.collect(Collectors.toList());
+		if (shard != null) {
+			project.getLogger()
+				.lifecycle("Testing {} of {} compatibility test permutations in shard {}", selected.size(),
+						permutations.size(), shard);
+		}
+		return selected;
+	}
+
+	private void recordHistory(Project project) {
+		String projectPath = project.getPath().equals(Project.PATH_SEPARATOR) ? "" : project.getPath();
+		String name = PermutationHistory.NAME + projectPath.replace(':', '_');
+		Provider<PermutationHistory> history = project.getGradle()
+			.getSharedServices()
+			.registerIfAbsent(name, PermutationHistory.class, (spec) -> {
+				spec.getParameters().getHistoryFile().set(project.getLayout().getBuildDirectory().file(HISTORY_FILE));
+				spec.getParameters().getFailuresFile().set(project.getLayout().getBuildDirectory().file(FAILURES_FILE));
+				spec.getParameters()
+					.getTestTaskPathPrefix()
+					.set(projectPath + Project.PATH_SEPARATOR + Permutation.TEST_TASK_NAME_PREFIX);
+			});
+		this.listenerRegistry.onTaskCompletion(history);
+	}
+
+	private void recordMetrics(Project project, List<Permutation> permutations) {
+		String projectPath = project.getPath().equals(Project.PATH_SEPARATOR) ? "" : project.getPath();
+		Map<String, String> descriptions = new LinkedHashMap<>();
+		permutations
+			.forEach((permutation) -> descriptions.put(permutation.getIdentifier(), permutation.getDescription()));
+		DirectoryProperty buildDirectory = project.getLayout().getBuildDirectory();
+		Provider<PermutationMetrics> metrics = project.getGradle()
+			.getSharedServices()
+			.registerIfAbsent(PermutationMetrics.NAME + projectPath.replace(':', '_'), PermutationMetrics.class,
+					(spec) -> {
+						PermutationMetrics.Parameters parameters = spec.getParameters();
+						parameters.getDescriptions().set(descriptions);
+						parameters.getTaskPathPrefix().set(projectPath + Project.PATH_SEPARATOR);
+						parameters.getResolveTaskName().set(RESOLVE_TASK_NAME);
+						parameters.getHeapDirectory().set(buildDirectory.dir(HEAP_DIRECTORY));
+						parameters.getJsonReport().set(buildDirectory.file("reports/compatibilityTest/metrics.json"));
+						parameters.getCsvReport().set(buildDirectory.file("reports/compatibilityTest/metrics.csv"));
+					});
+		this.listenerRegistry.onTaskCompletion(metrics);
+		SourceSetContainer sourceSets = project.getExtensions().getByType(JavaPluginExtension.class).getSourceSets();
+		String runtimeClasspathName = sourceSets.getByName(SourceSet.TEST_SOURCE_SET_NAME)
+			.getRuntimeClasspathConfigurationName();
+		TaskProvider<TestJvmHeapAgentJar> heapAgentJar = project.getTasks()
+			.register(HEAP_AGENT_JAR_TASK_NAME, TestJvmHeapAgentJar.class, (task) -> {
+				task.setDescription("Creates the jar of the agent that records the peak heap usage of test JVMs");
+				task.getAgentJar().set(buildDirectory.file(HEAP_AGENT_JAR));
+			});
+		Provider<RegularFile> agentJar = heapAgentJar.flatMap(TestJvmHeapAgentJar::getAgentJar);
+		for (Permutation permutation : permutations) {
+			String identifier = permutation.getIdentifier();
+			FileCollection runtimeClasspath = project.files(project.getConfigurations()
+				.named(runtimeClasspathName + "_" + permutation.getDependenciesIdentifier()));
+			project.getTasks().named(permutation.getTestTaskName(), Test.class).configure((test) -> {
+				File heapDirectory = buildDirectory.dir(HEAP_DIRECTORY + "/" + identifier).get().getAsFile();
+				test.usesService(metrics);
+				test.dependsOn(heapAgentJar);
+				test.doFirst(new RecordMetricsAction(metrics, identifier, runtimeClasspath, heapDirectory));
+				test.getJvmArgumentProviders().add(new HeapAgentArguments(agentJar, heapDirectory));
+			});
+		}
+	}
+
+	private void order(Project project, List<String> testTaskNames) {
+		for (int i = 1; i < testTaskNames.size(); i++) {
+			String predecessor = testTaskNames.get(i - 1);
+			project.getTasks().named(testTaskNames.get(i)).configure((task) -> task.shouldRunAfter(predecessor));
+		}
+	}
+
+	private void registerResolveTask(Project project, List<Permutation> permutations, List<Permutation> selected) {
+		Map<String, DependencyVersion> dependencyVersions = new LinkedHashMap<>();
+		for (Permutation permutation : selected) {
+			for (DependencyVersion dependencyVersion : permutation.getDependencyVersions()) {
+				dependencyVersions.putIfAbsent(dependencyVersion.getIdentifier(), dependencyVersion);
+			}
+		}
+		SourceSetContainer sourceSets = project.getExtensions().getByType(JavaPluginExtension.class).getSourceSets();
+		String runtimeClasspath = sourceSets.getByName(SourceSet.TEST_SOURCE_SET_NAME)
+			.getRuntimeClasspathConfigurationName();
+		Map<DependencyVersion, NamedDomainObjectProvider<Configuration>> configurations = new LinkedHashMap<>();
+		dependencyVersions.forEach((identifier, dependencyVersion) -> configurations.put(dependencyVersion,
+				project.getConfigurations().register(RESOLVE_TASK_NAME + "_" + identifier, (configuration) -> {
+					configuration.extendsFrom(project.getConfigurations().getByName(runtimeClasspath));
+					configuration.getResolutionStrategy()
+						.eachDependency(new DependencyVersionOverrides(Collections.singletonList(dependencyVersion)));
+				})));
+		TaskProvider<CompatibilityTestResolve> resolve = project.getTasks()
+			.register(RESOLVE_TASK_NAME, CompatibilityTestResolve.class, (task) -> {
+				task.setDescription("Resolves every version of the dependencies in the compatibility test matrix");
+				task.setGroup(JavaBasePlugin.VERIFICATION_GROUP);
+				configurations.forEach((dependencyVersion, configuration) -> task.dependencyVersion(
+						dependencyVersion.getDescription(),
+						configuration.get().getIncoming().artifactView((view) -> view.lenient(true)).getArtifacts()));
+			});
+		project.getTasks().named(JavaBasePlugin.CHECK_TASK_NAME).configure((check) -> check.dependsOn(resolve));
+		for (Permutation permutation : permutations) {
+			project.getTasks().named(permutation.getCompileTaskName()).configure((task) -> task.dependsOn(resolve));
+			project.getTasks().named(permutation.getTestTaskName()).configure((task) -> task.dependsOn(resolve));
+		}
+	}
+
+	private void registerBisectTask(Project project, List<Permutation> permutations,
+			CompatibilityTestExtension extension) {
+		String projectPath = project.getPath().equals(Project.PATH_SEPARATOR) ? "" : project.getPath();
+		List<String> descriptions = permutations.stream()
+			.map(Permutation::getDescription)
+			.collect(Collectors.toList());
+		Provider<PermutationBisection> bisection = project.getGradle()
+			.getSharedServices()
+			.registerIfAbsent(PermutationBisection.NAME + projectPath.replace(':', '_'), PermutationBisection.class,
+					(spec) -> spec.getParameters().getDescriptions().set(descriptions));
+		Bisection search = new Bisection(permutations.size());
+		List<List<String>> levels = new ArrayList<>();
+		for (int level = 0; level < search.depth(); level++) {
+			levels.add(new ArrayList<>());
+		}
+		for (int i = 0; i < permutations.size(); i++) {
+			levels.get(search.level(i)).add(permutations.get(i).getProbeTaskName());
+		}
+		List<String> levelTaskNames = new ArrayList<>();
+		for (int level = 1; level < search.depth(); level++) {
+			String name = BISECT_TASK_NAME + "Level" + level;
+			List<String> previous = levels.get(level - 1);
+			project.getTasks().register(name, (task) -> {
+				task.setDescription("Waits for the permutations at the previous level of the bisection");
+				task.dependsOn(previous);
+			});
+			levelTaskNames.add(name);
+		}
+		for (int i = 0; i < permutations.size(); i++) {
+			int level = search.level(i);
+			String levelTaskName = (level > 0) ? levelTaskNames.get(level - 1) : null;
+			registerProbeTasks(project, permutations.get(i), i, levelTaskName, bisection, extension);
+		}
+		project.getTasks().register(BISECT_TASK_NAME, CompatibilityTestBisect.class, (task) -> {
+			task.setDescription("Bisects the versions of the matrix's dependency to find the first that fails");
+			task.setGroup(JavaBasePlugin.VERIFICATION_GROUP);
+			task.usesService(bisection);
+			task.getBisection().set(bisection);
+			task.dependsOn(levels.stream().flatMap(List::stream).collect(Collectors.toList()));
+			task.dependsOn(levelTaskNames);
+		});
+	}
+
+	private void registerProbeTasks(Project project, Permutation permutation, int index, String levelTaskName,
+			Provider<PermutationBisection> bisection, CompatibilityTestExtension extension) {
+		SourceSetContainer sourceSets = project.getExtensions().getByType(JavaPluginExtension.class).getSourceSets();
+		SourceSet testSourceSet = sourceSets.getByName(SourceSet.TEST_SOURCE_SET_NAME);
+		NamedDomainObjectProvider<Configuration> compileClasspath = project.getConfigurations()
+			.named(testSourceSet.getCompileClasspathConfigurationName() + "_"
+					+ permutation.getDependenciesIdentifier());
+		NamedDomainObjectProvider<Configuration> runtimeClasspath = project.getConfigurations()
+			.named(testSourceSet.getRuntimeClasspathConfigurationName() + "_"
+					+ permutation.getDependenciesIdentifier());
+		TaskProvider<JavaCompile> javaCompile = project.getTasks()
+			.register(permutation.getProbeCompileTaskName(), JavaCompile.class, (task) -> {
+				configureJavaCompileTask(project, task, permutation, Permutation.PROBE_TASK_NAME_PREFIX,
+						compileClasspath, extension, Collections.emptyList());
+				task.setDescription(
+						"Compiles test Java source with " + permutation.getDescription() + " when bisecting");
+				task.usesService(bisection);
+				task.onlyIf("Permutation is probed by the bisection", new ProbeSpec(bisection, index, null));
+				task.mustRunAfter(permutation.getTestTaskName());
+				if (levelTaskName != null) {
+					task.mustRunAfter(levelTaskName);
+				}
+			});
+		if (extension.isReuseCompiledTestClasses()) {
+			registerCompiledTestClassesReuse(project, permutation.getProbeReuseTaskName(), permutation, javaCompile,
+					compileClasspath)
+				.configure((task) -> {
+					task.usesService(bisection);
+					task.onlyIf("Permutation is probed by the bisection", new ProbeSpec(bisection, index, null));
+					task.mustRunAfter(permutation.getTestTaskName());
+					if (levelTaskName != null) {
+						task.mustRunAfter(levelTaskName);
+					}
+				});
+		}
+		project.getTasks().register(permutation.getProbeTaskName(), Test.class, (task) -> {
+			task.setDescription("Runs the unit tests with " + permutation.getDescription() + " when bisecting");
+			task.setTestClassesDirs(project.files(javaCompile.flatMap(JavaCompile::getDestinationDirectory)));
+			task.setClasspath(matrixTestClasspath(project, javaCompile, runtimeClasspath));
+			if (extension.isUseJUnitPlatform()) {
+				task.useJUnitPlatform();
+			}
+			configureForking(project, task, extension);
+			task.setIgnoreFailures(true);
+			task.usesService(bisection);
+			task.onlyIf("Permutation is probed by the bisection",
+					new ProbeSpec(bisection, index, task.getReports().getJunitXml().getOutputLocation()));
+			task.mustRunAfter(permutation.getTestTaskName());
+			if (levelTaskName != null) {
+				task.mustRunAfter(levelTaskName);
+			}
+		});
+		project.getTasks().named(permutation.getTestTaskName(), Test.class).configure((task) -> {
+			task.usesService(bisection);
+			task.onlyIf("Results are recorded for the bisection",
+					new TestedSpec(bisection, index, task.getReports().getJunitXml().getOutputLocation()));
+		});
+	}
+
+	private void registerReportTask(Project project, List<Permutation> permutations,
+			Function<Permutation, String> resultsDir, List<String> testTaskNames) {
+		TaskProvider<CompatibilityTestReport> report = project.getTasks()
+			.register(REPORT_TASK_NAME, CompatibilityTestReport.class, (task) -> {
+				task.setDescription("Generates a report of the test results of every permutation");
+				task.setGroup(JavaBasePlugin.VERIFICATION_GROUP);
+				task.mustRunAfter(testTaskNames);
+				for (Permutation permutation : permutations) {
+					task.permutation(permutation.getIdentifier(), permutation.getDescription(),
+							project.getLayout()
+								.getBuildDirectory()
+								.dir(resultsDir.apply(permutation))
+								.get()
+								.getAsFileTree()
+								.matching((pattern) -> pattern.include("*.xml")));
+				}
+				task.getHtmlReport()
+					.set(project.getLayout().getBuildDirectory().file("reports/compatibilityTest/index.html"));
+			});
+		for (String testTaskName : testTaskNames) {
+			project.getTasks().named(testTaskName).configure((task) -> task.finalizedBy(report));
+		}
+	}
+
+	private List<Permutation> configureTasks(Project project, List<DependencyVersion> dependencyVersions,
+			List<Integer> javaVersions, CompatibilityTestExtension extension, boolean pooled) {
+		List<Permutation> permutations = new ArrayList<>();
+		if (javaVersions.isEmpty()) {
+			permutations.add(new Permutation(dependencyVersions));
+		}
+		for (Integer javaVersion : javaVersions) {
+			permutations.add(new Permutation(dependencyVersions, javaVersion));
+		}
+		Permutation compiled = permutations.get(0);
+		String identifier = compiled.getDependenciesIdentifier();
+		SourceSetContainer sourceSets = project.getExtensions().getByType(JavaPluginExtension.class).getSourceSets();
+		SourceSet testSourceSet = sourceSets.getByName(SourceSet.TEST_SOURCE_SET_NAME);
+		DependencyVersionOverrides overrides = new DependencyVersionOverrides(dependencyVersions);
+		NamedDomainObjectProvider<Configuration> compileClasspath = registerConfiguration(project,
+				testSourceSet.getCompileClasspathConfigurationName(), identifier, overrides);
+		NamedDomainObjectProvider<Configuration> runtimeClasspath = registerConfiguration(project,
+				testSourceSet.getRuntimeClasspathConfigurationName(), identifier, overrides);
+		TaskProvider<JavaCompile> javaCompile = project.getTasks()
+			.register(compiled.getCompileTaskName(), JavaCompile.class, (task) -> configureJavaCompileTask(project,
+					task, compiled, Permutation.TEST_TASK_NAME_PREFIX, compileClasspath, extension, javaVersions));
+		if (extension.isReuseCompiledTestClasses()) {
+			registerCompiledTestClassesReuse(project, compiled.getReuseTaskName(), compiled, javaCompile,
+					compileClasspath);
+		}
+		if (extension.isSelectImpactedTests()) {
+			project.getTasks()
+				.register(compiled.getSelectTestsTaskName(), SelectImpactedTests.class,
+						(task) -> configureSelectImpactedTestsTask(project, task, javaCompile, runtimeClasspath));
+		}
+		for (Permutation permutation : permutations) {
+			TaskProvider<LinkageCheck> linkageCheck = project.getTasks()
+				.register(permutation.getLinkageCheckTaskName(), LinkageCheck.class,
+						(task) -> configureLinkageCheckTask(project, task, permutation, javaCompile, runtimeClasspath));
+			TaskProvider<? extends Task> compatibilityTest;
+			if (pooled) {
+				compatibilityTest = project.getTasks()
+					.register(permutation.getTestTaskName(), IsolatedCompatibilityTest.class,
+							(task) -> configurePooledTestTask(project, task, javaCompile, permutation,
+									runtimeClasspath, extension));
+			}
+			else {
+				compatibilityTest = project.getTasks().register(permutation.getTestTaskName(), Test.class, (task) -> {
+					configureMatrixTestTask(project, task, javaCompile, permutation, runtimeClasspath, extension);
+					if (extension.isUseJUnitPlatform()) {
+						task.useJUnitPlatform();
+					}
+				});
+			}
+			if (extension.isCheckLinkage()) {
+				compatibilityTest.configure((task) -> task.dependsOn(linkageCheck));
+			}
+		}
+		return permutations;
+	}
+
+	private NamedDomainObjectProvider<Configuration> registerConfiguration(Project project, String baseName,
+			String identifier, DependencyVersionOverrides overrides) {
+		return project.getConfigurations().register(baseName + "_" + identifier, (configuration) -> {
+			configuration.extendsFrom(project.getConfigurations().getByName(baseName));
+			configuration.getResolutionStrategy().eachDependency(overrides);
+		});
+	}
+
+	private void configureJavaCompileTask(Project project, JavaCompile javaCompile, Permutation permutation,
+			String classesDirPrefix, NamedDomainObjectProvider<Configuration> compileClasspath,
+			CompatibilityTestExtension extension, List<Integer> javaVersions) {
+		javaCompile.setDescription("Compiles test Java source with " + permutation.getDependenciesDescription());
 		SourceSetContainer sourceSets = project.getExtensions().getByType(JavaPluginExtension.class).getSourceSets();
 		SourceSet testSourceSet = sourceSets.getByName(SourceSet.TEST_SOURCE_SET_NAME);
 		javaCompile.setSource(testSourceSet.getAllJava());
 		javaCompile.getDestinationDirectory()
-			.set(project.getLayout().getBuildDirectory().dir("classes/java/compatibilityTest_" + identifier));
-		String compileClasspathConfigurationName = testSourceSet.getCompileClasspathConfigurationName();
-		Configuration configuration = project.getConfigurations()
-			.create(compileClasspathConfigurationName + "_" + identifier);
-		configuration.extendsFrom(project.getConfigurations().getByName(compileClasspathConfigurationName));
-		configuration.getResolutionStrategy()
-			.eachDependency((details) -> dependencyVersions.stream()
-				.filter((dependencyVersion) -> matches(dependencyVersion, details))
-				.forEach((dependencyVersion) -> details.useVersion(dependencyVersion.getVersion())));
+			.set(project.getLayout()
+				.getBuildDirectory()
+				.dir("classes/java/" + classesDirPrefix + permutation.getDependenciesIdentifier()));
 		javaCompile.setClasspath(
-				project.files(sourceSets.getByName(SourceSet.MAIN_SOURCE_SET_NAME).getOutput(), configuration));
+				project.files(sourceSets.getByName(SourceSet.MAIN_SOURCE_SET_NAME).getOutput(), compileClasspath));
+		javaCompile.getOptions().setAnnotationProcessorPath(testSourceSet.getAnnotationProcessorPath());
+		if (!javaVersions.isEmpty()) {
+			JavaLanguageVersion release = JavaLanguageVersion.of(Collections.min(javaVersions));
+			javaCompile.getJavaCompiler()
+				.set(javaToolchains(project).compilerFor((spec) -> spec.getLanguageVersion().set(release)));
+			javaCompile.getOptions().getRelease().set(release.asInt());
+		}
 	}
 
-	private void configureMatrixTestTask(Project project, Test compatibilityTest, JavaCompile javaCompile,
-			String identifier, List<DependencyVersion> dependencyVersions) {
-		compatibilityTest.setDescription("Runs the unit tests with "
-				+ dependencyVersions.stream().map(DependencyVersion::getDescription).collect(Collectors.joining(", ")));
+	private void orderCompiledTestClassesReuse(Project project, List<Permutation> permutations) {
+		String previous = null;
+		for (Permutation permutation : permutations) {
+			String compileTaskName = permutation.getCompileTaskName();
+			if (previous != null && !previous.equals(compileTaskName)) {
+				String previousCompileTaskName = previous;
+				project.getTasks()
+					.named(permutation.getReuseTaskName())
+					.configure((task) -> task.mustRunAfter(previousCompileTaskName));
+			}
+			previous = compileTaskName;
+		}
+	}
+
+	private TaskProvider<ReuseCompiledTestClasses> registerCompiledTestClassesReuse(Project project, String name,
+			Permutation permutation, TaskProvider<JavaCompile> javaCompile,
+			NamedDomainObjectProvider<Configuration> compileClasspath) {
+		Provider<CompiledTestClasses> compiledTestClasses = project.getGradle()
+			.getSharedServices()
+			.registerIfAbsent(CompiledTestClasses.NAME, CompiledTestClasses.class, (spec) -> {
+			});
+		SourceSetContainer sourceSets = project.getExtensions().getByType(JavaPluginExtension.class).getSourceSets();
+		SourceSet testSourceSet = sourceSets.getByName(SourceSet.TEST_SOURCE_SET_NAME);
+		TaskProvider<JavaCompile> compileTestJava = project.getTasks()
+			.named(testSourceSet.getCompileJavaTaskName(), JavaCompile.class);
+		Provider<RegularFile> reusedClasses = project.getLayout()
+			.getBuildDirectory()
+			.file("compatibilityTest/" + name + "/reused-classes.txt");
+		TaskProvider<ReuseCompiledTestClasses> reuse = project.getTasks()
+			.register(name, ReuseCompiledTestClasses.class, (task) -> {
+				task.setDescription("Reuses test classes compiled against an ABI that is identical to that of "
+						+ permutation.getDependenciesDescription());
+				task.usesService(compiledTestClasses);
+				task.getCompiledTestClasses().set(compiledTestClasses);
+				task.getScope().set(project.getPath());
+				task.getSource().from(testSourceSet.getAllJava());
+				task.getClasspath().from(compileClasspath);
+				task.getCompilerSettings()
+					.set(project.provider(() -> CompilationInputs.compilerSettings(javaCompile.get())));
+				task.getBaselineClasspath()
+					.from(project.getConfigurations().getByName(testSourceSet.getCompileClasspathConfigurationName()));
+				task.getBaselineClasses().set(compileTestJava.flatMap(JavaCompile::getDestinationDirectory));
+				task.getBaselineCompilerSettings().set(compileTestJava.map(CompilationInputs::compilerSettings));
+				task.getDestinationDirectory()
+					.set(project.provider(() -> javaCompile.get().getDestinationDirectory().get()));
+				task.getReusedClasses().set(reusedClasses);
+				task.dependsOn(compileTestJava);
+			});
+		CompilationInputs inputs = new CompilationInputs(compiledTestClasses, project.getPath(),
+				project.files(compileClasspath));
+		javaCompile.configure((task) -> {
+			task.usesService(compiledTestClasses);
+			task.dependsOn(reuse);
+			task.onlyIf("Test classes compiled against an identical ABI were not reused",
+					new NotReusedSpec(reusedClasses));
+			task.doLast(new RegisterAction(inputs));
+		});
+		return reuse;
+	}
+
+	private void configureMatrixTestTask(Project project, Test compatibilityTest, TaskProvider<JavaCompile> javaCompile,
+			Permutation permutation, NamedDomainObjectProvider<Configuration> runtimeClasspath,
+			CompatibilityTestExtension extension) {
+		compatibilityTest.setDescription("Runs the unit tests with " + permutation.getDescription());
 		compatibilityTest.setGroup(JavaBasePlugin.VERIFICATION_GROUP);
+		compatibilityTest.setTestClassesDirs(project.files(javaCompile.flatMap(JavaCompile::getDestinationDirectory)));
+		compatibilityTest.setClasspath(matrixTestClasspath(project, javaCompile, runtimeClasspath));
+		if (permutation.getJavaVersion() != null) {
+			JavaLanguageVersion javaVersion = JavaLanguageVersion.of(permutation.getJavaVersion());
+			compatibilityTest.getJavaLauncher()
+				.set(javaToolchains(project).launcherFor((spec) -> spec.getLanguageVersion().set(javaVersion)));
+		}
+		configureForking(project, compatibilityTest, extension);
+		if (extension.isFailFast()) {
+			configureFailFast(project, compatibilityTest);
+		}
+		if (extension.isSelectImpactedTests()) {
+			Provider<RegularFile> selectedTests = project.getTasks()
+				.named(permutation.getSelectTestsTaskName(), SelectImpactedTests.class)
+				.flatMap(SelectImpactedTests::getSelectedTests);
+			compatibilityTest.getInputs()
+				.file(selectedTests)
+				.withPropertyName("selectedTests")
+				.withPathSensitivity(PathSensitivity.NONE);
+			compatibilityTest.onlyIf("Tests impacted by the permutation's dependencies were found",
+					new IncludeSelectedTestsSpec(selectedTests));
+		}
+		if (extension.isDeduplicatePermutations()) {
+			configureDeduplication(project, compatibilityTest, permutation, javaCompile, runtimeClasspath);
+		}
+	}
+
+	private void configurePooledTestTask(Project project, IsolatedCompatibilityTest compatibilityTest,
+			TaskProvider<JavaCompile> javaCompile, Permutation permutation,
+			NamedDomainObjectProvider<Configuration> runtimeClasspath, CompatibilityTestExtension extension) {
+		compatibilityTest
+			.setDescription("Runs the unit tests with " + permutation.getDescription() + " in a pooled JVM");
+		compatibilityTest.setGroup(JavaBasePlugin.VERIFICATION_GROUP);
+		compatibilityTest.getConcurrency().set(1);
+		compatibilityTest.getMaxHeapSize().set(extension.getMaxHeapSize());
+		configureFromTestTask(project, compatibilityTest);
+		compatibilityTest.getReportsDirectory()
+			.set(project.getLayout().getBuildDirectory().dir("test-results/" + compatibilityTest.getName()));
+		compatibilityTest.permutation(permutation.getIdentifier(), permutation.getDescription(),
+				project.files(javaCompile.flatMap(JavaCompile::getDestinationDirectory)),
+				matrixTestClasspath(project, javaCompile, runtimeClasspath));
+		compatibilityTest.usesService(testJvmPool(project, extension));
+		limitConcurrency(project, compatibilityTest, extension);
+		if (extension.isFailFast()) {
+			skipAfterFailure(project, compatibilityTest);
+		}
+		if (extension.isDeduplicatePermutations()) {
+			configureDeduplication(project, compatibilityTest, permutation, javaCompile, runtimeClasspath);
+		}
+	}
+
+	private void configureDeduplication(Project project, Task compatibilityTest, Permutation permutation,
+			TaskProvider<JavaCompile> javaCompile, NamedDomainObjectProvider<Configuration> runtimeClasspath) {
+		String scope = (permutation.getJavaVersion() != null)
+				? project.getPath() + ":java " + permutation.getJavaVersion() : project.getPath();
+		Provider<TestedClasspaths> testedClasspaths = project.getGradle()
+			.getSharedServices()
+			.registerIfAbsent(TestedClasspaths.NAME, TestedClasspaths.class, (spec) -> {
+			});
+		compatibilityTest.usesService(testedClasspaths);
+		compatibilityTest.onlyIf("Runtime classpath is not identical to that of another permutation",
+				new UniqueClasspathSpec(testedClasspaths, scope,
+						project.files(runtimeClasspath, javaCompile.flatMap(JavaCompile::getDestinationDirectory))));
+	}
+
+	private void configureLinkageCheckTask(Project project, LinkageCheck linkageCheck, Permutation permutation,
+			TaskProvider<JavaCompile> javaCompile, NamedDomainObjectProvider<Configuration> runtimeClasspath) {
+		linkageCheck.setDescription(
+				"Checks the linkage of the main and test classes with " + permutation.getDescription());
+		linkageCheck.setGroup(JavaBasePlugin.VERIFICATION_GROUP);
+		if (permutation.getJavaVersion() != null) {
+			JavaLanguageVersion javaVersion = JavaLanguageVersion.of(permutation.getJavaVersion());
+			linkageCheck.getJavaLauncher()
+				.set(javaToolchains(project).launcherFor((spec) -> spec.getLanguageVersion().set(javaVersion)));
+		}
+		else {
+			linkageCheck.getJavaLauncher()
+				.set(javaToolchains(project)
+					.launcherFor(project.getExtensions().getByType(JavaPluginExtension.class).getToolchain()));
+		}
+		Provider<ClassReferenceIndex> classReferenceIndex = project.getGradle()
+			.getSharedServices()
+			.registerIfAbsent(ClassReferenceIndex.NAME, ClassReferenceIndex.class, (spec) -> {
+			});
+		linkageCheck.usesService(classReferenceIndex);
+		linkageCheck.getClassReferenceIndex().set(classReferenceIndex);
+		SourceSetContainer sourceSets = project.getExtensions().getByType(JavaPluginExtension.class).getSourceSets();
+		linkageCheck.getClassesDirs()
+			.from(sourceSets.getByName(SourceSet.MAIN_SOURCE_SET_NAME).getOutput().getClassesDirs(),
+					javaCompile.flatMap(JavaCompile::getDestinationDirectory));
+		linkageCheck.getRuntimeClasspath().from(runtimeClasspath);
+		linkageCheck.getBaselineClasspath()
+			.from(project.getConfigurations()
+				.named(sourceSets.getByName(SourceSet.TEST_SOURCE_SET_NAME).getRuntimeClasspathConfigurationName()));
+		linkageCheck.getReport()
+			.set(project.getLayout()
+				.getBuildDirectory()
+				.file("compatibilityTest/" + linkageCheck.getName() + "/linkage-errors.txt"));
+	}
+
+	private void configureSelectImpactedTestsTask(Project project, SelectImpactedTests selectImpactedTests,
+			TaskProvider<JavaCompile> javaCompile, NamedDomainObjectProvider<Configuration> runtimeClasspath) {
+		selectImpactedTests.setDescription("Selects the tests impacted by the versions of a permutation's dependencies");
+		Provider<ClassReferenceIndex> classReferenceIndex = project.getGradle()
+			.getSharedServices()
+			.registerIfAbsent(ClassReferenceIndex.NAME, ClassReferenceIndex.class, (spec) -> {
+			});
+		selectImpactedTests.usesService(classReferenceIndex);
+		selectImpactedTests.getClassReferenceIndex().set(classReferenceIndex);
 		SourceSetContainer sourceSets = project.getExtensions().getByType(JavaPluginExtension.class).getSourceSets();
 		SourceSet testSourceSet = sourceSets.getByName(SourceSet.TEST_SOURCE_SET_NAME);
-		compatibilityTest.dependsOn(testSourceSet.getProcessResourcesTaskName());
-		String runtimeClasspathConfigurationName = testSourceSet.getRuntimeClasspathConfigurationName();
-		Configuration configuration = project.getConfigurations()
-			.create(runtimeClasspathConfigurationName + "_" + identifier);
-		configuration.extendsFrom(project.getConfigurations().getByName(runtimeClasspathConfigurationName));
-		configuration.getResolutionStrategy()
-			.eachDependency((details) -> dependencyVersions.stream()
-				.filter((dependencyVersion) -> matches(dependencyVersion, details))
-				.forEach((dependencyVersion) -> details.useVersion(dependencyVersion.getVersion())));
-		compatibilityTest.setTestClassesDirs(testSourceSet.getOutput().getClassesDirs());
-		compatibilityTest.setClasspath(
-				project.files(javaCompile.getDestinationDirectory(), testSourceSet.getOutput().getResourcesDir(),
-						sourceSets.getByName(SourceSet.MAIN_SOURCE_SET_NAME).getOutput(), configuration));
-	}
-
-	private boolean matches(DependencyVersion dependencyVersion, DependencyResolveDetails details) {
-		ModuleVersionSelector selector = details.getRequested();
-		return dependencyVersion.getGroupId().equals(selector.getGroup()) && (dependencyVersion.getArtifactId() == null
-				|| dependencyVersion.getArtifactId().equals(selector.getName()));
+		selectImpactedTests.getDependencyArtifacts()
+			.from(project.files(runtimeClasspath)
+				.minus(project.files(project.getConfigurations()
+					.named(testSourceSet.getRuntimeClasspathConfigurationName()))));
+		selectImpactedTests.getMainClassesDirs()
+			.from(sourceSets.getByName(SourceSet.MAIN_SOURCE_SET_NAME).getOutput().getClassesDirs());
+		selectImpactedTests.getTestClassesDirs().from(javaCompile.flatMap(JavaCompile::getDestinationDirectory));
+		selectImpactedTests.getSelectedTests()
+			.set(project.getLayout()
+				.getBuildDirectory()
+				.file("compatibilityTest/" + selectImpactedTests.getName() + "/selected-tests.txt"));
+	}
+
+	private Provider<FailFast> failFast(Project project) {
+		return project.getGradle().getSharedServices().registerIfAbsent(FailFast.NAME, FailFast.class, (spec) -> {
+		});
+	}
+
+	private void configureFailFast(Project project, Test compatibilityTest) {
+		compatibilityTest.setFailFast(true);
+		Provider<FailFast> failFast = skipAfterFailure(project, compatibilityTest);
+		compatibilityTest.doFirst(new AddFailureListenerAction(failFast));
+	}
+
+	private Provider<FailFast> skipAfterFailure(Project project, Task compatibilityTest) {
+		Provider<FailFast> failFast = failFast(project);
+		compatibilityTest.usesService(failFast);
+		compatibilityTest.onlyIf("No other permutation has failed", new NoFailureSpec(failFast));
+		return failFast;
+	}
+
+	private void configureForking(Project project, Test compatibilityTest, CompatibilityTestExtension extension) {
+		if (extension.getMaxParallelForksPerPermutation() != null) {
+			compatibilityTest.setMaxParallelForks(extension.getMaxParallelForksPerPermutation());
+		}
+		if (extension.getMaxHeapSize() != null) {
+			compatibilityTest.setMaxHeapSize(extension.getMaxHeapSize());
+		}
+		limitConcurrency(project, compatibilityTest, extension);
+	}
+
+	private void limitConcurrency(Project project, Task task, CompatibilityTestExtension extension) {
+		Integer maxConcurrentPermutations = extension.getMaxConcurrentPermutations();
+		if (maxConcurrentPermutations != null) {
+			task.usesService(concurrentPermutations(project, maxConcurrentPermutations));
+		}
+	}
+
+	private Provider<ConcurrentPermutations> concurrentPermutations(Project project,
+			int maxConcurrentPermutations) {
+		return project.getGradle()
+			.getSharedServices()
+			.registerIfAbsent(ConcurrentPermutations.NAME, ConcurrentPermutations.class,
+					(spec) -> spec.getMaxParallelUsages().set(maxConcurrentPermutations));
+	}
+
+	private Provider<TestJvmPool> testJvmPool(Project project, CompatibilityTestExtension extension) {
+		return project.getGradle()
+			.getSharedServices()
+			.registerIfAbsent(TestJvmPool.NAME, TestJvmPool.class,
+					(spec) -> spec.getMaxParallelUsages().set(extension.getPooledJvms()));
+	}
+
+	private Integer registeredMaxParallelUsages(Project project, String name) {
+		BuildServiceRegistration<?, ?> registration = project.getGradle()
+			.getSharedServices()
+			.getRegistrations()
+			.findByName(name);
+		return (registration != null) ? registration.getMaxParallelUsages().getOrNull() : null;
+	}
+
+	private void configureFromTestTask(Project project, IsolatedCompatibilityTest compatibilityTest) {
+		TaskProvider<Test> test = project.getTasks().named(JavaPlugin.TEST_TASK_NAME, Test.class);
+		compatibilityTest.getJavaLauncher().set(test.flatMap(Test::getJavaLauncher));
+		compatibilityTest.getSystemProperties().set(test.map((task) -> strings(task.getSystemProperties())));
+		compatibilityTest.getJvmArgs().set(test.map((task) -> new ArrayList<>(task.getJvmArgs())));
+		compatibilityTest.getEnvironment().set(test.map((task) -> strings(task.getEnvironment())));
+		compatibilityTest.getIncludeTags()
+			.set(test.map((task) -> junitPlatformOptions(task, JUnitPlatformOptions::getIncludeTags)));
+		compatibilityTest.getExcludeTags()
+			.set(test.map((task) -> junitPlatformOptions(task, JUnitPlatformOptions::getExcludeTags)));
+		compatibilityTest.getIncludeEngines()
+			.set(test.map((task) -> junitPlatformOptions(task, JUnitPlatformOptions::getIncludeEngines)));
+		compatibilityTest.getExcludeEngines()
+			.set(test.map((task) -> junitPlatformOptions(task, JUnitPlatformOptions::getExcludeEngines)));
+		compatibilityTest.getUnsupportedConfiguration()
+			.set(test.map(CompatibilityTestPlugin::unsupportedConfiguration));
+	}
+
+	private static Map<String, String> strings(Map<String, ?> map) {
+		Map<String, String> strings = new LinkedHashMap<>();
+		map.forEach((key, value) -> strings.put(key, String.valueOf(value)));
+		return strings;
+	}
+
+	private static List<String> junitPlatformOptions(Test test, Function<JUnitPlatformOptions, Set<String>> option) {
+		TestFrameworkOptions options = test.getOptions();
+		return (options instanceof JUnitPlatformOptions) ? new ArrayList<>(option.apply((JUnitPlatformOptions) options))
+				: new ArrayList<>();
+	}
+
+	private static List<String> unsupportedConfiguration(Test test) {
+		List<String> unsupported = new ArrayList<>();
+		TestFrameworkOptions options = test.getOptions();
+		if (options instanceof TestNGOptions) {
+			unsupported.add("TestNG");
+		}
+		if (options instanceof JUnitOptions && (!((JUnitOptions) options).getIncludeCategories().isEmpty()
+				|| !((JUnitOptions) options).getExcludeCategories().isEmpty())) {
+			unsupported.add("JUnit 4 categories");
+		}
+		if (!test.getFilter().getIncludePatterns().isEmpty() || !test.getFilter().getExcludePatterns().isEmpty()) {
+			unsupported.add("test filter patterns");
+		}
+		if (!test.getIncludes().isEmpty() || !test.getExcludes().isEmpty()) {
+			unsupported.add("includes and excludes");
+		}
+		return unsupported;
+	}
+
+	private JavaToolchainService javaToolchains(Project project) {
+		return project.getExtensions().getByType(JavaToolchainService.class);
+	}
+
+	private FileCollection matrixTestClasspath(Project project, TaskProvider<JavaCompile> javaCompile,
+			NamedDomainObjectProvider<Configuration> runtimeClasspath) {
+		SourceSetContainer sourceSets = project.getExtensions().getByType(JavaPluginExtension.class).getSourceSets();
+		SourceSet testSourceSet = sourceSets.getByName(SourceSet.TEST_SOURCE_SET_NAME);
+		return project.files(javaCompile.flatMap(JavaCompile::getDestinationDirectory),
+				project.getTasks().named(testSourceSet.getProcessResourcesTaskName()),
+				sourceSets.getByName(SourceSet.MAIN_SOURCE_SET_NAME).getOutput(), runtimeClasspath);
+	}
+
+	private void configureIsolatedTestTask(Project project, IsolatedCompatibilityTest isolatedCompatibilityTest,
+			List<Permutation> permutations, CompatibilityTestExtension extension) {
+		isolatedCompatibilityTest.setDescription("Runs the unit tests of every permutation in a single JVM");
+		isolatedCompatibilityTest.setGroup(JavaBasePlugin.VERIFICATION_GROUP);
+		isolatedCompatibilityTest.getConcurrency().set(extension.getSingleJvmConcurrency());
+		isolatedCompatibilityTest.getMaxHeapSize().set(extension.getMaxHeapSize());
+		configureFromTestTask(project, isolatedCompatibilityTest);
+		limitConcurrency(project, isolatedCompatibilityTest, extension);
+		isolatedCompatibilityTest.getReportsDirectory()
+			.set(project.getLayout().getBuildDirectory().dir("test-results/" + SINGLE_JVM_TASK_NAME));
+		SourceSetContainer sourceSets = project.getExtensions().getByType(JavaPluginExtension.class).getSourceSets();
+		SourceSet testSourceSet = sourceSets.getByName(SourceSet.TEST_SOURCE_SET_NAME);
+		for (Permutation permutation : permutations) {
+			TaskProvider<JavaCompile> javaCompile = project.getTasks()
+				.named(permutation.getCompileTaskName(), JavaCompile.class);
+			NamedDomainObjectProvider<Configuration> runtimeClasspath = project.getConfigurations()
+				.named(testSourceSet.getRuntimeClasspathConfigurationName() + "_"
+						+ permutation.getDependenciesIdentifier());
+			isolatedCompatibilityTest.permutation(permutation.getIdentifier(), permutation.getDescription(),
+					project.files(javaCompile.flatMap(JavaCompile::getDestinationDirectory)),
+					matrixTestClasspath(project, javaCompile, runtimeClasspath));
+			if (extension.isCheckLinkage()) {
+				isolatedCompatibilityTest.dependsOn(permutation.getLinkageCheckTaskName());
+			}
+		}
 	}
 
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Task that aggregates the test results of every permutation into a single report with
+ * the tests as rows and the permutations as columns. The XML results of each
+ * permutation are streamed so that only the outcome and duration of each test are held
+ * in memory.
+ *
+ * @author Andy Wilkinson
+ */
+public abstract class CompatibilityTestReport extends DefaultTask {
+
+	private final List<ReportedPermutation> permutations = new ArrayList<>();
+
+	/**
+	 * Returns the permutations whose results are reported.
+	 * @return the permutations
+	 */
+	@Nested
+	public List<ReportedPermutation> getPermutations() {
+		return this.permutations;
+	}
+
+	void permutation(String identifier, String description, FileCollection results) {
+		this.permutations.add(new ReportedPermutation(identifier, description, results));
+	}
+
+	/**
+	 * Returns the file to which the HTML report is written.
+	 * @return the HTML report
+	 */
+	@OutputFile
+	public abstract RegularFileProperty getHtmlReport();
+
+	@TaskAction
+	public void writeReport() throws IOException {
+		List<String> descriptions = new ArrayList<>();
+		for (ReportedPermutation permutation : this.permutations) {
+			descriptions.add(permutation.getDescription());
+		}
+		CompatibilityMatrixReport report = new CompatibilityMatrixReport(descriptions);
+		JUnitXmlReader reader = new JUnitXmlReader();
+		for (int i = 0; i < this.permutations.size(); i++) {
+			int permutation = i;
+			for (File results : new TreeSet<>(this.permutations.get(i).getResults().getFiles())) {
+				reader.read(results, (className, name, outcome, duration) -> report.add(permutation,
+						className + " > " + name, outcome, duration));
+			}
+		}
+		File html = getHtmlReport().get().getAsFile();
+		html.getParentFile().mkdirs();
+		try (Writer writer = Files.newBufferedWriter(html.toPath(), StandardCharsets.UTF_8);
+				PrintWriter printWriter = new PrintWriter(writer)) {
+			report.writeHtml(printWriter);
+		}
+		getLogger().lifecycle("Compatibility test report written to {}", html.toURI());
+	}
+
+	/**
+	 * A permutation whose test results are reported.
+	 */
+	public static final class ReportedPermutation {
+
+		private final String identifier;
+
+		private final String description;
+
+		private final FileCollection results;
+
+		private ReportedPermutation(String identifier, String description, FileCollection results) {
+			this.identifier = identifier;
+			this.description = description;
+			this.results = results;
+		}
+
+		@Input
+		public String getIdentifier() {
+			return this.identifier;
+		}
+
+		@Input
+		public String getDescription() {
+			return this.description;
+		}
+
+		@InputFiles
+		@PathSensitive(PathSensitivity.RELATIVE)
+		public FileCollection getResults() {
+			return this.results;
+		}
+
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.artifacts.ArtifactCollection;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Task that resolves each distinct version in the matrix once so that versions that
+ * cannot be resolved are reported before any permutation is tested. The artifacts of each
+ * version are resolved leniently as the task's inputs, allowing Gradle to download them
+ * in parallel and leaving them in the dependency cache for the matrix tasks.
+ *
+ * @author Andy Wilkinson
+ */
+public abstract class CompatibilityTestResolve extends DefaultTask {
+
+	private final List<ResolvedDependencyVersion> dependencyVersions = new ArrayList<>();
+
+	/**
+	 * Returns the dependency versions that are resolved.
+	 * @return the dependency versions
+	 */
+	@Nested
+	public List<ResolvedDependencyVersion> getDependencyVersions() {
+		return this.dependencyVersions;
+	}
+
+	void dependencyVersion(String description, ArtifactCollection artifacts) {
+		this.dependencyVersions.add(new ResolvedDependencyVersion(description, artifacts));
+	}
+
+	@TaskAction
+	public void resolve() {
+		List<String> failures = new ArrayList<>();
+		for (ResolvedDependencyVersion dependencyVersion : this.dependencyVersions) {
+			for (Throwable failure : dependencyVersion.getArtifacts().getFailures()) {
+				failures.add(dependencyVersion.getDescription() + ": " + firstLine(failure.getMessage()));
+			}
+			getLogger().info("Resolved {} artifacts with {}", dependencyVersion.getArtifacts().getArtifacts().size(),
+					dependencyVersion.getDescription());
+		}
+		if (!failures.isEmpty()) {
+			throw new GradleException("Failed to resolve the following compatibility test dependency versions:"
+					+ System.lineSeparator() + "    " + String.join(System.lineSeparator() + "    ", failures));
+		}
+	}
+
+	private static String firstLine(String message) {
+		if (message == null) {
+			return "";
+		}
+		int newLine = message.indexOf('\n');
+		return (newLine != -1) ? message.substring(0, newLine).trim() : message;
+	}
+
+	/**
+	 * A dependency version whose artifacts are resolved.
+	 */
+	public static final class ResolvedDependencyVersion {
+
+		private final String description;
+
+		private final ArtifactCollection artifacts;
+
+		private ResolvedDependencyVersion(String description, ArtifactCollection artifacts) {
+			this.description = description;
+			this.artifacts = artifacts;
+		}
+
+		@Input
+		public String getDescription() {
+			return this.description;
+		}
+
+		@Classpath
+		public FileCollection getArtifactFiles() {
+			return this.artifacts.getArtifactFiles();
+		}
+
+		@Internal
+		public ArtifactCollection getArtifacts() {
+			return this.artifacts;
+		}
+
+	}
+
+}
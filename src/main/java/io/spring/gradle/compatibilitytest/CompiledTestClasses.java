@@ -0,0 +1,140 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.gradle.api.Action;
+import org.gradle.api.JavaVersion;
+import org.gradle.api.Task;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.gradle.api.tasks.compile.JavaCompile;
+import org.gradle.jvm.toolchain.JavaCompiler;
+import org.gradle.jvm.toolchain.JavaInstallationMetadata;
+
+/**
+ * {@link BuildService} that keeps track of the test classes that have been compiled
+ * during the build, keyed by the ABI of the classpath they were compiled against, so that
+ * they can be reused rather than compiling the same source against an identical ABI
+ * again.
+ *
+ * @author Andy Wilkinson
+ */
+public abstract class CompiledTestClasses implements BuildService<BuildServiceParameters.None> {
+
+	static final String NAME = "compatibilityTestCompiledTestClasses";
+
+	private final Map<String, String> abiFingerprints = new ConcurrentHashMap<>();
+
+	private final Map<String, File> compiledTestClasses = new ConcurrentHashMap<>();
+
+	String abiFingerprint(Iterable<File> classpath) {
+		List<String> fingerprints = new ArrayList<>();
+		for (File file : classpath) {
+			if (file.isDirectory()) {
+				fingerprints.add(AbiFingerprint.of(file));
+			}
+			else {
+				String key = file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified();
+				fingerprints.add(this.abiFingerprints.computeIfAbsent(key, (k) -> AbiFingerprint.of(file)));
+			}
+		}
+		return Digests.combine(fingerprints);
+	}
+
+	File find(String key) {
+		return this.compiledTestClasses.get(key);
+	}
+
+	void register(String key, File classes) {
+		this.compiledTestClasses.putIfAbsent(key, classes);
+	}
+
+	/**
+	 * The inputs, beyond the test source, that determine the classes produced by a
+	 * {@link JavaCompile} task.
+	 */
+	static final class CompilationInputs {
+
+		private final Provider<CompiledTestClasses> compiledTestClasses;
+
+		private final String scope;
+
+		private final FileCollection classpath;
+
+		CompilationInputs(Provider<CompiledTestClasses> compiledTestClasses, String scope, FileCollection classpath) {
+			this.compiledTestClasses = compiledTestClasses;
+			this.scope = scope;
+			this.classpath = classpath;
+		}
+
+		String key(String compilerSettings) {
+			return this.scope + ":" + compilerSettings + ":" + abiFingerprint();
+		}
+
+		String abiFingerprint() {
+			return this.compiledTestClasses.get().abiFingerprint(this.classpath);
+		}
+
+		static String compilerSettings(JavaCompile javaCompile) {
+			return compiler(javaCompile) + " " + javaCompile.getOptions().getAllCompilerArgs() + " "
+					+ javaCompile.getSourceCompatibility() + " " + javaCompile.getTargetCompatibility() + " "
+					+ javaCompile.getOptions().getRelease().getOrNull();
+		}
+
+		private static String compiler(JavaCompile javaCompile) {
+			JavaCompiler compiler = javaCompile.getJavaCompiler().getOrNull();
+			if (compiler == null) {
+				return JavaVersion.current() + " " + System.getProperty("java.vendor") + " "
+						+ System.getProperty("java.runtime.version");
+			}
+			JavaInstallationMetadata metadata = compiler.getMetadata();
+			return metadata.getLanguageVersion() + " " + metadata.getVendor() + " " + metadata.getJavaRuntimeVersion();
+		}
+
+	}
+
+	/**
+	 * Action that registers the classes compiled by a {@link JavaCompile} task so that
+	 * they can be reused.
+	 */
+	static final class RegisterAction implements Action<Task> {
+
+		private final CompilationInputs inputs;
+
+		RegisterAction(CompilationInputs inputs) {
+			this.inputs = inputs;
+		}
+
+		@Override
+		public void execute(Task task) {
+			JavaCompile javaCompile = (JavaCompile) task;
+			this.inputs.compiledTestClasses.get()
+				.register(this.inputs.key(CompilationInputs.compilerSettings(javaCompile)),
+						javaCompile.getDestinationDirectory().get().getAsFile());
+		}
+
+	}
+
+}
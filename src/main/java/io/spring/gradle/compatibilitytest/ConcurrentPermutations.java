@@ -0,0 +1,35 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * {@link BuildService} that limits the number of permutations, across all of the projects
+ * in the build, whose tests are run concurrently. The limit is enforced by Gradle using
+ * the service's maximum number of parallel usages. The service is shared by the whole
+ * build so every project that limits the number of concurrent permutations must
+ * configure the same limit.
+ *
+ * @author Andy Wilkinson
+ */
+public abstract class ConcurrentPermutations implements BuildService<BuildServiceParameters.None> {
+
+	static final String NAME = "compatibilityTestConcurrentPermutations";
+
+}
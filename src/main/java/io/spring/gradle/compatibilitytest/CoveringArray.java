@@ -0,0 +1,251 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Helper class for calculating covering arrays. A covering array of strength {@code t}
+ * contains every combination of {@code t} items, drawn from any {@code t} of the sets, in
+ * at least one of its rows. Rows are built greedily, choosing from a number of candidate
+ * rows the one that covers the most combinations that are not yet covered. Candidates
+ * are generated using a seeded {@link Random} so the result is deterministic.
+ *
+ * @author Andy Wilkinson
+ */
+final class CoveringArray {
+
+	private static final int CANDIDATES = 20;
+
+	private final int[] sizes;
+
+	private final List<Combination> combinations = new ArrayList<>();
+
+	private final List<List<Combination>> combinationsByFactor = new ArrayList<>();
+
+	private final Random random;
+
+	private int uncovered;
+
+	private CoveringArray(int[] sizes, int strength, long seed) {
+		this.sizes = sizes;
+		this.random = new Random(seed);
+		for (int i = 0; i < sizes.length; i++) {
+			this.combinationsByFactor.add(new ArrayList<>());
+		}
+		addCombinations(new int[strength], 0, 0);
+	}
+
+	private void addCombinations(int[] factors, int index, int start) {
+		if (index == factors.length) {
+			Combination combination = new Combination(factors.clone(), this.sizes);
+			this.combinations.add(combination);
+			this.uncovered += combination.covered.length;
+			for (int factor : combination.factors) {
+				this.combinationsByFactor.get(factor).add(combination);
+			}
+			return;
+		}
+		for (int factor = start; factor < this.sizes.length; factor++) {
+			factors[index] = factor;
+			addCombinations(factors, index + 1, factor + 1);
+		}
+	}
+
+	private List<int[]> rows() {
+		List<int[]> rows = new ArrayList<>();
+		while (this.uncovered > 0) {
+			int[] best = null;
+			int bestCoverage = -1;
+			for (int i = 0; i < CANDIDATES; i++) {
+				int[] candidate = candidate();
+				int coverage = coverage(candidate);
+				if (coverage > bestCoverage) {
+					best = candidate;
+					bestCoverage = coverage;
+				}
+			}
+			cover(best);
+			rows.add(best);
+		}
+		return rows;
+	}
+
+	private int[] candidate() {
+		int[] row = new int[this.sizes.length];
+		Arrays.fill(row, -1);
+		firstUncovered().assign(row);
+		List<Integer> unassigned = new ArrayList<>();
+		for (int factor = 0; factor < row.length; factor++) {
+			if (row[factor] == -1) {
+				unassigned.add(factor);
+			}
+		}
+		Collections.shuffle(unassigned, this.random);
+		for (int factor : unassigned) {
+			row[factor] = bestValue(row, factor);
+		}
+		return row;
+	}
+
+	private Tuple firstUncovered() {
+		for (Combination combination : this.combinations) {
+			for (int index = 0; index < combination.covered.length; index++) {
+				if (!combination.covered[index]) {
+					return new Tuple(combination, index);
+				}
+			}
+		}
+		throw new IllegalStateException("All combinations are covered");
+	}
+
+	private int bestValue(int[] row, int factor) {
+		List<Integer> best = new ArrayList<>();
+		int bestGain = -1;
+		for (int value = 0; value < this.sizes[factor]; value++) {
+			row[factor] = value;
+			int gain = 0;
+			for (Combination combination : this.combinationsByFactor.get(factor)) {
+				if (combination.isUncovered(row)) {
+					gain++;
+				}
+			}
+			if (gain > bestGain) {
+				best.clear();
+				bestGain = gain;
+			}
+			if (gain == bestGain) {
+				best.add(value);
+			}
+		}
+		return best.get(this.random.nextInt(best.size()));
+	}
+
+	private int coverage(int[] row) {
+		int coverage = 0;
+		for (Combination combination : this.combinations) {
+			if (combination.isUncovered(row)) {
+				coverage++;
+			}
+		}
+		return coverage;
+	}
+
+	private void cover(int[] row) {
+		for (Combination combination : this.combinations) {
+			if (combination.isUncovered(row)) {
+				combination.covered[combination.index(row)] = true;
+				this.uncovered--;
+			}
+		}
+	}
+
+	static <E> List<List<E>> of(List<? extends Set<? extends E>> sets, int strength, long seed) {
+		List<List<E>> items = new ArrayList<>(sets.size());
+		for (Set<? extends E> set : sets) {
+			if (set.isEmpty()) {
+				return Collections.emptyList();
+			}
+			items.add(new ArrayList<>(set));
+		}
+		List<List<E>> result = new ArrayList<>();
+		if (strength >= sets.size()) {
+			CartesianProduct.<E>of(sets).forEach(result::add);
+			return result;
+		}
+		int[] sizes = items.stream().mapToInt(List::size).toArray();
+		for (int[] row : new CoveringArray(sizes, strength, seed).rows()) {
+			List<E> permutation = new ArrayList<>(row.length);
+			for (int factor = 0; factor < row.length; factor++) {
+				permutation.add(items.get(factor).get(row[factor]));
+			}
+			result.add(permutation);
+		}
+		return result;
+	}
+
+	/**
+	 * A combination of factors and the tuples of their values that have been covered.
+	 */
+	private static final class Combination {
+
+		private final int[] factors;
+
+		private final int[] strides;
+
+		private final boolean[] covered;
+
+		private Combination(int[] factors, int[] sizes) {
+			this.factors = factors;
+			this.strides = new int[factors.length];
+			int size = 1;
+			for (int i = factors.length - 1; i >= 0; i--) {
+				this.strides[i] = size;
+				size *= sizes[factors[i]];
+			}
+			this.covered = new boolean[size];
+		}
+
+		private boolean isUncovered(int[] row) {
+			for (int factor : this.factors) {
+				if (row[factor] == -1) {
+					return false;
+				}
+			}
+			return !this.covered[index(row)];
+		}
+
+		private int index(int[] row) {
+			int index = 0;
+			for (int i = 0; i < this.factors.length; i++) {
+				index += row[this.factors[i]] * this.strides[i];
+			}
+			return index;
+		}
+
+	}
+
+	/**
+	 * A tuple of values for the factors of a {@link Combination}.
+	 */
+	private static final class Tuple {
+
+		private final Combination combination;
+
+		private final int index;
+
+		private Tuple(Combination combination, int index) {
+			this.combination = combination;
+			this.index = index;
+		}
+
+		private void assign(int[] row) {
+			int remainder = this.index;
+			for (int i = 0; i < this.combination.factors.length; i++) {
+				row[this.combination.factors[i]] = remainder / this.combination.strides[i];
+				remainder %= this.combination.strides[i];
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.gradle.api.Action;
+import org.gradle.api.artifacts.DependencyResolveDetails;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+
+import io.spring.gradle.compatibilitytest.CompatibilityMatrix.DependencyVersion;
+
+/**
+ * Overrides the versions of the dependencies in a permutation when they are resolved.
+ * The overrides are indexed by group so that determining the version, if any, that
+ * should be used for a dependency requires a single hash lookup in the common case where
+ * the dependency's group is not part of the permutation.
+ *
+ * @author Andy Wilkinson
+ */
+final class DependencyVersionOverrides implements Action<DependencyResolveDetails> {
+
+	private final Map<String, GroupOverrides> overrides = new HashMap<>();
+
+	DependencyVersionOverrides(List<DependencyVersion> dependencyVersions) {
+		for (DependencyVersion dependencyVersion : dependencyVersions) {
+			GroupOverrides groupOverrides = this.overrides.computeIfAbsent(dependencyVersion.getGroupId(),
+					(groupId) -> new GroupOverrides());
+			if (dependencyVersion.getArtifactId() == null) {
+				groupOverrides.override(dependencyVersion.getVersion());
+			}
+			else {
+				groupOverrides.override(dependencyVersion.getArtifactId(), dependencyVersion.getVersion());
+			}
+		}
+	}
+
+	@Override
+	public void execute(DependencyResolveDetails details) {
+		ModuleVersionSelector requested = details.getRequested();
+		String version = versionFor(requested.getGroup(), requested.getName());
+		if (version != null) {
+			details.useVersion(version);
+		}
+	}
+
+	/**
+	 * Returns the version that should be used for the module with the given
+	 * {@code group} and {@code name}.
+	 * @param group the group of the module
+	 * @param name the name of the module
+	 * @return the version to use or {@code null} if the module's version should not be
+	 * overridden
+	 */
+	String versionFor(String group, String name) {
+		GroupOverrides groupOverrides = this.overrides.get(group);
+		return (groupOverrides != null) ? groupOverrides.versionFor(name) : null;
+	}
+
+	/**
+	 * The version overrides for the modules in a group. When both the group and a module
+	 * in the group are overridden, the override that was declared last wins.
+	 */
+	private static final class GroupOverrides {
+
+		private String version;
+
+		private Map<String, String> moduleVersions = Collections.emptyMap();
+
+		private void override(String version) {
+			this.version = version;
+			this.moduleVersions.replaceAll((name, moduleVersion) -> version);
+		}
+
+		private void override(String name, String version) {
+			if (this.moduleVersions.isEmpty()) {
+				this.moduleVersions = new HashMap<>();
+			}
+			this.moduleVersions.put(name, version);
+		}
+
+		private String versionFor(String name) {
+			String moduleVersion = this.moduleVersions.get(name);
+			return (moduleVersion != null) ? moduleVersion : this.version;
+		}
+
+	}
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Helper class for calculating SHA-256 digests.
+ *
+ * @author Andy Wilkinson
+ */
+final class Digests {
+
+	private Digests() {
+
+	}
+
+	static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	static String toHex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			hex.append(String.format("%02x", b));
+		}
+		return hex.toString();
+	}
+
+	static String combine(List<String> digests) {
+		MessageDigest digest = sha256();
+		for (String element : digests) {
+			digest.update(element.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+		}
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Returns a digest of the contents of the given file. When the file is a directory,
+	 * the digest covers the relative path and contents of every file beneath it.
+	 * @param file the file or directory
+	 * @return the digest
+	 */
+	static String ofContents(File file) {
+		MessageDigest digest = sha256();
+		try {
+			if (file.isDirectory()) {
+				Path root = file.toPath();
+				List<Path> files;
+				try (Stream<Path> stream = Files.walk(root)) {
+					files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+				}
+				for (Path path : files) {
+					String name = root.relativize(path).toString().replace(File.separatorChar, '/');
+					digest.update(name.getBytes(StandardCharsets.UTF_8));
+					digest.update((byte) 0);
+					update(digest, path);
+				}
+			}
+			else if (file.isFile()) {
+				update(digest, file.toPath());
+			}
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Failed to digest the contents of " + file, ex);
+		}
+		return toHex(digest.digest());
+	}
+
+	private static void update(MessageDigest digest, Path path) throws IOException {
+		byte[] buffer = new byte[8192];
+		try (InputStream input = Files.newInputStream(path)) {
+			int read;
+			while ((read = input.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.gradle.api.Action;
+import org.gradle.api.Task;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.testing.Test;
+import org.gradle.api.tasks.testing.TestDescriptor;
+import org.gradle.api.tasks.testing.TestListener;
+import org.gradle.api.tasks.testing.TestResult;
+import org.gradle.tooling.events.FinishEvent;
+import org.gradle.tooling.events.OperationCompletionListener;
+import org.gradle.tooling.events.task.TaskFailureResult;
+import org.gradle.tooling.events.task.TaskFinishEvent;
+
+/**
+ * {@link BuildService} that listens for the failure of matrix test tasks anywhere in the
+ * build so that the permutations that have not yet started can be skipped. Failing tests
+ * are reported synchronously by a {@link FailureListener} and any other failure of a
+ * matrix test task is reported when the task completes.
+ *
+ * @author Andy Wilkinson
+ */
+public abstract class FailFast implements BuildService<BuildServiceParameters.None>, OperationCompletionListener {
+
+	static final String NAME = "compatibilityTestFailFast";
+
+	private final AtomicReference<String> firstFailure = new AtomicReference<>();
+
+	@Override
+	public void onFinish(FinishEvent event) {
+		if (event instanceof TaskFinishEvent && event.getResult() instanceof TaskFailureResult) {
+			String taskPath = ((TaskFinishEvent) event).getDescriptor().getTaskPath();
+			if (taskPath.substring(taskPath.lastIndexOf(':') + 1).startsWith(Permutation.TEST_TASK_NAME_PREFIX)) {
+				failed(taskPath);
+			}
+		}
+	}
+
+	void failed(String taskPath) {
+		this.firstFailure.compareAndSet(null, taskPath);
+	}
+
+	String getFirstFailure() {
+		return this.firstFailure.get();
+	}
+
+	/**
+	 * {@link TestListener} that reports the failure of a {@link Test} task's tests.
+	 */
+	static final class FailureListener implements TestListener {
+
+		private final Provider<FailFast> failFast;
+
+		private final String taskPath;
+
+		FailureListener(Provider<FailFast> failFast, String taskPath) {
+			this.failFast = failFast;
+			this.taskPath = taskPath;
+		}
+
+		@Override
+		public void beforeSuite(TestDescriptor suite) {
+
+		}
+
+		@Override
+		public void afterSuite(TestDescriptor suite, TestResult result) {
+			if (suite.getParent() == null && result.getResultType() == TestResult.ResultType.FAILURE) {
+				this.failFast.get().failed(this.taskPath);
+			}
+		}
+
+		@Override
+		public void beforeTest(TestDescriptor testDescriptor) {
+
+		}
+
+		@Override
+		public void afterTest(TestDescriptor testDescriptor, TestResult result) {
+
+		}
+
+	}
+
+	/**
+	 * Action that adds a {@link FailureListener} to a {@link Test} task when it executes
+	 * unless the task ignores failures. Adding the listener at execution time, rather than
+	 * when the task is configured, ensures that it is present when the task is loaded from
+	 * the configuration cache.
+	 */
+	static final class AddFailureListenerAction implements Action<Task> {
+
+		private final Provider<FailFast> failFast;
+
+		AddFailureListenerAction(Provider<FailFast> failFast) {
+			this.failFast = failFast;
+		}
+
+		@Override
+		public void execute(Task task) {
+			Test test = (Test) task;
+			if (!test.getIgnoreFailures()) {
+				test.addTestListener(new FailureListener(this.failFast, task.getPath()));
+			}
+		}
+
+	}
+
+	/**
+	 * {@link Spec} that is only satisfied when no matrix test task has failed.
+	 */
+	static final class NoFailureSpec implements Spec<Task> {
+
+		private final Provider<FailFast> failFast;
+
+		NoFailureSpec(Provider<FailFast> failFast) {
+			this.failFast = failFast;
+		}
+
+		@Override
+		public boolean isSatisfiedBy(Task task) {
+			String firstFailure = this.failFast.get().getFirstFailure();
+			if (firstFailure != null) {
+				task.getLogger().lifecycle("Skipping {} as {} has failed", task.getPath(), firstFailure);
+				return false;
+			}
+			return true;
+		}
+
+	}
+
+}
@@ -0,0 +1,401 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.inject.Inject;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.jvm.toolchain.JavaLauncher;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+import org.gradle.workers.WorkQueue;
+import org.gradle.workers.WorkerExecutor;
+
+/**
+ * Task that runs the tests of one or more permutations in a worker JVM. The tests of
+ * each permutation are launched on the JUnit Platform using a class loader that is
+ * isolated from those of the other permutations, avoiding the cost of forking a JVM,
+ * warming it up, and discovering the tests for each permutation. The task is used both
+ * to run every permutation in a single JVM and to run each permutation in a JVM from a
+ * pool of worker JVMs that Gradle reuses across tasks. The worker JVM is configured from
+ * the project's {@code test} task.
+ *
+ * @author Andy Wilkinson
+ */
+@CacheableTask
+public abstract class IsolatedCompatibilityTest extends DefaultTask {
+
+	private final List<IsolatedPermutation> permutations = new ArrayList<>();
+
+	/**
+	 * Returns the permutations whose tests are run.
+	 * @return the permutations
+	 */
+	@Nested
+	public List<IsolatedPermutation> getPermutations() {
+		return this.permutations;
+	}
+
+	void permutation(String identifier, String description, FileCollection testClassesDirs,
+			FileCollection classpath) {
+		this.permutations.add(new IsolatedPermutation(identifier, description, testClassesDirs, classpath));
+	}
+
+	/**
+	 * Returns the number of permutations whose tests are run concurrently.
+	 * @return the concurrency
+	 */
+	@Input
+	public abstract Property<Integer> getConcurrency();
+
+	/**
+	 * Returns the maximum heap size of the worker JVM.
+	 * @return the maximum heap size
+	 */
+	@Input
+	@Optional
+	public abstract Property<String> getMaxHeapSize();
+
+	/**
+	 * Returns the launcher of the JDK on which the worker JVM runs. When not set, the
+	 * worker JVM runs on the JDK that is running the build.
+	 * @return the Java launcher
+	 */
+	@Nested
+	@Optional
+	public abstract Property<JavaLauncher> getJavaLauncher();
+
+	/**
+	 * Returns the system properties of the worker JVM.
+	 * @return the system properties
+	 */
+	@Input
+	public abstract MapProperty<String, String> getSystemProperties();
+
+	/**
+	 * Returns the additional arguments of the worker JVM.
+	 * @return the JVM arguments
+	 */
+	@Input
+	public abstract ListProperty<String> getJvmArgs();
+
+	/**
+	 * Returns the environment variables of the worker JVM.
+	 * @return the environment variables
+	 */
+	@Internal
+	public abstract MapProperty<String, String> getEnvironment();
+
+	/**
+	 * Returns the tags of the tests that are included. When empty, tests are included
+	 * irrespective of their tags.
+	 * @return the included tags
+	 */
+	@Input
+	public abstract ListProperty<String> getIncludeTags();
+
+	/**
+	 * Returns the tags of the tests that are excluded.
+	 * @return the excluded tags
+	 */
+	@Input
+	public abstract ListProperty<String> getExcludeTags();
+
+	/**
+	 * Returns the IDs of the test engines that are included. When empty, every engine is
+	 * included.
+	 * @return the included engines
+	 */
+	@Input
+	public abstract ListProperty<String> getIncludeEngines();
+
+	/**
+	 * Returns the IDs of the test engines that are excluded.
+	 * @return the excluded engines
+	 */
+	@Input
+	public abstract ListProperty<String> getExcludeEngines();
+
+	/**
+	 * Returns descriptions of the test configuration that cannot be honored when running
+	 * tests in isolation. The task fails when any are present rather than silently
+	 * ignoring them.
+	 * @return the unsupported test configuration
+	 */
+	@Internal
+	public abstract ListProperty<String> getUnsupportedConfiguration();
+
+	/**
+	 * Returns the directory to which the reports for each permutation are written.
+	 * @return the reports directory
+	 */
+	@OutputDirectory
+	public abstract DirectoryProperty getReportsDirectory();
+
+	@Inject
+	protected abstract WorkerExecutor getWorkerExecutor();
+
+	@TaskAction
+	public void runTests() {
+		List<String> unsupported = getUnsupportedConfiguration().get();
+		if (!unsupported.isEmpty()) {
+			throw new GradleException("Tests cannot be run in isolation as the following configuration of the test "
+					+ "task is not supported: " + String.join(", ", unsupported));
+		}
+		WorkQueue workQueue = getWorkerExecutor().processIsolation((spec) -> spec.forkOptions((forkOptions) -> {
+			if (getJavaLauncher().isPresent()) {
+				forkOptions.setExecutable(getJavaLauncher().get().getExecutablePath().getAsFile());
+			}
+			if (getMaxHeapSize().isPresent()) {
+				forkOptions.setMaxHeapSize(getMaxHeapSize().get());
+			}
+			forkOptions.systemProperties(getSystemProperties().get());
+			forkOptions.jvmArgs(getJvmArgs().get());
+			forkOptions.environment(getEnvironment().get());
+		}));
+		JUnitPlatformLauncher.Filters filters = new JUnitPlatformLauncher.Filters(
+				new ArrayList<>(getIncludeTags().get()), new ArrayList<>(getExcludeTags().get()),
+				new ArrayList<>(getIncludeEngines().get()), new ArrayList<>(getExcludeEngines().get()));
+		List<PermutationSpec> specs = new ArrayList<>();
+		for (IsolatedPermutation permutation : this.permutations) {
+			specs.add(new PermutationSpec(permutation.getIdentifier(), permutation.getDescription(),
+					new ArrayList<>(permutation.getTestClassesDirs().getFiles()),
+					new ArrayList<>(permutation.getClasspath().getFiles())));
+		}
+		File results = getTemporaryDir().toPath().resolve("results.properties").toFile();
+		workQueue.submit(RunTests.class, (parameters) -> {
+			parameters.getPermutations().set(specs);
+			parameters.getConcurrency().set(getConcurrency());
+			parameters.getFilters().set(filters);
+			parameters.getReportsDirectory().set(getReportsDirectory());
+			parameters.getResultsFile().set(results);
+		});
+		workQueue.await();
+		List<String> failures = new ArrayList<>();
+		Properties outcomes = load(results);
+		for (IsolatedPermutation permutation : this.permutations) {
+			if (!"success".equals(outcomes.getProperty(permutation.getIdentifier()))) {
+				failures.add(permutation.getDescription());
+			}
+		}
+		if (!failures.isEmpty()) {
+			throw new GradleException("Tests failed with " + String.join("; ", failures) + ". See the reports in "
+					+ getReportsDirectory().get().getAsFile());
+		}
+	}
+
+	private static Properties load(File file) {
+		Properties properties = new Properties();
+		try (Reader reader = new FileReader(file)) {
+			properties.load(reader);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Failed to read test results from " + file, ex);
+		}
+		return properties;
+	}
+
+	/**
+	 * A permutation whose tests are run in isolation.
+	 */
+	public static final class IsolatedPermutation {
+
+		private final String identifier;
+
+		private final String description;
+
+		private final FileCollection testClassesDirs;
+
+		private final FileCollection classpath;
+
+		private IsolatedPermutation(String identifier, String description, FileCollection testClassesDirs,
+				FileCollection classpath) {
+			this.identifier = identifier;
+			this.description = description;
+			this.testClassesDirs = testClassesDirs;
+			this.classpath = classpath;
+		}
+
+		@Input
+		public String getIdentifier() {
+			return this.identifier;
+		}
+
+		@Internal
+		public String getDescription() {
+			return this.description;
+		}
+
+		@InputFiles
+		@PathSensitive(PathSensitivity.RELATIVE)
+		public FileCollection getTestClassesDirs() {
+			return this.testClassesDirs;
+		}
+
+		@Classpath
+		public FileCollection getClasspath() {
+			return this.classpath;
+		}
+
+	}
+
+	/**
+	 * The files of a permutation, resolved so that they can be passed to the worker JVM.
+	 */
+	static final class PermutationSpec implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String identifier;
+
+		private final String description;
+
+		private final List<File> testClassesDirs;
+
+		private final List<File> classpath;
+
+		PermutationSpec(String identifier, String description, List<File> testClassesDirs, List<File> classpath) {
+			this.identifier = identifier;
+			this.description = description;
+			this.testClassesDirs = testClassesDirs;
+			this.classpath = classpath;
+		}
+
+	}
+
+	/**
+	 * Parameters for {@link RunTests}.
+	 */
+	public interface RunTestsParameters extends WorkParameters {
+
+		ListProperty<PermutationSpec> getPermutations();
+
+		Property<Integer> getConcurrency();
+
+		Property<JUnitPlatformLauncher.Filters> getFilters();
+
+		DirectoryProperty getReportsDirectory();
+
+		RegularFileProperty getResultsFile();
+
+	}
+
+	/**
+	 * {@link WorkAction} that runs the tests of each permutation in the worker JVM.
+	 */
+	public abstract static class RunTests implements WorkAction<RunTestsParameters> {
+
+		private static final Logger logger = Logging.getLogger(RunTests.class);
+
+		@Override
+		public void execute() {
+			RunTestsParameters parameters = getParameters();
+			File reportsDirectory = parameters.getReportsDirectory().get().getAsFile();
+			ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parameters.getConcurrency().get()));
+			try {
+				List<Future<JUnitPlatformLauncher.Result>> futures = new ArrayList<>();
+				JUnitPlatformLauncher.Filters filters = parameters.getFilters().get();
+				for (PermutationSpec permutation : parameters.getPermutations().get()) {
+					futures.add(executor.submit(() -> JUnitPlatformLauncher.launch(permutation.testClassesDirs,
+							permutation.classpath, new File(reportsDirectory, permutation.identifier), filters)));
+				}
+				Properties outcomes = new Properties();
+				List<PermutationSpec> permutations = parameters.getPermutations().get();
+				for (int i = 0; i < permutations.size(); i++) {
+					PermutationSpec permutation = permutations.get(i);
+					JUnitPlatformLauncher.Result result = getResult(futures.get(i), permutation);
+					report(permutation, result);
+					outcomes.setProperty(permutation.identifier, result.isSuccessful() ? "success" : "failure");
+				}
+				write(outcomes, parameters.getResultsFile().get().getAsFile());
+			}
+			finally {
+				executor.shutdownNow();
+			}
+		}
+
+		private JUnitPlatformLauncher.Result getResult(Future<JUnitPlatformLauncher.Result> future,
+				PermutationSpec permutation) {
+			try {
+				return future.get();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new GradleException("Interrupted while testing " + permutation.description, ex);
+			}
+			catch (ExecutionException ex) {
+				throw new GradleException("Failed to test " + permutation.description, ex.getCause());
+			}
+		}
+
+		private void report(PermutationSpec permutation, JUnitPlatformLauncher.Result result) {
+			logger.lifecycle("{}: {} tests, {} succeeded, {} failed, {} skipped", permutation.description,
+					result.getTests(), result.getSucceeded(), result.getFailed(), result.getSkipped());
+			if (!result.isSuccessful()) {
+				logger.error(result.getFailures());
+			}
+		}
+
+		private void write(Properties outcomes, File file) {
+			file.getParentFile().mkdirs();
+			try (Writer writer = new FileWriter(file)) {
+				outcomes.store(writer, null);
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException("Failed to write test results to " + file, ex);
+			}
+		}
+
+	}
+
+}
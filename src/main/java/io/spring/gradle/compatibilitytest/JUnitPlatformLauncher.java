@@ -0,0 +1,262 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.Serializable;
+import java.io.StringWriter;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Launches the JUnit Platform in an isolated class loader. The JUnit Platform is loaded
+ * from the tests' classpath and is driven reflectively so that different versions can be
+ * launched from the same JVM.
+ *
+ * @author Andy Wilkinson
+ */
+final class JUnitPlatformLauncher {
+
+	private static final String LAUNCHER_PACKAGE = "org.junit.platform.launcher.";
+
+	private static final String XML_REPORT_LISTENER = "org.junit.platform.reporting.legacy.xml.LegacyXmlReportGeneratingListener";
+
+	private JUnitPlatformLauncher() {
+
+	}
+
+	/**
+	 * Discovers and executes the tests in the given {@code testClassesDirs} using a class
+	 * loader created from the given {@code classpath}. When the JUnit Platform's
+	 * reporting module is available, an XML report is written to the given
+	 * {@code reportsDir}.
+	 * @param testClassesDirs the directories containing the test classes
+	 * @param classpath the classpath of the tests
+	 * @param reportsDir the directory to which XML reports should be written
+	 * @param filters the filters applied to the discovered tests
+	 * @return the result of executing the tests
+	 */
+	static Result launch(List<File> testClassesDirs, List<File> classpath, File reportsDir, Filters filters) {
+		Thread thread = Thread.currentThread();
+		ClassLoader previous = thread.getContextClassLoader();
+		try (URLClassLoader classLoader = new URLClassLoader(toUrls(classpath),
+				ClassLoader.getSystemClassLoader().getParent())) {
+			thread.setContextClassLoader(classLoader);
+			return launch(classLoader, testClassesDirs, reportsDir, filters);
+		}
+		catch (ClassNotFoundException ex) {
+			throw new IllegalStateException(
+					"The JUnit Platform launcher could not be found. Add junit-platform-launcher to the test runtime classpath",
+					ex);
+		}
+		catch (InvocationTargetException ex) {
+			throw new IllegalStateException("Failed to launch the JUnit Platform", ex.getTargetException());
+		}
+		catch (Exception ex) {
+			throw new IllegalStateException("Failed to launch the JUnit Platform", ex);
+		}
+		finally {
+			thread.setContextClassLoader(previous);
+		}
+	}
+
+	private static Result launch(ClassLoader classLoader, List<File> testClassesDirs, File reportsDir,
+			Filters filters) throws Exception {
+		Set<Path> roots = new LinkedHashSet<>();
+		for (File testClassesDir : testClassesDirs) {
+			if (testClassesDir.isDirectory()) {
+				roots.add(testClassesDir.toPath());
+			}
+		}
+		Object selectors = classLoader.loadClass("org.junit.platform.engine.discovery.DiscoverySelectors")
+			.getMethod("selectClasspathRoots", Set.class)
+			.invoke(null, roots);
+		Class<?> requestBuilderClass = classLoader.loadClass(LAUNCHER_PACKAGE + "core.LauncherDiscoveryRequestBuilder");
+		Object requestBuilder = requestBuilderClass.getMethod("request").invoke(null);
+		requestBuilderClass.getMethod("selectors", List.class).invoke(requestBuilder, selectors);
+		Object filterArray = createFilters(classLoader, filters);
+		requestBuilderClass.getMethod("filters", filterArray.getClass()).invoke(requestBuilder, filterArray);
+		Object request = requestBuilderClass.getMethod("build").invoke(requestBuilder);
+		Object launcher = classLoader.loadClass(LAUNCHER_PACKAGE + "core.LauncherFactory")
+			.getMethod("create")
+			.invoke(null);
+		Class<?> listenerClass = classLoader.loadClass(LAUNCHER_PACKAGE + "TestExecutionListener");
+		Object summaryListener = classLoader.loadClass(LAUNCHER_PACKAGE + "listeners.SummaryGeneratingListener")
+			.getConstructor()
+			.newInstance();
+		List<Object> listeners = new ArrayList<>();
+		listeners.add(summaryListener);
+		StringWriter reportOutput = new StringWriter();
+		Object xmlReportListener = createXmlReportListener(classLoader, reportsDir, reportOutput);
+		if (xmlReportListener != null) {
+			listeners.add(xmlReportListener);
+		}
+		Object listenerArray = Array.newInstance(listenerClass, listeners.size());
+		for (int i = 0; i < listeners.size(); i++) {
+			Array.set(listenerArray, i, listeners.get(i));
+		}
+		classLoader.loadClass(LAUNCHER_PACKAGE + "Launcher")
+			.getMethod("execute", classLoader.loadClass(LAUNCHER_PACKAGE + "LauncherDiscoveryRequest"),
+					listenerArray.getClass())
+			.invoke(launcher, request, listenerArray);
+		Object summary = summaryListener.getClass().getMethod("getSummary").invoke(summaryListener);
+		Class<?> summaryClass = classLoader.loadClass(LAUNCHER_PACKAGE + "listeners.TestExecutionSummary");
+		StringWriter failures = new StringWriter();
+		try (PrintWriter writer = new PrintWriter(failures)) {
+			summaryClass.getMethod("printFailuresTo", PrintWriter.class).invoke(summary, writer);
+		}
+		return new Result(count(summaryClass, summary, "getTestsFoundCount"),
+				count(summaryClass, summary, "getTestsSucceededCount"),
+				count(summaryClass, summary, "getTotalFailureCount"),
+				count(summaryClass, summary, "getTestsSkippedCount")
+						+ count(summaryClass, summary, "getTestsAbortedCount"),
+				failures.toString());
+	}
+
+	private static Object createFilters(ClassLoader classLoader, Filters filters) throws Exception {
+		List<Object> created = new ArrayList<>();
+		addFilter(created, classLoader, "TagFilter", "includeTags", filters.includeTags);
+		addFilter(created, classLoader, "TagFilter", "excludeTags", filters.excludeTags);
+		addFilter(created, classLoader, "EngineFilter", "includeEngines", filters.includeEngines);
+		addFilter(created, classLoader, "EngineFilter", "excludeEngines", filters.excludeEngines);
+		Object filterArray = Array.newInstance(classLoader.loadClass("org.junit.platform.engine.Filter"),
+				created.size());
+		for (int i = 0; i < created.size(); i++) {
+			Array.set(filterArray, i, created.get(i));
+		}
+		return filterArray;
+	}
+
+	private static void addFilter(List<Object> filters, ClassLoader classLoader, String className, String methodName,
+			List<String> values) throws Exception {
+		if (!values.isEmpty()) {
+			filters.add(classLoader.loadClass(LAUNCHER_PACKAGE + className)
+				.getMethod(methodName, List.class)
+				.invoke(null, values));
+		}
+	}
+
+	private static Object createXmlReportListener(ClassLoader classLoader, File reportsDir, StringWriter output)
+			throws Exception {
+		Class<?> listenerClass;
+		try {
+			listenerClass = classLoader.loadClass(XML_REPORT_LISTENER);
+		}
+		catch (ClassNotFoundException ex) {
+			return null;
+		}
+		reportsDir.mkdirs();
+		return listenerClass.getConstructor(Path.class, PrintWriter.class)
+			.newInstance(reportsDir.toPath(), new PrintWriter(output));
+	}
+
+	private static long count(Class<?> summaryClass, Object summary, String methodName) throws Exception {
+		return (long) summaryClass.getMethod(methodName).invoke(summary);
+	}
+
+	private static URL[] toUrls(List<File> classpath) throws MalformedURLException {
+		URL[] urls = new URL[classpath.size()];
+		for (int i = 0; i < urls.length; i++) {
+			urls[i] = classpath.get(i).toURI().toURL();
+		}
+		return urls;
+	}
+
+	/**
+	 * The tags and engines used to filter the tests that are discovered.
+	 */
+	static final class Filters implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<String> includeTags;
+
+		private final List<String> excludeTags;
+
+		private final List<String> includeEngines;
+
+		private final List<String> excludeEngines;
+
+		Filters(List<String> includeTags, List<String> excludeTags, List<String> includeEngines,
+				List<String> excludeEngines) {
+			this.includeTags = includeTags;
+			this.excludeTags = excludeTags;
+			this.includeEngines = includeEngines;
+			this.excludeEngines = excludeEngines;
+		}
+
+	}
+
+	/**
+	 * The result of launching the JUnit Platform.
+	 */
+	static final class Result {
+
+		private final long tests;
+
+		private final long succeeded;
+
+		private final long failed;
+
+		private final long skipped;
+
+		private final String failures;
+
+		private Result(long tests, long succeeded, long failed, long skipped, String failures) {
+			this.tests = tests;
+			this.succeeded = succeeded;
+			this.failed = failed;
+			this.skipped = skipped;
+			this.failures = failures;
+		}
+
+		long getTests() {
+			return this.tests;
+		}
+
+		long getSucceeded() {
+			return this.succeeded;
+		}
+
+		long getFailed() {
+			return this.failed;
+		}
+
+		long getSkipped() {
+			return this.skipped;
+		}
+
+		String getFailures() {
+			return this.failures;
+		}
+
+		boolean isSuccessful() {
+			return this.failed == 0;
+		}
+
+	}
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import io.spring.gradle.compatibilitytest.CompatibilityMatrixReport.Outcome;
+
+/**
+ * Streaming reader for test results in the JUnit XML format. Each {@code testcase}
+ * element is reported as it is read so memory use does not depend on the size of the
+ * file.
+ *
+ * @author Andy Wilkinson
+ */
+final class JUnitXmlReader {
+
+	private final XMLInputFactory factory;
+
+	JUnitXmlReader() {
+		this.factory = XMLInputFactory.newInstance();
+		this.factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		this.factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+	}
+
+	/**
+	 * Reads the test cases in the given {@code file}.
+	 * @param file the file to read
+	 * @param consumer the consumer of the test cases
+	 * @throws IOException if the file cannot be read
+	 */
+	void read(File file, TestCaseConsumer consumer) throws IOException {
+		try (InputStream input = Files.newInputStream(file.toPath())) {
+			XMLStreamReader reader = this.factory.createXMLStreamReader(input);
+			try {
+				read(reader, consumer);
+			}
+			finally {
+				reader.close();
+			}
+		}
+		catch (XMLStreamException ex) {
+			throw new IOException("Failed to read test results from " + file, ex);
+		}
+	}
+
+	private void read(XMLStreamReader reader, TestCaseConsumer consumer) throws XMLStreamException {
+		String className = null;
+		String name = null;
+		double duration = 0;
+		Outcome outcome = null;
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				String element = reader.getLocalName();
+				if ("testcase".equals(element)) {
+					className = reader.getAttributeValue(null, "classname");
+					name = reader.getAttributeValue(null, "name");
+					duration = parseDuration(reader.getAttributeValue(null, "time"));
+					outcome = Outcome.PASSED;
+				}
+				else if (outcome != null && ("failure".equals(element) || "error".equals(element))) {
+					outcome = Outcome.FAILED;
+				}
+				else if (outcome == Outcome.PASSED && "skipped".equals(element)) {
+					outcome = Outcome.SKIPPED;
+				}
+			}
+			else if (event == XMLStreamConstants.END_ELEMENT && "testcase".equals(reader.getLocalName())) {
+				consumer.accept(className, name, outcome, duration);
+				outcome = null;
+			}
+		}
+	}
+
+	private double parseDuration(String time) {
+		if (time == null) {
+			return 0;
+		}
+		try {
+			return Double.parseDouble(time.replace(",", ""));
+		}
+		catch (NumberFormatException ex) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Consumer of the test cases that are read.
+	 */
+	@FunctionalInterface
+	interface TestCaseConsumer {
+
+		/**
+		 * Accepts a test case.
+		 * @param className the name of the test's class
+		 * @param name the name of the test
+		 * @param outcome the outcome of the test
+		 * @param duration the duration of the test in seconds
+		 */
+		void accept(String className, String name, Outcome outcome, double duration);
+
+	}
+
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.jvm.toolchain.JavaLauncher;
+
+import io.spring.gradle.compatibilitytest.ClassFile.MemberReference;
+import io.spring.gradle.compatibilitytest.ClassReferenceIndex.ClassDeclaration;
+
+/**
+ * Task that checks the binary linkage of the project's main and test classes with the
+ * runtime classpath of a permutation without running any tests. Every class, field, and
+ * method that the classes reference is looked up in the classes declared on the
+ * permutation's runtime classpath and by the permutation's JDK. A reference is reported
+ * as a linkage error when it cannot be found with the permutation but can be found with
+ * the project's own test runtime classpath, so references that are deliberately absent,
+ * for example to optional dependencies, are not reported.
+ *
+ * @author Andy Wilkinson
+ */
+@CacheableTask
+public abstract class LinkageCheck extends DefaultTask {
+
+	/**
+	 * Returns the directories containing the classes whose linkage is checked.
+	 * @return the classes directories
+	 */
+	@Classpath
+	public abstract ConfigurableFileCollection getClassesDirs();
+
+	/**
+	 * Returns the runtime classpath of the permutation.
+	 * @return the runtime classpath
+	 */
+	@Classpath
+	public abstract ConfigurableFileCollection getRuntimeClasspath();
+
+	/**
+	 * Returns the project's own test runtime classpath against which linkage errors are
+	 * confirmed.
+	 * @return the baseline classpath
+	 */
+	@Classpath
+	public abstract ConfigurableFileCollection getBaselineClasspath();
+
+	/**
+	 * Returns the file to which the linkage errors are written, one per line.
+	 * @return the report file
+	 */
+	@OutputFile
+	public abstract RegularFileProperty getReport();
+
+	/**
+	 * Returns the launcher of the JDK whose classes are used to check references to the
+	 * JDK.
+	 * @return the Java launcher
+	 */
+	@Nested
+	public abstract Property<JavaLauncher> getJavaLauncher();
+
+	/**
+	 * Returns the index used to find the classes declared on the classpaths.
+	 * @return the class reference index
+	 */
+	@Internal
+	public abstract Property<ClassReferenceIndex> getClassReferenceIndex();
+
+	@TaskAction
+	public void checkLinkage() throws IOException {
+		ClassReferenceIndex index = getClassReferenceIndex().get();
+		File javaHome = getJavaLauncher().get().getMetadata().getInstallationPath().getAsFile();
+		List<ClassFile> classes = new ArrayList<>();
+		for (File classesDir : getClassesDirs()) {
+			classes.addAll(read(classesDir));
+		}
+		SortedSet<String> errors = linkageErrors(classes,
+				declarations(index, javaHome, getClassesDirs(), getBaselineClasspath()),
+				declarations(index, javaHome, getClassesDirs(), getRuntimeClasspath()));
+		File report = getReport().get().getAsFile();
+		report.getParentFile().mkdirs();
+		Files.write(report.toPath(), errors, StandardCharsets.UTF_8);
+		if (!errors.isEmpty()) {
+			throw new GradleException("Found " + errors.size() + " linkage errors:" + System.lineSeparator() + "    "
+					+ String.join(System.lineSeparator() + "    ", errors));
+		}
+		getLogger().info("Checked the linkage of {} classes", classes.size());
+	}
+
+	private List<ClassFile> read(File classesDir) throws IOException {
+		if (!classesDir.isDirectory()) {
+			return new ArrayList<>();
+		}
+		List<Path> classFiles;
+		try (Stream<Path> stream = Files.walk(classesDir.toPath())) {
+			classFiles = stream.filter((path) -> path.toString().endsWith(".class")).collect(Collectors.toList());
+		}
+		List<ClassFile> classes = new ArrayList<>();
+		for (Path classFile : classFiles) {
+			try (InputStream input = Files.newInputStream(classFile)) {
+				classes.add(ClassFile.read(input));
+			}
+		}
+		return classes;
+	}
+
+	private Function<String, ClassDeclaration> declarations(ClassReferenceIndex index, File javaHome,
+			Iterable<File> classesDirs, Iterable<File> classpath) {
+		List<File> files = new ArrayList<>();
+		classesDirs.forEach(files::add);
+		classpath.forEach(files::add);
+		List<Map<String, ClassDeclaration>> entries = new ArrayList<>();
+		for (File file : files) {
+			entries.add(index.declarations(file));
+		}
+		return (name) -> {
+			for (Map<String, ClassDeclaration> entry : entries) {
+				ClassDeclaration declaration = entry.get(name);
+				if (declaration != null) {
+					return declaration;
+				}
+			}
+			return index.jdkDeclaration(javaHome, name);
+		};
+	}
+
+	/**
+	 * Finds the references made by the given {@code classes} that can be linked with the
+	 * {@code baseline} declarations but not with the {@code permutation} declarations.
+	 * @param classes the classes whose references are checked
+	 * @param baseline the baseline class declarations
+	 * @param permutation the permutation's class declarations
+	 * @return the linkage errors
+	 */
+	static SortedSet<String> linkageErrors(Collection<ClassFile> classes,
+			Function<String, ClassDeclaration> baseline, Function<String, ClassDeclaration> permutation) {
+		SortedSet<String> errors = new TreeSet<>();
+		for (ClassFile classFile : classes) {
+			String referrer = binaryName(classFile.getName());
+			for (String linkedClass : classFile.getLinkedClasses()) {
+				if (permutation.apply(linkedClass) == null && baseline.apply(linkedClass) != null) {
+					errors.add(referrer + " references missing class " + binaryName(linkedClass));
+				}
+			}
+			for (MemberReference reference : classFile.getMemberReferences()) {
+				if (permutation.apply(reference.getOwner()) != null
+						&& resolve(reference, permutation) == Boolean.FALSE
+						&& resolve(reference, baseline) == Boolean.TRUE) {
+					errors.add(referrer + " references missing " + (reference.isField() ? "field " : "method ")
+							+ binaryName(reference.getOwner()) + "." + reference.getName()
+							+ (reference.isField() ? ":" : "") + reference.getDescriptor());
+				}
+			}
+		}
+		return errors;
+	}
+
+	/**
+	 * Resolves the given member {@code reference} by searching its owner and the owner's
+	 * supertypes.
+	 * @param reference the reference to resolve
+	 * @param declarations the class declarations
+	 * @return {@code true} if the member was found, {@code false} if it was not, or
+	 * {@code null} if it was not found but one or more supertypes could not be searched
+	 */
+	private static Boolean resolve(MemberReference reference, Function<String, ClassDeclaration> declarations) {
+		Deque<String> types = new ArrayDeque<>();
+		types.add(reference.getOwner());
+		Set<String> searched = new HashSet<>();
+		boolean complete = true;
+		while (!types.isEmpty()) {
+			String type = types.poll();
+			if (!searched.add(type)) {
+				continue;
+			}
+			ClassDeclaration declaration = declarations.apply(type);
+			if (declaration == null) {
+				complete = false;
+				continue;
+			}
+			if (reference.isField() ? declaration.declaresField(reference.getName(), reference.getDescriptor())
+					: declaration.declaresMethod(reference.getName(), reference.getDescriptor())) {
+				return true;
+			}
+			types.addAll(declaration.getSupertypes());
+		}
+		return complete ? Boolean.FALSE : null;
+	}
+
+	private static String binaryName(String internalName) {
+		return internalName.replace('/', '.');
+	}
+
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.ValueSource;
+import org.gradle.api.provider.ValueSourceParameters;
+
+/**
+ * {@link ValueSource} that provides the versions of a module that have been published to
+ * one or more Maven repositories, read from each repository's {@code maven-metadata.xml}.
+ * The metadata is cached locally and is only downloaded again once the cached copy is
+ * older than a time to live. When offline, or when the metadata cannot be downloaded,
+ * the cached copy is used regardless of its age. Repository credentials are not used, so
+ * a repository that requires authentication is skipped.
+ *
+ * @author Andy Wilkinson
+ */
+public abstract class MavenMetadataVersions
+		implements ValueSource<List<String>, MavenMetadataVersions.Parameters> {
+
+	private static final Logger logger = Logging.getLogger(MavenMetadataVersions.class);
+
+	private static final int CONNECT_TIMEOUT = 10 * 1000;
+
+	private static final int READ_TIMEOUT = 30 * 1000;
+
+	@Override
+	public List<String> obtain() {
+		Parameters parameters = getParameters();
+		List<URI> repositories = new ArrayList<>();
+		for (String repository : parameters.getRepositories().get()) {
+			repositories.add(URI.create(repository));
+		}
+		return new ArrayList<>(versions(repositories, parameters.getGroupId().get(),
+				parameters.getArtifactId().get(), parameters.getCacheDirectory().get().getAsFile(),
+				parameters.getTimeToLive().get(), parameters.getOffline().get()));
+	}
+
+	/**
+	 * Returns the versions of a module that have been published to the given
+	 * {@code repositories}.
+	 * @param repositories the URIs of the repositories
+	 * @param groupId the group ID of the module
+	 * @param artifactId the artifact ID of the module
+	 * @param cacheDirectory the directory in which metadata is cached
+	 * @param timeToLive the time, in milliseconds, for which cached metadata is used
+	 * @param offline whether the build is offline
+	 * @return the versions in the order in which they appear in the metadata
+	 */
+	static Set<String> versions(List<URI> repositories, String groupId, String artifactId, File cacheDirectory,
+			long timeToLive, boolean offline) {
+		String path = groupId.replace('.', '/') + "/" + artifactId + "/maven-metadata.xml";
+		Set<String> versions = new LinkedHashSet<>();
+		for (URI repository : repositories) {
+			File cached = new File(cacheDirectory, key(repository) + "/" + path);
+			boolean fresh = cached.isFile()
+					&& (offline || System.currentTimeMillis() - cached.lastModified() < timeToLive);
+			if (!fresh && !offline && !download(resolve(repository, path), cached)) {
+				continue;
+			}
+			if (cached.isFile()) {
+				versions.addAll(read(cached));
+			}
+		}
+		return versions;
+	}
+
+	private static URI resolve(URI repository, String path) {
+		String base = repository.toString();
+		return URI.create(base.endsWith("/") ? base + path : base + "/" + path);
+	}
+
+	private static boolean download(URI metadata, File cached) {
+		try {
+			URLConnection connection = metadata.toURL().openConnection();
+			connection.setConnectTimeout(CONNECT_TIMEOUT);
+			connection.setReadTimeout(READ_TIMEOUT);
+			if (connection instanceof HttpURLConnection && requiresCredentials((HttpURLConnection) connection)) {
+				logger.warn("Skipping {} as it requires credentials and repository credentials are not used when "
+						+ "downloading Maven metadata", metadata);
+				return false;
+			}
+			try (InputStream input = connection.getInputStream()) {
+				cached.getParentFile().mkdirs();
+				Path temp = Files.createTempFile(cached.getParentFile().toPath(), "maven-metadata", ".xml");
+				Files.copy(input, temp, StandardCopyOption.REPLACE_EXISTING);
+				Files.move(temp, cached.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		catch (FileNotFoundException ex) {
+			cached.delete();
+		}
+		catch (IOException ex) {
+			logger.warn("Failed to download {}. Cached metadata, if any, will be used", metadata, ex);
+		}
+		return true;
+	}
+
+	private static boolean requiresCredentials(HttpURLConnection connection) throws IOException {
+		int status = connection.getResponseCode();
+		if (status == HttpURLConnection.HTTP_UNAUTHORIZED || status == HttpURLConnection.HTTP_FORBIDDEN) {
+			connection.disconnect();
+			return true;
+		}
+		return false;
+	}
+
+	private static Set<String> read(File metadata) {
+		Set<String> versions = new LinkedHashSet<>();
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		try (InputStream input = Files.newInputStream(metadata.toPath())) {
+			XMLStreamReader reader = factory.createXMLStreamReader(input);
+			try {
+				boolean inVersions = false;
+				while (reader.hasNext()) {
+					int event = reader.next();
+					if (event == XMLStreamConstants.START_ELEMENT) {
+						if ("versions".equals(reader.getLocalName())) {
+							inVersions = true;
+						}
+						else if (inVersions && "version".equals(reader.getLocalName())) {
+							versions.add(reader.getElementText().trim());
+						}
+					}
+					else if (event == XMLStreamConstants.END_ELEMENT && "versions".equals(reader.getLocalName())) {
+						inVersions = false;
+					}
+				}
+			}
+			finally {
+				reader.close();
+			}
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Failed to read Maven metadata from " + metadata, ex);
+		}
+		catch (XMLStreamException ex) {
+			throw new IllegalStateException("Failed to read Maven metadata from " + metadata, ex);
+		}
+		return versions;
+	}
+
+	private static String key(URI repository) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-1")
+				.digest(repository.toString().getBytes(StandardCharsets.UTF_8));
+			StringBuilder key = new StringBuilder();
+			for (int i = 0; i < 8; i++) {
+				key.append(String.format("%02x", digest[i]));
+			}
+			return key.toString();
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Parameters for {@link MavenMetadataVersions}.
+	 */
+	public interface Parameters extends ValueSourceParameters {
+
+		/**
+		 * Returns the URIs of the repositories whose metadata is read.
+		 * @return the repositories
+		 */
+		ListProperty<String> getRepositories();
+
+		/**
+		 * Returns the group ID of the module.
+		 * @return the group ID
+		 */
+		Property<String> getGroupId();
+
+		/**
+		 * Returns the artifact ID of the module.
+		 * @return the artifact ID
+		 */
+		Property<String> getArtifactId();
+
+		/**
+		 * Returns the directory in which metadata is cached.
+		 * @return the cache directory
+		 */
+		DirectoryProperty getCacheDirectory();
+
+		/**
+		 * Returns the time, in milliseconds, for which cached metadata is used.
+		 * @return the time to live
+		 */
+		Property<Long> getTimeToLive();
+
+		/**
+		 * Returns whether the build is offline.
+		 * @return whether the build is offline
+		 */
+		Property<Boolean> getOffline();
+
+	}
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import io.spring.gradle.compatibilitytest.CompatibilityMatrix.DependencyVersion;
+
+/**
+ * A permutation of the {@link CompatibilityMatrix} with which the project is tested. When
+ * the matrix has a Java version axis, each permutation of its dependency versions is
+ * tested on every Java version and the resulting permutations share the compilation of
+ * the tests.
+ *
+ * @author Andy Wilkinson
+ */
+final class Permutation {
+
+	static final String COMPILE_TASK_NAME_PREFIX = "compileCompatibilityTestJava_";
+
+	static final String REUSE_TASK_NAME_PREFIX = "reuseCompatibilityTestClasses_";
+
+	static final String SELECT_TESTS_TASK_NAME_PREFIX = "selectCompatibilityTests_";
+
+	static final String TEST_TASK_NAME_PREFIX = "compatibilityTest_";
+
+	static final String PROBE_COMPILE_TASK_NAME_PREFIX = "compileCompatibilityTestProbeJava_";
+
+	static final String PROBE_TASK_NAME_PREFIX = "compatibilityTestProbe_";
+
+	static final String PROBE_REUSE_TASK_NAME_PREFIX = "reuseCompatibilityTestProbeClasses_";
+
+	static final String LINKAGE_CHECK_TASK_NAME_PREFIX = "compatibilityLinkageCheck_";
+
+	static final String JAVA_VERSION_IDENTIFIER_PREFIX = "java_";
+
+	private final List<DependencyVersion> dependencyVersions;
+
+	private final Integer javaVersion;
+
+	private final String dependenciesIdentifier;
+
+	private final String identifier;
+
+	Permutation(List<DependencyVersion> dependencyVersions) {
+		this(dependencyVersions, null);
+	}
+
+	Permutation(List<DependencyVersion> dependencyVersions, Integer javaVersion) {
+		this.dependencyVersions = dependencyVersions;
+		this.javaVersion = javaVersion;
+		this.dependenciesIdentifier = dependencyVersions.stream()
+			.map(DependencyVersion::getIdentifier)
+			.collect(Collectors.joining("_"));
+		this.identifier = (javaVersion != null)
+				? this.dependenciesIdentifier + "_" + JAVA_VERSION_IDENTIFIER_PREFIX + javaVersion
+				: this.dependenciesIdentifier;
+	}
+
+	List<DependencyVersion> getDependencyVersions() {
+		return this.dependencyVersions;
+	}
+
+	/**
+	 * Returns the version of Java on which the permutation is tested.
+	 * @return the Java version or {@code null} if the matrix has no Java version axis
+	 */
+	Integer getJavaVersion() {
+		return this.javaVersion;
+	}
+
+	String getIdentifier() {
+		return this.identifier;
+	}
+
+	/**
+	 * Returns the identifier of the permutation's dependency versions. It is shared by
+	 * the permutations that test the same dependency versions on different versions of
+	 * Java.
+	 * @return the identifier of the dependency versions
+	 */
+	String getDependenciesIdentifier() {
+		return this.dependenciesIdentifier;
+	}
+
+	String getDescription() {
+		String description = getDependenciesDescription();
+		return (this.javaVersion != null) ? description + ", Java " + this.javaVersion : description;
+	}
+
+	String getDependenciesDescription() {
+		return this.dependencyVersions.stream()
+			.map(DependencyVersion::getDescription)
+			.collect(Collectors.joining(", "));
+	}
+
+	String getCompileTaskName() {
+		return COMPILE_TASK_NAME_PREFIX + this.dependenciesIdentifier;
+	}
+
+	String getReuseTaskName() {
+		return REUSE_TASK_NAME_PREFIX + this.dependenciesIdentifier;
+	}
+
+	String getSelectTestsTaskName() {
+		return SELECT_TESTS_TASK_NAME_PREFIX + this.dependenciesIdentifier;
+	}
+
+	String getTestTaskName() {
+		return TEST_TASK_NAME_PREFIX + this.identifier;
+	}
+
+	String getProbeCompileTaskName() {
+		return PROBE_COMPILE_TASK_NAME_PREFIX + this.dependenciesIdentifier;
+	}
+
+	String getProbeTaskName() {
+		return PROBE_TASK_NAME_PREFIX + this.identifier;
+	}
+
+	String getProbeReuseTaskName() {
+		return PROBE_REUSE_TASK_NAME_PREFIX + this.dependenciesIdentifier;
+	}
+
+	String getLinkageCheckTaskName() {
+		return LINKAGE_CHECK_TASK_NAME_PREFIX + this.identifier;
+	}
+
+	@Override
+	public String toString() {
+		return getDescription();
+	}
+
+}
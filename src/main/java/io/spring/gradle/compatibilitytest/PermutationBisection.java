@@ -0,0 +1,257 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.gradle.api.Task;
+import org.gradle.api.file.Directory;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.gradle.api.specs.Spec;
+
+import io.spring.gradle.compatibilitytest.CompatibilityMatrixReport.Outcome;
+
+/**
+ * {@link BuildService} that bisects a project's permutations to find the first that
+ * fails. Every permutation has dedicated probe tasks that are in the task graph and those
+ * at each level of the search run after those at the previous level. A {@link ProbeSpec}
+ * skips all but the permutation that is probed at each level. When a permutation's
+ * regular test task is also in the task graph, the probe tasks run after it and a
+ * {@link TestedSpec} records the location of its results so that they are used instead of
+ * testing the permutation again. The outcome of a probe is read from its JUnit XML results
+ * once a task at the next level is about to run so that results that are up-to-date or
+ * loaded from the build cache are used in the same way as those that were produced by
+ * running the tests.
+ *
+ * @author Andy Wilkinson
+ */
+public abstract class PermutationBisection implements BuildService<PermutationBisection.Parameters> {
+
+	static final String NAME = "compatibilityTestBisection";
+
+	private static final Logger logger = Logging.getLogger(PermutationBisection.class);
+
+	private Bisection bisection;
+
+	private final Map<Integer, File> testedResults = new HashMap<>();
+
+	private File probeResults;
+
+	/**
+	 * Returns whether the permutation with the given {@code index} is to be probed,
+	 * first recording the outcome of any probe at a previous level.
+	 * @param index the index of the permutation
+	 * @return {@code true} if the permutation is to be probed, otherwise {@code false}
+	 */
+	synchronized boolean isProbe(int index) {
+		Bisection bisection = bisection();
+		while (!bisection.isComplete() && bisection.level(index) > bisection.level(bisection.probe())) {
+			recordProbe();
+		}
+		return index == bisection.probe();
+	}
+
+	/**
+	 * Returns whether the test source of the permutation with the given {@code index} is
+	 * to be compiled for a probe. It is not compiled when the permutation is not probed
+	 * or when it has already been tested by its regular test task.
+	 * @param index the index of the permutation
+	 * @return {@code true} if the test source is to be compiled, otherwise {@code false}
+	 */
+	synchronized boolean compile(int index) {
+		return isProbe(index) && !this.testedResults.containsKey(index);
+	}
+
+	/**
+	 * Returns whether the tests of the permutation with the given {@code index} are to be
+	 * run, retaining the location of their results if they are. The tests are not run
+	 * when the permutation has already been tested by its regular test task, the results
+	 * of that task being retained instead.
+	 * @param index the index of the permutation
+	 * @param results the directory of the permutation's JUnit XML results
+	 * @return {@code true} if the tests are to be run, otherwise {@code false}
+	 */
+	synchronized boolean test(int index, File results) {
+		if (!isProbe(index)) {
+			return false;
+		}
+		File testedResults = this.testedResults.get(index);
+		if (testedResults != null) {
+			logger.info("Using the results of {} from its regular test task", getDescription(index));
+			this.probeResults = testedResults;
+			return false;
+		}
+		this.probeResults = results;
+		return true;
+	}
+
+	/**
+	 * Records that the permutation with the given {@code index} has been tested by its
+	 * regular test task.
+	 * @param index the index of the permutation
+	 * @param results the directory of the JUnit XML results of the regular test task
+	 */
+	synchronized void tested(int index, File results) {
+		this.testedResults.put(index, results);
+	}
+
+	/**
+	 * Records the outcome of any remaining probes and returns the completed bisection.
+	 * @return the bisection
+	 */
+	synchronized Bisection complete() {
+		Bisection bisection = bisection();
+		while (!bisection.isComplete()) {
+			recordProbe();
+		}
+		return bisection;
+	}
+
+	/**
+	 * Returns the description of the permutation with the given {@code index}.
+	 * @param index the index of the permutation
+	 * @return the description
+	 */
+	String getDescription(int index) {
+		return getParameters().getDescriptions().get().get(index);
+	}
+
+	private Bisection bisection() {
+		if (this.bisection == null) {
+			this.bisection = new Bisection(getParameters().getDescriptions().get().size());
+		}
+		return this.bisection;
+	}
+
+	private void recordProbe() {
+		String description = getDescription(this.bisection.probe());
+		if (this.probeResults == null) {
+			logger.lifecycle("{} was not tested and is assumed to pass", description);
+			this.bisection.record(false);
+			return;
+		}
+		boolean failed = hasFailures(this.probeResults);
+		logger.lifecycle("{} {}", description, failed ? "failed" : "passed");
+		this.bisection.record(failed);
+		this.probeResults = null;
+	}
+
+	private boolean hasFailures(File results) {
+		File[] files = results.listFiles((file) -> file.getName().endsWith(".xml"));
+		if (files == null) {
+			return false;
+		}
+		AtomicBoolean failed = new AtomicBoolean();
+		JUnitXmlReader reader = new JUnitXmlReader();
+		for (File file : new TreeSet<>(Arrays.asList(files))) {
+			try {
+				reader.read(file, (className, name, outcome, duration) -> {
+					if (outcome == Outcome.FAILED) {
+						failed.set(true);
+					}
+				});
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+		return failed.get();
+	}
+
+	/**
+	 * Parameters for {@link PermutationBisection}.
+	 */
+	public interface Parameters extends BuildServiceParameters {
+
+		/**
+		 * Returns the descriptions of the bisected permutations in order.
+		 * @return the descriptions
+		 */
+		ListProperty<String> getDescriptions();
+
+	}
+
+	/**
+	 * {@link Spec} that is only satisfied by the tasks of the permutation that is being
+	 * probed and that has not been tested by its regular test task. When the task is a
+	 * test task, the location of the results is retained so that the outcome of the probe
+	 * can be recorded.
+	 */
+	static final class ProbeSpec implements Spec<Task> {
+
+		private final Provider<PermutationBisection> bisection;
+
+		private final int index;
+
+		private final Provider<Directory> results;
+
+		ProbeSpec(Provider<PermutationBisection> bisection, int index, Provider<Directory> results) {
+			this.bisection = bisection;
+			this.index = index;
+			this.results = results;
+		}
+
+		@Override
+		public boolean isSatisfiedBy(Task task) {
+			if (this.results == null) {
+				return this.bisection.get().compile(this.index);
+			}
+			return this.bisection.get().test(this.index, this.results.get().getAsFile());
+		}
+
+	}
+
+	/**
+	 * {@link Spec} that is always satisfied and that records the location of the results of
+	 * a permutation's regular test task that is about to run so that the probe tasks of
+	 * the permutation can use them.
+	 */
+	static final class TestedSpec implements Spec<Task> {
+
+		private final Provider<PermutationBisection> bisection;
+
+		private final int index;
+
+		private final Provider<Directory> results;
+
+		TestedSpec(Provider<PermutationBisection> bisection, int index, Provider<Directory> results) {
+			this.bisection = bisection;
+			this.index = index;
+			this.results = results;
+		}
+
+		@Override
+		public boolean isSatisfiedBy(Task task) {
+			this.bisection.get().tested(this.index, this.results.get().getAsFile());
+			return true;
+		}
+
+	}
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import io.spring.gradle.compatibilitytest.CompatibilityMatrix.DependencyVersion;
+
+/**
+ * Constraints on the combinations of dependency versions that are tested. Constraints
+ * can be applied to a prefix of a permutation. A constraint is only evaluated once every
+ * dependency that it refers to is in the prefix so that a prefix is only rejected when
+ * every permutation that starts with it would be rejected.
+ *
+ * @author Andy Wilkinson
+ */
+final class PermutationConstraints implements Predicate<List<DependencyVersion>> {
+
+	private final List<Constraint> constraints;
+
+	PermutationConstraints(List<Constraint> constraints) {
+		this.constraints = constraints;
+	}
+
+	boolean isEmpty() {
+		return this.constraints.isEmpty();
+	}
+
+	int size() {
+		return this.constraints.size();
+	}
+
+	/**
+	 * Returns the names of the dependencies to which the constraints refer.
+	 * @return the dependency names
+	 */
+	Set<String> getDependencyNames() {
+		Set<String> names = new LinkedHashSet<>();
+		for (Constraint constraint : this.constraints) {
+			names.addAll(constraint.names);
+		}
+		return names;
+	}
+
+	@Override
+	public boolean test(List<DependencyVersion> dependencyVersions) {
+		Map<String, String> versions = new HashMap<>();
+		for (DependencyVersion dependencyVersion : dependencyVersions) {
+			versions.put(dependencyVersion.getName(), dependencyVersion.getVersion());
+		}
+		for (Constraint constraint : this.constraints) {
+			if (versions.keySet().containsAll(constraint.names) && !constraint.isSatisfiedBy(versions)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * A constraint that either excludes the combinations of versions that match its
+	 * conditions or requires that those combinations also match its requirements.
+	 */
+	static final class Constraint {
+
+		private final boolean exclusion;
+
+		private final Map<String, List<Pattern>> conditions;
+
+		private final Map<String, List<Pattern>> requirements;
+
+		private final Set<String> names = new LinkedHashSet<>();
+
+		private Constraint(boolean exclusion, Map<String, List<String>> conditions,
+				Map<String, List<String>> requirements) {
+			this.exclusion = exclusion;
+			this.conditions = compile(conditions);
+			this.requirements = compile(requirements);
+			this.names.addAll(conditions.keySet());
+			this.names.addAll(requirements.keySet());
+		}
+
+		static Constraint exclude(Map<String, List<String>> conditions) {
+			return new Constraint(true, conditions, new LinkedHashMap<>());
+		}
+
+		static Constraint require(Map<String, List<String>> conditions, Map<String, List<String>> requirements) {
+			return new Constraint(false, conditions, requirements);
+		}
+
+		private static Map<String, List<Pattern>> compile(Map<String, List<String>> versions) {
+			Map<String, List<Pattern>> patterns = new LinkedHashMap<>();
+			versions.forEach((name, globs) -> patterns.put(name,
+					globs.stream().map(Constraint::compile).collect(Collectors.toList())));
+			return patterns;
+		}
+
+		private static Pattern compile(String glob) {
+			List<String> parts = new ArrayList<>();
+			for (String part : glob.split("\\*", -1)) {
+				parts.add(Pattern.quote(part));
+			}
+			return Pattern.compile(String.join(".*", parts));
+		}
+
+		private boolean isSatisfiedBy(Map<String, String> versions) {
+			if (!matches(this.conditions, versions)) {
+				return true;
+			}
+			return !this.exclusion && matches(this.requirements, versions);
+		}
+
+		private boolean matches(Map<String, List<Pattern>> patterns, Map<String, String> versions) {
+			for (Map.Entry<String, List<Pattern>> entry : patterns.entrySet()) {
+				String version = versions.get(entry.getKey());
+				if (entry.getValue().stream().noneMatch((pattern) -> pattern.matcher(version).matches())) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
+}
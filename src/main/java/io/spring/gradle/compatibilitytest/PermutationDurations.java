@@ -0,0 +1,123 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * The durations, in milliseconds, of previous test runs of permutations keyed by
+ * permutation identifier and stored as a properties file.
+ *
+ * @author Andy Wilkinson
+ */
+final class PermutationDurations {
+
+	private PermutationDurations() {
+
+	}
+
+	/**
+	 * Loads the durations from the given {@code file}. Entries whose value is not a
+	 * number are ignored.
+	 * @param file the file to load
+	 * @return the durations keyed by permutation identifier, empty if the file does not
+	 * exist
+	 */
+	static Map<String, Long> load(File file) {
+		Map<String, Long> durations = new HashMap<>();
+		if (!file.isFile()) {
+			return durations;
+		}
+		Properties properties = new Properties();
+		try (Reader reader = new FileReader(file)) {
+			properties.load(reader);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Failed to load permutation durations from " + file, ex);
+		}
+		for (String identifier : properties.stringPropertyNames()) {
+			try {
+				durations.put(identifier, Long.parseLong(properties.getProperty(identifier).trim()));
+			}
+			catch (NumberFormatException ex) {
+				// Ignore
+			}
+		}
+		return durations;
+	}
+
+	/**
+	 * Updates the given {@code file} with the given {@code durations}, retaining the
+	 * durations of any permutations that are not being updated.
+	 * @param file the file to update
+	 * @param durations the new durations keyed by permutation identifier
+	 */
+	static void update(File file, Map<String, Long> durations) {
+		Map<String, Long> merged = new TreeMap<>(load(file));
+		merged.putAll(durations);
+		Properties properties = new Properties();
+		merged.forEach((identifier, duration) -> properties.setProperty(identifier, Long.toString(duration)));
+		file.getParentFile().mkdirs();
+		try (Writer writer = new FileWriter(file)) {
+			properties.store(writer, "Durations of compatibility test permutations in milliseconds");
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Failed to store permutation durations in " + file, ex);
+		}
+	}
+
+	/**
+	 * Orders the given {@code identifiers} so that the permutations that take the
+	 * longest come first. Permutations with an unknown duration are assumed to take the
+	 * average of the known durations. Permutations with the same duration retain their
+	 * original order.
+	 * @param identifiers the identifiers of the permutations
+	 * @param durations the known durations keyed by permutation identifier
+	 * @return the identifiers, longest first
+	 */
+	static List<String> longestFirst(List<String> identifiers, Map<String, Long> durations) {
+		long estimate = estimate(durations);
+		List<String> ordered = new ArrayList<>(identifiers);
+		ordered.sort(Comparator.comparingLong((String identifier) -> durations.getOrDefault(identifier, estimate))
+			.reversed());
+		return ordered;
+	}
+
+	/**
+	 * Returns the estimated duration of a permutation whose duration is unknown.
+	 * @param durations the known durations
+	 * @return the average of the known durations or {@code 1} if none are known
+	 */
+	static long estimate(Map<String, Long> durations) {
+		double average = durations.values().stream().mapToLong(Long::longValue).average().orElse(1);
+		return Math.max(1, Math.round(average));
+	}
+
+}
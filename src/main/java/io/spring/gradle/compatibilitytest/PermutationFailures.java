@@ -0,0 +1,82 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * The identifiers of the permutations that failed when they were last tested, stored
+ * one per line in a text file.
+ *
+ * @author Andy Wilkinson
+ */
+final class PermutationFailures {
+
+	private PermutationFailures() {
+
+	}
+
+	/**
+	 * Loads the identifiers of the failed permutations from the given {@code file}.
+	 * @param file the file to load
+	 * @return the identifiers of the failed permutations, empty if the file does not
+	 * exist
+	 */
+	static Set<String> load(File file) {
+		if (!file.isFile()) {
+			return new TreeSet<>();
+		}
+		try {
+			return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)
+				.stream()
+				.map(String::trim)
+				.filter((line) -> !line.isEmpty())
+				.collect(Collectors.toCollection(TreeSet::new));
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Failed to load permutation failures from " + file, ex);
+		}
+	}
+
+	/**
+	 * Updates the given {@code file} with the outcomes of the permutations that were
+	 * tested, retaining the failures of any permutations that were not tested.
+	 * @param file the file to update
+	 * @param failed the identifiers of the permutations that failed
+	 * @param passed the identifiers of the permutations that passed
+	 */
+	static void update(File file, Set<String> failed, Set<String> passed) {
+		Set<String> failures = load(file);
+		failures.removeAll(passed);
+		failures.addAll(failed);
+		file.getParentFile().mkdirs();
+		try {
+			Files.write(file.toPath(), failures, StandardCharsets.UTF_8);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Failed to store permutation failures in " + file, ex);
+		}
+	}
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.gradle.tooling.events.FinishEvent;
+import org.gradle.tooling.events.OperationCompletionListener;
+import org.gradle.tooling.events.OperationResult;
+import org.gradle.tooling.events.task.TaskFailureResult;
+import org.gradle.tooling.events.task.TaskFinishEvent;
+import org.gradle.tooling.events.task.TaskSuccessResult;
+
+/**
+ * {@link BuildService} that records the duration and outcome of each permutation's tests
+ * in a project's history files. A service is registered for each project and it listens
+ * for the completion of that project's matrix test tasks. Tasks that were up-to-date,
+ * loaded from the cache, or skipped are ignored. The history files are updated when the
+ * build finishes.
+ *
+ * @author Andy Wilkinson
+ */
+public abstract class PermutationHistory
+		implements BuildService<PermutationHistory.Parameters>, OperationCompletionListener, AutoCloseable {
+
+	static final String NAME = "compatibilityTestHistory";
+
+	private final Map<String, Long> durations = new ConcurrentHashMap<>();
+
+	private final Set<String> failed = ConcurrentHashMap.newKeySet();
+
+	private final Set<String> passed = ConcurrentHashMap.newKeySet();
+
+	@Override
+	public void onFinish(FinishEvent event) {
+		if (!(event instanceof TaskFinishEvent)) {
+			return;
+		}
+		String taskPath = ((TaskFinishEvent) event).getDescriptor().getTaskPath();
+		String prefix = getParameters().getTestTaskPathPrefix().get();
+		OperationResult result = event.getResult();
+		if (taskPath.startsWith(prefix) && wasExecuted(result)) {
+			String identifier = taskPath.substring(prefix.length());
+			this.durations.put(identifier, result.getEndTime() - result.getStartTime());
+			((result instanceof TaskFailureResult) ? this.failed : this.passed).add(identifier);
+		}
+	}
+
+	private boolean wasExecuted(OperationResult result) {
+		if (result instanceof TaskSuccessResult) {
+			TaskSuccessResult success = (TaskSuccessResult) result;
+			return !success.isUpToDate() && !success.isFromCache();
+		}
+		return result instanceof TaskFailureResult;
+	}
+
+	@Override
+	public void close() {
+		if (!this.durations.isEmpty()) {
+			PermutationDurations.update(getParameters().getHistoryFile().get().getAsFile(), this.durations);
+			PermutationFailures.update(getParameters().getFailuresFile().get().getAsFile(), this.failed,
+					this.passed);
+		}
+	}
+
+	/**
+	 * Parameters for {@link PermutationHistory}.
+	 */
+	public interface Parameters extends BuildServiceParameters {
+
+		/**
+		 * Returns the file in which the durations are stored.
+		 * @return the history file
+		 */
+		RegularFileProperty getHistoryFile();
+
+		/**
+		 * Returns the file in which the identifiers of the permutations that failed are
+		 * stored.
+		 * @return the failures file
+		 */
+		RegularFileProperty getFailuresFile();
+
+		/**
+		 * Returns the prefix of the paths of the tasks whose durations are recorded. The
+		 * remainder of the path is the permutation's identifier.
+		 * @return the task path prefix
+		 */
+		Property<String> getTestTaskPathPrefix();
+
+	}
+
+}
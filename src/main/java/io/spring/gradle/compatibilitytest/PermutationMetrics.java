@@ -0,0 +1,373 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.gradle.api.Action;
+import org.gradle.api.Task;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.gradle.api.tasks.testing.Test;
+import org.gradle.api.tasks.testing.TestDescriptor;
+import org.gradle.api.tasks.testing.TestListener;
+import org.gradle.api.tasks.testing.TestResult;
+import org.gradle.process.CommandLineArgumentProvider;
+import org.gradle.tooling.events.FinishEvent;
+import org.gradle.tooling.events.OperationCompletionListener;
+import org.gradle.tooling.events.OperationResult;
+import org.gradle.tooling.events.task.TaskFailureResult;
+import org.gradle.tooling.events.task.TaskFinishEvent;
+import org.gradle.tooling.events.task.TaskSuccessResult;
+
+import io.spring.gradle.compatibilitytest.PermutationMetricsReport.Metric;
+
+/**
+ * {@link BuildService} that records metrics of each of a project's permutations. The
+ * durations of the permutation's tasks are taken from their completion events, with the
+ * duration of a compilation that is shared by the permutation's runs on different Java
+ * versions recorded against each of them. The artifacts on the permutation's runtime
+ * classpath and the number of tests are recorded as its test task executes, and the peak
+ * heap usage of its test JVMs is recorded by the {@link TestJvmHeapAgent}. When the build
+ * finishes, the metrics are written as JSON and CSV and the permutations that cost the
+ * most are summarized.
+ *
+ * @author Andy Wilkinson
+ */
+public abstract class PermutationMetrics
+		implements BuildService<PermutationMetrics.Parameters>, OperationCompletionListener, AutoCloseable {
+
+	static final String NAME = "compatibilityTestMetrics";
+
+	private static final int SUMMARY_LIMIT = 10;
+
+	private volatile PermutationMetricsReport report;
+
+	private PermutationMetricsReport report() {
+		if (this.report == null) {
+			synchronized (this) {
+				if (this.report == null) {
+					this.report = new PermutationMetricsReport(getParameters().getDescriptions().get());
+				}
+			}
+		}
+		return this.report;
+	}
+
+	@Override
+	public void onFinish(FinishEvent event) {
+		if (!(event instanceof TaskFinishEvent)) {
+			return;
+		}
+		String taskPath = ((TaskFinishEvent) event).getDescriptor().getTaskPath();
+		String prefix = getParameters().getTaskPathPrefix().get();
+		OperationResult result = event.getResult();
+		if (!taskPath.startsWith(prefix) || !hasOutcome(result)) {
+			return;
+		}
+		String name = taskPath.substring(prefix.length());
+		long duration = result.getEndTime() - result.getStartTime();
+		if (name.equals(getParameters().getResolveTaskName().get())) {
+			report().resolveMillis(duration);
+		}
+		else if (name.startsWith(Permutation.COMPILE_TASK_NAME_PREFIX)) {
+			for (String identifier : sharing(name.substring(Permutation.COMPILE_TASK_NAME_PREFIX.length()))) {
+				report().set(identifier, Metric.COMPILE, duration);
+			}
+		}
+		else if (name.startsWith(Permutation.SELECT_TESTS_TASK_NAME_PREFIX)) {
+			for (String identifier : sharing(name.substring(Permutation.SELECT_TESTS_TASK_NAME_PREFIX.length()))) {
+				report().set(identifier, Metric.SELECT_TESTS, duration);
+			}
+		}
+		else if (name.startsWith(Permutation.TEST_TASK_NAME_PREFIX)) {
+			String identifier = name.substring(Permutation.TEST_TASK_NAME_PREFIX.length());
+			report().set(identifier, Metric.TEST, duration);
+			report().testOutcome(identifier, outcome(result));
+		}
+	}
+
+	private List<String> sharing(String dependenciesIdentifier) {
+		String javaVersionPrefix = dependenciesIdentifier + "_" + Permutation.JAVA_VERSION_IDENTIFIER_PREFIX;
+		return getParameters().getDescriptions()
+			.get()
+			.keySet()
+			.stream()
+			.filter((identifier) -> identifier.equals(dependenciesIdentifier)
+					|| identifier.startsWith(javaVersionPrefix))
+			.collect(Collectors.toList());
+	}
+
+	private boolean hasOutcome(OperationResult result) {
+		return result instanceof TaskSuccessResult || result instanceof TaskFailureResult;
+	}
+
+	private String outcome(OperationResult result) {
+		if (result instanceof TaskFailureResult) {
+			return "failed";
+		}
+		TaskSuccessResult success = (TaskSuccessResult) result;
+		if (success.isFromCache()) {
+			return "from-cache";
+		}
+		return success.isUpToDate() ? "up-to-date" : "executed";
+	}
+
+	void artifacts(String identifier, long artifacts, long bytes) {
+		report().set(identifier, Metric.ARTIFACTS, artifacts);
+		report().set(identifier, Metric.ARTIFACT_BYTES, bytes);
+	}
+
+	void tests(String identifier, TestResult result, Long jvmStartup, Long testExecution) {
+		report().set(identifier, Metric.TESTS, result.getTestCount());
+		report().set(identifier, Metric.FAILED_TESTS, result.getFailedTestCount());
+		report().set(identifier, Metric.SKIPPED_TESTS, result.getSkippedTestCount());
+		if (jvmStartup != null) {
+			report().set(identifier, Metric.JVM_STARTUP, jvmStartup);
+			report().set(identifier, Metric.TEST_EXECUTION, testExecution);
+		}
+	}
+
+	@Override
+	public void close() {
+		if (this.report == null || this.report.isEmpty()) {
+			return;
+		}
+		for (String identifier : getParameters().getDescriptions().get().keySet()) {
+			Long peakHeap = peakHeap(new File(getParameters().getHeapDirectory().get().getAsFile(), identifier));
+			if (peakHeap != null) {
+				this.report.set(identifier, Metric.PEAK_HEAP, peakHeap);
+			}
+		}
+		File json = getParameters().getJsonReport().get().getAsFile();
+		write(json, this.report::writeJson);
+		write(getParameters().getCsvReport().get().getAsFile(), this.report::writeCsv);
+		StringWriter summary = new StringWriter();
+		this.report.writeSummary(new PrintWriter(summary), SUMMARY_LIMIT);
+		Logging.getLogger(PermutationMetrics.class)
+			.lifecycle("Compatibility test permutations, most costly first:{}{}Metrics written to {}",
+					System.lineSeparator(), summary, json.toURI());
+	}
+
+	private Long peakHeap(File directory) {
+		File[] files = directory.listFiles((dir, name) -> name.endsWith(TestJvmHeapAgent.FILE_EXTENSION));
+		Long peak = null;
+		for (File file : (files != null) ? files : new File[0]) {
+			try {
+				String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+				long heap = Long.parseLong(content.trim());
+				peak = (peak != null) ? Math.max(peak, heap) : heap;
+			}
+			catch (IOException | NumberFormatException ex) {
+				// Ignore
+			}
+		}
+		return peak;
+	}
+
+	private void write(File file, Action<PrintWriter> action) {
+		file.getParentFile().mkdirs();
+		try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+				PrintWriter printWriter = new PrintWriter(writer)) {
+			action.execute(printWriter);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Failed to write compatibility test metrics to " + file, ex);
+		}
+	}
+
+	/**
+	 * Parameters for {@link PermutationMetrics}.
+	 */
+	public interface Parameters extends BuildServiceParameters {
+
+		/**
+		 * Returns the descriptions of the permutations keyed by identifier, in the order
+		 * in which they are reported.
+		 * @return the descriptions
+		 */
+		MapProperty<String, String> getDescriptions();
+
+		/**
+		 * Returns the prefix of the paths of the project's tasks.
+		 * @return the task path prefix
+		 */
+		Property<String> getTaskPathPrefix();
+
+		/**
+		 * Returns the name of the task that resolves every version in the matrix.
+		 * @return the resolve task name
+		 */
+		Property<String> getResolveTaskName();
+
+		/**
+		 * Returns the directory to which the {@link TestJvmHeapAgent} writes the peak
+		 * heap usage of each permutation's test JVMs.
+		 * @return the heap directory
+		 */
+		DirectoryProperty getHeapDirectory();
+
+		/**
+		 * Returns the file to which the metrics are written as JSON.
+		 * @return the JSON report
+		 */
+		RegularFileProperty getJsonReport();
+
+		/**
+		 * Returns the file to which the metrics are written as CSV.
+		 * @return the CSV report
+		 */
+		RegularFileProperty getCsvReport();
+
+	}
+
+	/**
+	 * Action that records the artifacts on a permutation's runtime classpath and adds a
+	 * {@link TestMetricsListener} to its {@link Test} task when it executes.
+	 */
+	static final class RecordMetricsAction implements Action<Task> {
+
+		private final Provider<PermutationMetrics> metrics;
+
+		private final String identifier;
+
+		private final FileCollection runtimeClasspath;
+
+		private final File heapDirectory;
+
+		RecordMetricsAction(Provider<PermutationMetrics> metrics, String identifier, FileCollection runtimeClasspath,
+				File heapDirectory) {
+			this.metrics = metrics;
+			this.identifier = identifier;
+			this.runtimeClasspath = runtimeClasspath;
+			this.heapDirectory = heapDirectory;
+		}
+
+		@Override
+		public void execute(Task task) {
+			File[] stale = this.heapDirectory.listFiles();
+			for (File file : (stale != null) ? stale : new File[0]) {
+				file.delete();
+			}
+			this.heapDirectory.mkdirs();
+			long artifacts = 0;
+			long bytes = 0;
+			for (File file : this.runtimeClasspath) {
+				if (file.isFile()) {
+					artifacts++;
+					bytes += file.length();
+				}
+			}
+			this.metrics.get().artifacts(this.identifier, artifacts, bytes);
+			((Test) task).addTestListener(new TestMetricsListener(this.metrics, this.identifier));
+		}
+
+	}
+
+	/**
+	 * {@link TestListener} that records the number of tests that a permutation ran and
+	 * the time taken to start its test JVMs and run its tests. The first suite of a test
+	 * JVM starts once the JVM is ready to run tests.
+	 */
+	static final class TestMetricsListener implements TestListener {
+
+		private final Provider<PermutationMetrics> metrics;
+
+		private final String identifier;
+
+		private volatile Long firstJvmReady;
+
+		TestMetricsListener(Provider<PermutationMetrics> metrics, String identifier) {
+			this.metrics = metrics;
+			this.identifier = identifier;
+		}
+
+		@Override
+		public void beforeSuite(TestDescriptor suite) {
+
+		}
+
+		@Override
+		public void afterSuite(TestDescriptor suite, TestResult result) {
+			if (suite.getParent() == null) {
+				Long jvmReady = this.firstJvmReady;
+				this.metrics.get()
+					.tests(this.identifier, result, (jvmReady != null) ? jvmReady - result.getStartTime() : null,
+							(jvmReady != null) ? result.getEndTime() - jvmReady : null);
+			}
+			else if (suite.getParent().getParent() == null) {
+				synchronized (this) {
+					if (this.firstJvmReady == null || result.getStartTime() < this.firstJvmReady) {
+						this.firstJvmReady = result.getStartTime();
+					}
+				}
+			}
+		}
+
+		@Override
+		public void beforeTest(TestDescriptor testDescriptor) {
+
+		}
+
+		@Override
+		public void afterTest(TestDescriptor testDescriptor, TestResult result) {
+
+		}
+
+	}
+
+	/**
+	 * {@link CommandLineArgumentProvider} that adds the {@link TestJvmHeapAgent} to a test
+	 * JVM. The agent's jar is created by a {@link TestJvmHeapAgentJar} task.
+	 */
+	static final class HeapAgentArguments implements CommandLineArgumentProvider {
+
+		private final Provider<RegularFile> agentJar;
+
+		private final File heapDirectory;
+
+		HeapAgentArguments(Provider<RegularFile> agentJar, File heapDirectory) {
+			this.agentJar = agentJar;
+			this.heapDirectory = heapDirectory;
+		}
+
+		@Override
+		public Iterable<String> asArguments() {
+			return Collections.singletonList("-javaagent:" + this.agentJar.get().getAsFile().getAbsolutePath() + "="
+					+ this.heapDirectory.getAbsolutePath());
+		}
+
+	}
+
+}
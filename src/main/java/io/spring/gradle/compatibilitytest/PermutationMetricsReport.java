@@ -0,0 +1,302 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.gradle.compatibilitytest;
+
+import java.io.PrintWriter;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Metrics of the permutations tested during a build. Each metric of a permutation is
+ * optional as it is only known when the task that produces it was executed. The metrics
+ * can be written as JSON or CSV for tracking over time and as a summary table that lists
+ * the permutations that cost the most first.
+ *
+ * @author Andy Wilkinson
+ */
+final class PermutationMetricsReport {
+
+	private final Map<String, String> descriptions;
+
+	private final Map<String, Row> rows = new ConcurrentHashMap<>();
+
+	private volatile Long resolveMillis;
+
+	/**
+	 * Creates a new report for the permutations with the given descriptions.
+	 * @param descriptions the descriptions of the permutations keyed by identifier, in
+	 * the order in which the permutations are reported
+	 */
+	PermutationMetricsReport(Map<String, String> descriptions) {
+		this.descriptions = descriptions;
+	}
+
+	void set(String identifier, Metric metric, long value) {
+		this.rows.computeIfAbsent(identifier, (key) -> new Row()).values.put(metric, value);
+	}
+
+	void testOutcome(String identifier, String outcome) {
+		this.rows.computeIfAbsent(identifier, (key) -> new Row()).testOutcome = outcome;
+	}
+
+	void resolveMillis(long resolveMillis) {
+		this.resolveMillis = resolveMillis;
+	}
+
+	boolean isEmpty() {
+		return this.rows.isEmpty();
+	}
+
+	/**
+	 * Writes the metrics as JSON to the given {@code writer}. Unknown metrics are
+	 * written as {@code null}.
+	 * @param writer the writer
+	 */
+	void writeJson(PrintWriter writer) {
+		writer.println("{");
+		writer.printf("  \"resolveMillis\": %s,%n", json(this.resolveMillis));
+		writer.print("  \"permutations\": [");
+		String separator = "";
+		for (Map.Entry<String, Row> entry : reportedRows()) {
+			writer.println(separator);
+			writer.println("    {");
+			writer.printf("      \"identifier\": %s,%n", json(entry.getKey()));
+			writer.printf("      \"description\": %s,%n", json(this.descriptions.get(entry.getKey())));
+			writer.printf("      \"testOutcome\": %s", json(entry.getValue().testOutcome));
+			for (Metric metric : Metric.values()) {
+				writer.printf(",%n      \"%s\": %s", metric.key, json(entry.getValue().values.get(metric)));
+			}
+			writer.println();
+			writer.print("    }");
+			separator = ",";
+		}
+		writer.println();
+		writer.println("  ]");
+		writer.println("}");
+	}
+
+	/**
+	 * Writes the metrics as CSV, with one row per permutation, to the given
+	 * {@code writer}. Unknown metrics are written as empty values.
+	 * @param writer the writer
+	 */
+	void writeCsv(PrintWriter writer) {
+		StringBuilder header = new StringBuilder("identifier,description,testOutcome");
+		for (Metric metric : Metric.values()) {
+			header.append(',').append(metric.key);
+		}
+		writer.println(header);
+		for (Map.Entry<String, Row> entry : reportedRows()) {
+			StringBuilder line = new StringBuilder();
+			line.append(csv(entry.getKey())).append(',');
+			line.append(csv(this.descriptions.get(entry.getKey()))).append(',');
+			line.append(csv(entry.getValue().testOutcome));
+			for (Metric metric : Metric.values()) {
+				Long value = entry.getValue().values.get(metric);
+				line.append(',').append((value != null) ? value.toString() : "");
+			}
+			writer.println(line);
+		}
+	}
+
+	/**
+	 * Writes a summary table of the permutations that cost the most to the given
+	 * {@code writer}.
+	 * @param writer the writer
+	 * @param limit the maximum number of permutations to list
+	 */
+	void writeSummary(PrintWriter writer, int limit) {
+		List<Map.Entry<String, Row>> rows = reportedRows();
+		rows.sort(Comparator.comparingLong((Map.Entry<String, Row> entry) -> entry.getValue().totalMillis())
+			.reversed());
+		int width = "Permutation".length();
+		for (Map.Entry<String, Row> entry : rows.subList(0, Math.min(limit, rows.size()))) {
+			width = Math.max(width, this.descriptions.get(entry.getKey()).length());
+		}
+		String format = "%-" + width + "s %9s %9s %9s %9s %7s %10s %10s %10s%n";
+		writer.printf(Locale.ROOT, format, "Permutation", "Total", "Compile", "Startup", "Testing", "Tests",
+				"Artifacts", "Size", "Peak heap");
+		for (Map.Entry<String, Row> entry : rows.subList(0, Math.min(limit, rows.size()))) {
+			Map<Metric, Long> values = entry.getValue().values;
+			writer.printf(Locale.ROOT, format, this.descriptions.get(entry.getKey()),
+					seconds(entry.getValue().totalMillis()), seconds(values.get(Metric.COMPILE)),
+					seconds(values.get(Metric.JVM_STARTUP)), seconds(values.get(Metric.TEST_EXECUTION)),
+					count(values.get(Metric.TESTS)), count(values.get(Metric.ARTIFACTS)),
+					megabytes(values.get(Metric.ARTIFACT_BYTES)), megabytes(values.get(Metric.PEAK_HEAP)));
+		}
+		if (rows.size() > limit) {
+			writer.printf("... and %d more%n", rows.size() - limit);
+		}
+		if (this.resolveMillis != null) {
+			writer.printf(Locale.ROOT, "Resolving every version in the matrix took %s%n", seconds(this.resolveMillis));
+		}
+	}
+
+	private List<Map.Entry<String, Row>> reportedRows() {
+		List<Map.Entry<String, Row>> reported = new ArrayList<>();
+		for (String identifier : this.descriptions.keySet()) {
+			Row row = this.rows.get(identifier);
+			if (row != null) {
+				reported.add(new SimpleImmutableEntry<>(identifier, row));
+			}
+		}
+		return reported;
+	}
+
+	private static String seconds(Long millis) {
+		return (millis != null) ? String.format(Locale.ROOT, "%.1fs", millis / 1000.0) : "-";
+	}
+
+	private static String megabytes(Long bytes) {
+		return (bytes != null) ? String.format(Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024.0)) : "-";
+	}
+
+	private static String count(Long count) {
+		return (count != null) ? count.toString() : "-";
+	}
+
+	private static String json(Object value) {
+		if (value == null) {
+			return "null";
+		}
+		if (value instanceof Number) {
+			return value.toString();
+		}
+		StringBuilder json = new StringBuilder("\"");
+		for (char c : value.toString().toCharArray()) {
+			if (c == '"' || c == '\\') {
+				json.append('\\').append(c);
+			}
+			else if (c < 0x20) {
+				json.append(String.format("\\u%04x", (int) c));
+			}
+			else {
+				json.append(c);
+			}
+		}
+		return json.append('"').toString();
+	}
+
+	private static String csv(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+			return "\"" + value.replace("\"", "\"\"") + "\"";
+		}
+		return value;
+	}
+
+	/**
+	 * A metric of a permutation.
+	 */
+	enum Metric {
+
+		/**
+		 * The time taken to compile the permutation's test source, in milliseconds.
+		 */
+		COMPILE("compileMillis"),
+
+		/**
+		 * The time taken to select the tests impacted by the permutation's dependencies,
+		 * in milliseconds.
+		 */
+		SELECT_TESTS("selectTestsMillis"),
+
+		/**
+		 * The time taken by the permutation's test task, in milliseconds.
+		 */
+		TEST("testMillis"),
+
+		/**
+		 * The time between the permutation's test task starting to run tests and the
+		 * first test JVM being ready to run them, in milliseconds.
+		 */
+		JVM_STARTUP("jvmStartupMillis"),
+
+		/**
+		 * The time taken to run the permutation's tests once the first test JVM was
+		 * ready, in milliseconds.
+		 */
+		TEST_EXECUTION("testExecutionMillis"),
+
+		/**
+		 * The number of tests that were run.
+		 */
+		TESTS("tests"),
+
+		/**
+		 * The number of tests that failed.
+		 */
+		FAILED_TESTS("failedTests"),
+
+		/**
+		 * The number of tests that were skipped.
+		 */
+		SKIPPED_TESTS("skippedTests"),
+
+		/**
+		 * The number of artifacts on the permutation's resolved runtime classpath.
+		 */
+		ARTIFACTS("artifacts"),
+
+		/**
+		 * The total size of the artifacts on the permutation's resolved runtime
+		 * classpath, in bytes.
+		 */
+		ARTIFACT_BYTES("artifactBytes"),
+
+		/**
+		 * The peak heap usage of the permutation's test JVMs, in bytes.
+		 */
+		PEAK_HEAP("peakHeapBytes");
+
+		private final String key;
+
+		Metric(String key) {
+			this.key = key;
+		}
+
+	}
+
+	/**
+	 * The metrics of a permutation.
+	 */
+	private static final class Row {
+
+		private final Map<Metric, Long> values = Collections.synchronizedMap(new EnumMap<>(Metric.class));
+
+		private volatile String testOutcome;
+
+		private long totalMillis() {
+			long total = 0;
+			for (Metric metric : new Metric[] { Metric.COMPILE, Metric.SELECT_TESTS, Metric.TEST }) {
+				Long millis = this.values.get(metric);
+				total += (millis != null) ? millis : 0;
+			}
+			return total;
+		}
+
+	}
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.ValueSource;
+import org.gradle.api.provider.ValueSourceParameters;
+
+/**
+ * {@link ValueSource} that provides the identifiers of the permutations that should be
+ * tested, in the order in which they should be run. When a shard is configured, only the
+ * permutations in that shard are provided. Permutations that failed previously are
+ * ordered first, followed by the remaining permutations from longest to shortest. The
+ * durations recorded locally are only used for ordering as they differ from machine to
+ * machine. Permutations are only assigned to shards by duration when the durations are
+ * provided explicitly.
+ * <p>
+ * The history files are read by the value source rather than directly by the plugin so
+ * that the configuration cache is only invalidated when the schedule changes rather than
+ * whenever a recorded duration changes.
+ *
+ * @author Andy Wilkinson
+ */
+public abstract class PermutationSchedule implements ValueSource<List<String>, PermutationSchedule.Parameters> {
+
+	@Override
+	public List<String> obtain() {
+		Parameters parameters = getParameters();
+		Shard shard = parameters.getShard().isPresent() ? Shard.parse(parameters.getShard().get()) : null;
+		Map<String, Long> shardDurations = parameters.getShardDurationsFile().isPresent()
+				? PermutationDurations.load(parameters.getShardDurationsFile().get().getAsFile())
+				: Collections.emptyMap();
+		Map<String, Long> durations = PermutationDurations.load(parameters.getDurationsFile().get().getAsFile());
+		Set<String> failures = parameters.getFailuresFile().isPresent()
+				? PermutationFailures.load(parameters.getFailuresFile().get().getAsFile()) : Collections.emptySet();
+		return schedule(parameters.getIdentifiers().get(), shard, shardDurations, durations, failures);
+	}
+
+	/**
+	 * Schedules the given permutations. The permutations in the shard are selected using
+	 * only the {@code shardDurations} so that every machine agrees on the permutations in
+	 * each shard. The selected permutations are then ordered using the
+	 * {@code durations} and {@code failures} recorded locally.
+	 * @param identifiers the identifiers of all of the permutations
+	 * @param shard the shard to select or {@code null}
+	 * @param shardDurations the durations used to assign permutations to shards
+	 * @param durations the durations used to order the selected permutations
+	 * @param failures the identifiers of the permutations that failed previously
+	 * @return the identifiers of the permutations to test in the order they should run
+	 */
+	static List<String> schedule(List<String> identifiers, Shard shard, Map<String, Long> shardDurations,
+			Map<String, Long> durations, Set<String> failures) {
+		if (shard != null) {
+			identifiers = shard.select(identifiers, shardDurations);
+		}
+		if (durations.isEmpty() && failures.isEmpty()) {
+			return identifiers;
+		}
+		List<String> ordered = new ArrayList<>(PermutationDurations.longestFirst(identifiers, durations));
+		ordered.sort(Comparator.comparing((identifier) -> !failures.contains(identifier)));
+		return ordered;
+	}
+
+	/**
+	 * Parameters for {@link PermutationSchedule}.
+	 */
+	public interface Parameters extends ValueSourceParameters {
+
+		/**
+		 * Returns the identifiers of all of the permutations.
+		 * @return the identifiers
+		 */
+		ListProperty<String> getIdentifiers();
+
+		/**
+		 * Returns the file from which the durations of previous test runs are loaded to
+		 * order the permutations.
+		 * @return the durations file
+		 */
+		RegularFileProperty getDurationsFile();
+
+		/**
+		 * Returns the file from which the durations used to assign permutations to shards
+		 * are loaded. When not set, permutations are assigned to shards in turn.
+		 * @return the shard durations file
+		 */
+		RegularFileProperty getShardDurationsFile();
+
+		/**
+		 * Returns the file from which the identifiers of the permutations that failed
+		 * previously are loaded. When not set, previous failures do not affect the order.
+		 * @return the failures file
+		 */
+		RegularFileProperty getFailuresFile();
+
+		/**
+		 * Returns the shard, in the form {@code <index>/<count>}, whose permutations should
+		 * be tested. When not set, every permutation is tested.
+		 * @return the shard
+		 */
+		Property<String> getShard();
+
+	}
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Strategy for selecting the permutations of the entries in the compatibility matrix
+ * that are tested.
+ *
+ * @author Andy Wilkinson
+ * @see CompatibilityTestExtension#fullProduct()
+ * @see CompatibilityTestExtension#pairwise()
+ * @see CompatibilityTestExtension#nWise(int)
+ */
+public abstract class PermutationStrategy {
+
+	PermutationStrategy() {
+
+	}
+
+	/**
+	 * Returns the permutations of the given {@code entries} that are accepted by the
+	 * given {@code filter}.
+	 * @param <E> the type of the items in the entries
+	 * @param entries the entries
+	 * @param filter the filter, which may be called with prefixes of a permutation
+	 * @return the permutations
+	 */
+	abstract <E> Iterable<List<E>> permutations(List<? extends Set<? extends E>> entries,
+			Predicate<? super List<E>> filter);
+
+	/**
+	 * Strategy that tests every permutation of the matrix's entries.
+	 */
+	static final class FullProduct extends PermutationStrategy {
+
+		@Override
+		<E> Iterable<List<E>> permutations(List<? extends Set<? extends E>> entries,
+				Predicate<? super List<E>> filter) {
+			return CartesianProduct.of(entries, filter);
+		}
+
+		@Override
+		public String toString() {
+			return "full product";
+		}
+
+	}
+
+	/**
+	 * Strategy that tests a covering array of the matrix's entries in which every
+	 * combination of versions of any {@code strength} dependencies appears at least once.
+	 */
+	public static final class NWise extends PermutationStrategy {
+
+		private final int strength;
+
+		private final long seed;
+
+		NWise(int strength, long seed) {
+			if (strength < 1) {
+				throw new IllegalArgumentException("Strength must be at least 1 but was " + strength);
+			}
+			this.strength = strength;
+			this.seed = seed;
+		}
+
+		/**
+		 * Returns a strategy with the same strength as this strategy that uses the given
+		 * {@code seed} when generating the covering array. The same seed always
+		 * generates the same permutations.
+		 * @param seed the seed
+		 * @return the new strategy
+		 */
+		public NWise withSeed(long seed) {
+			return new NWise(this.strength, seed);
+		}
+
+		@Override
+		<E> Iterable<List<E>> permutations(List<? extends Set<? extends E>> entries,
+				Predicate<? super List<E>> filter) {
+			return CoveringArray.of(entries, this.strength, this.seed)
+				.stream()
+				.filter(filter)
+				.collect(Collectors.toList());
+		}
+
+		@Override
+		public String toString() {
+			return ((this.strength == 2) ? "pairwise" : this.strength + "-wise") + " covering array (seed "
+					+ this.seed + ")";
+		}
+
+	}
+
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Task;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.CompileClasspath;
+import org.gradle.api.tasks.IgnoreEmptyDirectories;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.compile.JavaCompile;
+
+import io.spring.gradle.compatibilitytest.CompiledTestClasses.CompilationInputs;
+
+/**
+ * Task that copies test classes that have already been compiled against a classpath with
+ * the same ABI into the destination directory of a permutation's {@link JavaCompile}
+ * task so that its compilation can be skipped. The candidates are the classes compiled by
+ * the project's {@code compileTestJava} task and those compiled, or reused, for the
+ * permutations that were handled earlier in the build. Whether classes were reused is
+ * recorded in a file that is read by the {@link NotReusedSpec} of the compile task, so
+ * the compile task remains skipped while this task is up-to-date.
+ *
+ * @author Andy Wilkinson
+ */
+public abstract class ReuseCompiledTestClasses extends DefaultTask {
+
+	/**
+	 * Returns the test source from which the classes are compiled.
+	 * @return the test source
+	 */
+	@InputFiles
+	@PathSensitive(PathSensitivity.RELATIVE)
+	@IgnoreEmptyDirectories
+	public abstract ConfigurableFileCollection getSource();
+
+	/**
+	 * Returns the classpath against which the permutation's test classes are compiled.
+	 * @return the classpath
+	 */
+	@CompileClasspath
+	public abstract ConfigurableFileCollection getClasspath();
+
+	/**
+	 * Returns the settings, including the identity of the compiler, with which the
+	 * permutation's test classes are compiled.
+	 * @return the compiler settings
+	 */
+	@Input
+	public abstract Property<String> getCompilerSettings();
+
+	/**
+	 * Returns the classpath against which the project's test classes are compiled.
+	 * @return the baseline classpath
+	 */
+	@Internal
+	public abstract ConfigurableFileCollection getBaselineClasspath();
+
+	/**
+	 * Returns the directory that contains the project's test classes.
+	 * @return the baseline classes
+	 */
+	@Internal
+	public abstract DirectoryProperty getBaselineClasses();
+
+	/**
+	 * Returns the settings with which the project's test classes are compiled.
+	 * @return the baseline compiler settings
+	 */
+	@Internal
+	public abstract Property<String> getBaselineCompilerSettings();
+
+	/**
+	 * Returns the destination directory of the permutation's {@link JavaCompile} task.
+	 * @return the destination directory
+	 */
+	@OutputDirectory
+	public abstract DirectoryProperty getDestinationDirectory();
+
+	/**
+	 * Returns the file in which the location of the reused classes is recorded. The file
+	 * is empty when no classes were reused.
+	 * @return the reused classes file
+	 */
+	@OutputFile
+	public abstract RegularFileProperty getReusedClasses();
+
+	/**
+	 * Returns the build service that keeps track of the test classes that have been
+	 * compiled.
+	 * @return the compiled test classes
+	 */
+	@Internal
+	public abstract Property<CompiledTestClasses> getCompiledTestClasses();
+
+	/**
+	 * Returns the scope, typically the path of the project, within which test classes are
+	 * reused.
+	 * @return the scope
+	 */
+	@Internal
+	public abstract Property<String> getScope();
+
+	@TaskAction
+	public void reuse() throws IOException {
+		CompiledTestClasses compiledTestClasses = getCompiledTestClasses().get();
+		CompilationInputs inputs = new CompilationInputs(getCompiledTestClasses(), getScope().get(),
+				getClasspath());
+		String compilerSettings = getCompilerSettings().get();
+		String key = inputs.key(compilerSettings);
+		File source = compiledTestClasses.find(key);
+		if (source == null && isEquivalentToBaseline(compilerSettings, inputs, compiledTestClasses)) {
+			source = getBaselineClasses().get().getAsFile();
+		}
+		File destination = getDestinationDirectory().get().getAsFile();
+		Path reusedClasses = getReusedClasses().get().getAsFile().toPath();
+		if (source == null || !source.isDirectory()) {
+			if (isReused(reusedClasses)) {
+				clean(destination.toPath());
+			}
+			Files.write(reusedClasses, Collections.emptyList(), StandardCharsets.UTF_8);
+			return;
+		}
+		sync(source.toPath(), destination.toPath());
+		compiledTestClasses.register(key, destination);
+		Files.write(reusedClasses, Collections.singletonList(source.getAbsolutePath()), StandardCharsets.UTF_8);
+		getLogger().lifecycle("Reusing test classes compiled against an identical ABI from {}", source);
+	}
+
+	private boolean isEquivalentToBaseline(String compilerSettings, CompilationInputs inputs,
+			CompiledTestClasses compiledTestClasses) {
+		return compilerSettings.equals(getBaselineCompilerSettings().get())
+				&& inputs.abiFingerprint().equals(compiledTestClasses.abiFingerprint(getBaselineClasspath()));
+	}
+
+	private void sync(Path source, Path destination) {
+		try {
+			clean(destination);
+			try (Stream<Path> stream = Files.walk(source)) {
+				for (Path path : stream.collect(Collectors.toList())) {
+					Path target = destination.resolve(source.relativize(path).toString());
+					if (Files.isDirectory(path)) {
+						Files.createDirectories(target);
+					}
+					else {
+						Files.copy(path, target, StandardCopyOption.COPY_ATTRIBUTES);
+					}
+				}
+			}
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Failed to copy test classes from " + source, ex);
+		}
+	}
+
+	private static void clean(Path directory) throws IOException {
+		if (Files.exists(directory)) {
+			try (Stream<Path> stream = Files.walk(directory)) {
+				for (Path path : stream.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+					if (!path.equals(directory)) {
+						Files.delete(path);
+					}
+				}
+			}
+		}
+	}
+
+	private static boolean isReused(Path reusedClasses) {
+		try {
+			return Files.isRegularFile(reusedClasses)
+					&& !Files.readAllLines(reusedClasses, StandardCharsets.UTF_8).isEmpty();
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Failed to read " + reusedClasses, ex);
+		}
+	}
+
+	/**
+	 * {@link Spec} that is only satisfied by a {@link JavaCompile} task when test classes
+	 * have not been reused in its destination directory.
+	 */
+	static final class NotReusedSpec implements Spec<Task> {
+
+		private final Provider<RegularFile> reusedClasses;
+
+		NotReusedSpec(Provider<RegularFile> reusedClasses) {
+			this.reusedClasses = reusedClasses;
+		}
+
+		@Override
+		public boolean isSatisfiedBy(Task task) {
+			return !isReused(this.reusedClasses.get().getAsFile().toPath());
+		}
+
+	}
+
+}
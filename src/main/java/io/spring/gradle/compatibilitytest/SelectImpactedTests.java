@@ -0,0 +1,217 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Task;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.testing.Test;
+
+/**
+ * Task that selects the test classes of a permutation that can observe the permutation's
+ * dependencies. A test class is selected when it references, directly or transitively
+ * through other test classes or the project's main classes, a class in one of the
+ * packages contained in the artifacts whose versions differ from those on the project's
+ * test runtime classpath. Classes that are only used reflectively, for example by name,
+ * are not detected.
+ *
+ * @author Andy Wilkinson
+ */
+@CacheableTask
+public abstract class SelectImpactedTests extends DefaultTask {
+
+	/**
+	 * Returns the artifacts on the permutation's runtime classpath that are not on the
+	 * project's test runtime classpath, including those of transitive dependencies whose
+	 * resolved versions are changed by the permutation.
+	 * @return the dependency artifacts
+	 */
+	@Classpath
+	public abstract ConfigurableFileCollection getDependencyArtifacts();
+
+	/**
+	 * Returns the directories containing the project's main classes.
+	 * @return the main classes directories
+	 */
+	@Classpath
+	public abstract ConfigurableFileCollection getMainClassesDirs();
+
+	/**
+	 * Returns the directories containing the permutation's test classes.
+	 * @return the test classes directories
+	 */
+	@Classpath
+	public abstract ConfigurableFileCollection getTestClassesDirs();
+
+	/**
+	 * Returns the file to which the names of the selected test classes are written, one
+	 * per line.
+	 * @return the selected tests file
+	 */
+	@OutputFile
+	public abstract RegularFileProperty getSelectedTests();
+
+	/**
+	 * Returns the index used to find the classes referenced by the main and test classes.
+	 * @return the class reference index
+	 */
+	@Internal
+	public abstract Property<ClassReferenceIndex> getClassReferenceIndex();
+
+	@TaskAction
+	public void selectTests() throws IOException {
+		ClassReferenceIndex index = getClassReferenceIndex().get();
+		Set<String> packages = new HashSet<>();
+		for (File artifact : getDependencyArtifacts()) {
+			packages.addAll(index.packages(artifact));
+		}
+		Map<String, Set<String>> mainReferences = new HashMap<>();
+		for (File mainClassesDir : getMainClassesDirs()) {
+			mainReferences.putAll(index.references(mainClassesDir));
+		}
+		Map<String, Set<String>> testReferences = new HashMap<>();
+		Set<String> testClasses = new HashSet<>();
+		for (File testClassesDir : getTestClassesDirs()) {
+			testReferences.putAll(index.references(testClassesDir));
+			testClasses.addAll(index.testClasses(testClassesDir));
+		}
+		SortedSet<String> selected = select(packages, mainReferences, testReferences, testClasses);
+		getLogger().info("Selected {} of the test classes in {} as impacted", selected.size(),
+				getTestClassesDirs().getFiles());
+		File output = getSelectedTests().get().getAsFile();
+		output.getParentFile().mkdirs();
+		Files.write(output.toPath(), selected, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Selects the test classes that reference, directly or transitively, a class in one of
+	 * the given {@code packages}. A top-level class is only selected when it, or one of
+	 * its nested classes, is one of the given {@code testClasses}.
+	 * @param packages the internal names of the packages
+	 * @param mainReferences the classes referenced by each main class
+	 * @param testReferences the classes referenced by each class compiled from the test
+	 * source
+	 * @param testClasses the internal names of the classes that contain tests
+	 * @return the binary names of the top-level test classes that were selected
+	 */
+	static SortedSet<String> select(Set<String> packages, Map<String, Set<String>> mainReferences,
+			Map<String, Set<String>> testReferences, Set<String> testClasses) {
+		Map<String, Set<String>> referencedBy = new HashMap<>();
+		Deque<String> impacted = new ArrayDeque<>();
+		Set<String> seen = new HashSet<>();
+		for (Map<String, Set<String>> references : Arrays.asList(mainReferences, testReferences)) {
+			references.forEach((name, referencedClasses) -> {
+				for (String referencedClass : referencedClasses) {
+					referencedBy.computeIfAbsent(referencedClass, (key) -> new HashSet<>()).add(name);
+					if (packages.contains(ClassReferenceIndex.packageOf(referencedClass)) && seen.add(name)) {
+						impacted.add(name);
+					}
+				}
+			});
+		}
+		while (!impacted.isEmpty()) {
+			for (String referrer : referencedBy.getOrDefault(impacted.poll(), new HashSet<>())) {
+				if (seen.add(referrer)) {
+					impacted.add(referrer);
+				}
+			}
+		}
+		Set<String> topLevelTestClasses = new HashSet<>();
+		for (String testClass : testClasses) {
+			topLevelTestClasses.add(topLevel(testClass));
+		}
+		SortedSet<String> selected = new TreeSet<>();
+		for (String name : seen) {
+			String topLevel = topLevel(name);
+			if (testReferences.containsKey(name) && topLevelTestClasses.contains(topLevel)) {
+				selected.add(topLevel.replace('/', '.'));
+			}
+		}
+		return selected;
+	}
+
+	private static String topLevel(String name) {
+		int dollar = name.indexOf('$');
+		return (dollar != -1) ? name.substring(0, dollar) : name;
+	}
+
+	private static List<String> readSelectedTests(File selectedTests) {
+		try {
+			return Files.readAllLines(selectedTests.toPath(), StandardCharsets.UTF_8);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Failed to read selected tests from " + selectedTests, ex);
+		}
+	}
+
+	/**
+	 * {@link Spec} that is satisfied by a {@link Test} task when at least one test class
+	 * was selected, limiting the task to the selected test classes. The task's filter is
+	 * configured before its inputs are fingerprinted so that the selected classes are
+	 * taken into account when determining whether it is up-to-date.
+	 */
+	static final class IncludeSelectedTestsSpec implements Spec<Task> {
+
+		private final Provider<RegularFile> selectedTests;
+
+		IncludeSelectedTestsSpec(Provider<RegularFile> selectedTests) {
+			this.selectedTests = selectedTests;
+		}
+
+		@Override
+		public boolean isSatisfiedBy(Task task) {
+			List<String> selectedTests = readSelectedTests(this.selectedTests.get().getAsFile());
+			if (selectedTests.isEmpty()) {
+				return false;
+			}
+			Test test = (Test) task;
+			for (String selectedTest : selectedTests) {
+				test.getFilter().includeTestsMatching(selectedTest);
+				test.getFilter().includeTestsMatching(selectedTest + "$*");
+			}
+			return true;
+		}
+
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.gradle.api.InvalidUserDataException;
+
+/**
+ * One of a number of shards across which the permutations of the matrix are split. The
+ * assignment of permutations to shards is deterministic. When the durations of previous
+ * test runs are known, permutations are assigned longest first to the shard with the
+ * least work so that every shard takes about the same time. Permutations with an unknown
+ * duration are assumed to take the average of the known durations.
+ *
+ * @author Andy Wilkinson
+ */
+final class Shard {
+
+	private static final Pattern PATTERN = Pattern.compile("(\\d+)/(\\d+)");
+
+	private final int index;
+
+	private final int count;
+
+	private Shard(int index, int count) {
+		this.index = index;
+		this.count = count;
+	}
+
+	/**
+	 * Parses a shard from a value such as {@code 2/5}, identifying the second of five
+	 * shards.
+	 * @param value the value to parse
+	 * @return the shard
+	 */
+	static Shard parse(String value) {
+		Matcher matcher = PATTERN.matcher(value.trim());
+		if (!matcher.matches()) {
+			throw new InvalidUserDataException(
+					"Invalid compatibility test shard '" + value + "'. Expected a value such as '2/5'");
+		}
+		int index = Integer.parseInt(matcher.group(1));
+		int count = Integer.parseInt(matcher.group(2));
+		if (index < 1 || index > count) {
+			throw new InvalidUserDataException(
+					"Invalid compatibility test shard '" + value + "'. Shard must be between 1 and " + count);
+		}
+		return new Shard(index, count);
+	}
+
+	/**
+	 * Selects the permutations that belong to this shard.
+	 * @param identifiers the identifiers of all of the permutations
+	 * @param durations the known durations, in milliseconds, of permutations keyed by
+	 * identifier
+	 * @return the identifiers of the permutations in this shard
+	 */
+	List<String> select(List<String> identifiers, Map<String, Long> durations) {
+		return assign(identifiers, durations, this.count).get(this.index - 1);
+	}
+
+	static List<List<String>> assign(List<String> identifiers, Map<String, Long> durations, int count) {
+		long estimate = PermutationDurations.estimate(durations);
+		List<List<String>> shards = new ArrayList<>();
+		long[] loads = new long[count];
+		for (int i = 0; i < count; i++) {
+			shards.add(new ArrayList<>());
+		}
+		for (String identifier : PermutationDurations.longestFirst(identifiers, durations)) {
+			int shard = 0;
+			for (int candidate = 1; candidate < count; candidate++) {
+				if (loads[candidate] < loads[shard]) {
+					shard = candidate;
+				}
+			}
+			loads[shard] += durations.getOrDefault(identifier, estimate);
+			shards.get(shard).add(identifier);
+		}
+		return shards;
+	}
+
+	@Override
+	public String toString() {
+		return this.index + "/" + this.count;
+	}
+
+}
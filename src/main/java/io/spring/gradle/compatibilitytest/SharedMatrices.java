@@ -0,0 +1,54 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.gradle.compatibilitytest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import io.spring.gradle.compatibilitytest.CompatibilityMatrix.DependencyVersion;
+
+/**
+ * {@link BuildService} that holds the permutations of each matrix in the build, keyed by
+ * the path of the project that defines the matrix. The permutations of a matrix that is
+ * defined by the root project and inherited by its subprojects are generated once,
+ * including the selection of versions from Maven metadata, and then shared by every
+ * project that inherits it.
+ *
+ * @author Andy Wilkinson
+ */
+public abstract class SharedMatrices implements BuildService<BuildServiceParameters.None> {
+
+	static final String NAME = "compatibilityTestMatrices";
+
+	private final Map<String, List<List<DependencyVersion>>> permutations = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the permutations of the matrix defined by the project with the given
+	 * {@code path}, generating them if they have not already been generated.
+	 * @param path the path of the project that defines the matrix
+	 * @param generator generates the permutations
+	 * @return the permutations
+	 */
+	List<List<DependencyVersion>> permutations(String path, Supplier<List<List<DependencyVersion>>> generator) {
+		return this.permutations.computeIfAbsent(path, (key) -> generator.get());
+	}
+
+}
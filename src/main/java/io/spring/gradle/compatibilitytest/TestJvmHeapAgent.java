@@ -0,0 +1,68 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.instrument.Instrumentation;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Java agent that records the peak heap usage of a test JVM. When the JVM shuts down, the
+ * sum of the peak usage of each heap memory pool, an upper bound of the JVM's peak heap
+ * usage, is written to a file in the directory passed as the agent's arguments. The
+ * agent only uses the JDK so that it can be loaded by any test JVM.
+ *
+ * @author Andy Wilkinson
+ */
+public final class TestJvmHeapAgent {
+
+	static final String FILE_EXTENSION = ".heap";
+
+	private TestJvmHeapAgent() {
+
+	}
+
+	public static void premain(String arguments, Instrumentation instrumentation) {
+		String name = ManagementFactory.getRuntimeMXBean().getName().replaceAll("[^A-Za-z0-9.-]", "_");
+		File output = new File(arguments, name + FILE_EXTENSION);
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> write(output), "compatibility-test-heap-agent"));
+	}
+
+	static long peakHeapUsage() {
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
+
+	private static void write(File output) {
+		try {
+			Files.write(output.toPath(), Long.toString(peakHeapUsage()).getBytes(StandardCharsets.UTF_8));
+		}
+		catch (IOException ex) {
+			// Metrics are best effort
+		}
+	}
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Task that creates the jar of the {@link TestJvmHeapAgent} from the agent's class so
+ * that it can be added to test JVMs.
+ *
+ * @author Andy Wilkinson
+ */
+public abstract class TestJvmHeapAgentJar extends DefaultTask {
+
+	/**
+	 * Returns the agent jar that is created.
+	 * @return the agent jar
+	 */
+	@OutputFile
+	public abstract RegularFileProperty getAgentJar();
+
+	@TaskAction
+	public void createJar() throws IOException {
+		Manifest manifest = new Manifest();
+		manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		manifest.getMainAttributes().putValue("Premain-Class", TestJvmHeapAgent.class.getName());
+		String entry = TestJvmHeapAgent.class.getName().replace('.', '/') + ".class";
+		File jar = getAgentJar().get().getAsFile();
+		jar.getParentFile().mkdirs();
+		try (OutputStream output = Files.newOutputStream(jar.toPath());
+				JarOutputStream jarOutput = new JarOutputStream(output, manifest);
+				InputStream input = TestJvmHeapAgent.class.getClassLoader().getResourceAsStream(entry)) {
+			jarOutput.putNextEntry(new JarEntry(entry));
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = input.read(buffer)) != -1) {
+				jarOutput.write(buffer, 0, read);
+			}
+			jarOutput.closeEntry();
+		}
+	}
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.gradle.compatibilitytest;
+
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * {@link BuildService} that owns the pool of long-lived JVMs in which the tests of each
+ * permutation are run when pooled JVMs are enabled. The JVMs are Gradle worker daemons,
+ * which Gradle keeps and reuses for work with identical fork options. A JVM is therefore
+ * started and warmed up once and then runs the tests of many permutations, each in a
+ * class loader that is discarded once its tests have run. The size of the pool is
+ * enforced by Gradle using the service's maximum number of parallel usages. The service
+ * is shared by the whole build so the build fails when projects configure different
+ * sizes.
+ *
+ * @author Andy Wilkinson
+ */
+public abstract class TestJvmPool implements BuildService<BuildServiceParameters.None> {
+
+	static final String NAME = "compatibilityTestJvmPool";
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.gradle.api.Task;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.testing.Test;
+
+/**
+ * {@link BuildService} that keeps track of the runtime classpaths that have been
+ * tested during the build so that permutations whose classpaths are byte-for-byte
+ * identical are only tested once.
+ *
+ * @author Andy Wilkinson
+ */
+public abstract class TestedClasspaths implements BuildService<BuildServiceParameters.None> {
+
+	static final String NAME = "compatibilityTestTestedClasspaths";
+
+	private final Map<String, String> digests = new ConcurrentHashMap<>();
+
+	private final Map<String, String> testedBy = new ConcurrentHashMap<>();
+
+	String fingerprint(Iterable<File> classpath) {
+		List<String> fingerprints = new ArrayList<>();
+		for (File file : classpath) {
+			if (file.isDirectory()) {
+				fingerprints.add(Digests.ofContents(file));
+			}
+			else {
+				String key = file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified();
+				fingerprints.add(this.digests.computeIfAbsent(key, (k) -> Digests.ofContents(file)));
+			}
+		}
+		return Digests.combine(fingerprints);
+	}
+
+	/**
+	 * Claims the classpath with the given {@code key} for the task with the given
+	 * {@code path}.
+	 * @param key the key identifying the classpath
+	 * @param path the path of the task that will test the classpath
+	 * @return the path of the task that is testing the classpath, either {@code path} or
+	 * the path of a task that claimed it earlier
+	 */
+	String claim(String key, String path) {
+		return this.testedBy.computeIfAbsent(key, (k) -> path);
+	}
+
+	/**
+	 * {@link Spec} that is only satisfied by a {@link Test} task when no other task has
+	 * already tested an identical runtime classpath.
+	 */
+	static final class UniqueClasspathSpec implements Spec<Task> {
+
+		private final Provider<TestedClasspaths> testedClasspaths;
+
+		private final String scope;
+
+		private final FileCollection classpath;
+
+		UniqueClasspathSpec(Provider<TestedClasspaths> testedClasspaths, String scope, FileCollection classpath) {
+			this.testedClasspaths = testedClasspaths;
+			this.scope = scope;
+			this.classpath = classpath;
+		}
+
+		@Override
+		public boolean isSatisfiedBy(Task task) {
+			TestedClasspaths testedClasspaths = this.testedClasspaths.get();
+			String key = this.scope + ":" + testedClasspaths.fingerprint(this.classpath);
+			String testedBy = testedClasspaths.claim(key, task.getPath());
+			if (testedBy.equals(task.getPath())) {
+				return true;
+			}
+			task.getLogger()
+				.lifecycle("{} is an alias of {} as their runtime classpaths are identical", task.getPath(),
+						testedBy);
+			return false;
+		}
+
+	}
+
+}
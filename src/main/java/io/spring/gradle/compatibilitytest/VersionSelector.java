@@ -0,0 +1,168 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Selector for the versions of a dependency that are tested, chosen from the versions
+ * that have been published. Only releases are selected. Milestones, release candidates,
+ * snapshots, and other pre-release versions are ignored.
+ *
+ * @author Andy Wilkinson
+ * @see CompatibilityTestExtension.DependencyConfigurer#latestPatchOf(String...)
+ * @see CompatibilityTestExtension.DependencyConfigurer#releasesSince(String)
+ */
+abstract class VersionSelector {
+
+	private static final Pattern RELEASE = Pattern.compile("(\\d+(?:\\.\\d+)*)(?:[.-](?:RELEASE|Final|GA))?");
+
+	private static final Comparator<String> ORDER = (v1, v2) -> compare(numbers(v1), numbers(v2));
+
+	/**
+	 * Selects versions from the given {@code available} versions.
+	 * @param available the available versions
+	 * @return the selected versions in ascending order
+	 */
+	abstract List<String> select(Collection<String> available);
+
+	static VersionSelector latestPatchOf(String minor) {
+		return new LatestPatch(minor);
+	}
+
+	static VersionSelector releasesSince(String version) {
+		return new ReleasesSince(version);
+	}
+
+	static boolean isRelease(String version) {
+		return RELEASE.matcher(version).matches();
+	}
+
+	static List<String> releases(Collection<String> available) {
+		return available.stream().filter(VersionSelector::isRelease).sorted(ORDER).collect(Collectors.toList());
+	}
+
+	private static int[] numbers(String version) {
+		Matcher matcher = RELEASE.matcher(version);
+		String numbers = matcher.lookingAt() ? matcher.group(1) : version;
+		String[] components = numbers.split("\\.");
+		int[] result = new int[components.length];
+		for (int i = 0; i < components.length; i++) {
+			try {
+				result[i] = Integer.parseInt(components[i]);
+			}
+			catch (NumberFormatException ex) {
+				result[i] = -1;
+			}
+		}
+		return result;
+	}
+
+	private static int compare(int[] v1, int[] v2) {
+		for (int i = 0; i < Math.max(v1.length, v2.length); i++) {
+			int c1 = (i < v1.length) ? v1[i] : 0;
+			int c2 = (i < v2.length) ? v2[i] : 0;
+			if (c1 != c2) {
+				return Integer.compare(c1, c2);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Selector for the latest patch release of a minor version.
+	 */
+	static final class LatestPatch extends VersionSelector {
+
+		private final int[] minor;
+
+		private final String description;
+
+		private LatestPatch(String minor) {
+			this.minor = numbers(minor);
+			this.description = "latest patch of " + minor;
+		}
+
+		@Override
+		List<String> select(Collection<String> available) {
+			Optional<String> latest = releases(available).stream()
+				.filter(this::isPatchOfMinor)
+				.reduce((first, second) -> second);
+			return latest.map(Collections::singletonList).orElseGet(Collections::emptyList);
+		}
+
+		private boolean isPatchOfMinor(String version) {
+			int[] numbers = numbers(version);
+			if (numbers.length < this.minor.length) {
+				return false;
+			}
+			for (int i = 0; i < this.minor.length; i++) {
+				if (numbers[i] != this.minor[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return this.description;
+		}
+
+	}
+
+	/**
+	 * Selector for every release that is the same as or later than a version.
+	 */
+	static final class ReleasesSince extends VersionSelector {
+
+		private final int[] since;
+
+		private final String description;
+
+		private ReleasesSince(String since) {
+			this.since = numbers(since);
+			this.description = "releases since " + since;
+		}
+
+		@Override
+		List<String> select(Collection<String> available) {
+			List<String> selected = new ArrayList<>();
+			for (String release : releases(available)) {
+				if (compare(numbers(release), this.since) >= 0) {
+					selected.add(release);
+				}
+			}
+			return selected;
+		}
+
+		@Override
+		public String toString() {
+			return this.description;
+		}
+
+	}
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link AbiFingerprint}.
+ *
+ * @author Andy Wilkinson
+ */
+class AbiFingerprintTests {
+
+	private static final String RUNTIME_ANNOTATION = "@java.lang.annotation.Retention("
+			+ "java.lang.annotation.RetentionPolicy.RUNTIME) "
+			+ "public @interface Runtime { String value() default \"\"; }";
+
+	private static final String CLASS_ANNOTATION = "public @interface Invisible {}";
+
+	@TempDir
+	File temp;
+
+	private int compilations;
+
+	@Test
+	void fingerprintIsStable() throws IOException {
+		String source = "public class Example { public String name() { return \"example\"; } }";
+		assertThat(fingerprint(source)).isEqualTo(fingerprint(source));
+	}
+
+	@Test
+	void changingImplementationDoesNotChangeFingerprint() throws IOException {
+		assertThat(fingerprint("public class Example { public String name() { return \"one\"; } }")).isEqualTo(
+				fingerprint("public class Example { public String name() { return helper(); } private String helper() "
+						+ "{ return \"two\"; } }"));
+	}
+
+	@Test
+	void changingPublicMethodChangesFingerprint() throws IOException {
+		assertThat(fingerprint("public class Example { public String name() { return null; } }"))
+			.isNotEqualTo(fingerprint("public class Example { public Object name() { return null; } }"));
+	}
+
+	@Test
+	void changingConstantChangesFingerprint() throws IOException {
+		assertThat(fingerprint("public class Example { public static final int VALUE = 1; }"))
+			.isNotEqualTo(fingerprint("public class Example { public static final int VALUE = 2; }"));
+	}
+
+	@Test
+	void changingClassAnnotationChangesFingerprint() throws IOException {
+		assertThat(fingerprint("@Runtime(\"one\") public class Example {}", RUNTIME_ANNOTATION))
+			.isNotEqualTo(fingerprint("@Runtime(\"two\") public class Example {}", RUNTIME_ANNOTATION));
+	}
+
+	@Test
+	void addingInvisibleMethodAnnotationChangesFingerprint() throws IOException {
+		assertThat(fingerprint("public class Example { public void run() {} }", CLASS_ANNOTATION))
+			.isNotEqualTo(fingerprint("public class Example { @Invisible public void run() {} }", CLASS_ANNOTATION));
+	}
+
+	@Test
+	void addingParameterAnnotationChangesFingerprint() throws IOException {
+		assertThat(fingerprint("public class Example { public void run(String s) {} }", CLASS_ANNOTATION)).isNotEqualTo(
+				fingerprint("public class Example { public void run(@Invisible String s) {} }", CLASS_ANNOTATION));
+	}
+
+	@Test
+	void changingAnnotationDefaultChangesFingerprint() throws IOException {
+		assertThat(fingerprint("public @interface Example { String value() default \"one\"; }"))
+			.isNotEqualTo(fingerprint("public @interface Example { String value() default \"two\"; }"));
+	}
+
+	@Test
+	void changingAccessOfNestedClassChangesFingerprint() throws IOException {
+		assertThat(fingerprint("public class Example { protected static class Nested {} }"))
+			.isNotEqualTo(fingerprint("public class Example { public static class Nested {} }"));
+	}
+
+	@Test
+	void addingPrivateNestedClassDoesNotChangeFingerprint() throws IOException {
+		assertThat(fingerprint("public class Example { }"))
+			.isEqualTo(fingerprint("public class Example { private static class Nested {} }"));
+	}
+
+	@Test
+	void referencingNestedClassOfAnotherClassDoesNotChangeFingerprint() throws IOException {
+		assertThat(fingerprint("public class Example { public Object entry() { return null; } }"))
+			.isEqualTo(fingerprint("public class Example { public Object entry() { "
+					+ "java.util.Map.Entry<?, ?> entry = null; return entry; } }"));
+	}
+
+	@Test
+	@EnabledForJreRange(min = JRE.JAVA_17)
+	void sealingClassChangesFingerprint() throws IOException {
+		String subclass = "public final class Subclass extends Example {}";
+		assertThat(fingerprint("public abstract class Example {}", subclass))
+			.isNotEqualTo(fingerprint("public abstract sealed class Example permits Subclass {}", subclass));
+	}
+
+	@Test
+	@EnabledForJreRange(min = JRE.JAVA_17)
+	void annotatingRecordComponentChangesFingerprint() throws IOException {
+		String annotation = "@java.lang.annotation.Target(java.lang.annotation.ElementType.RECORD_COMPONENT) "
+				+ "public @interface Component {}";
+		assertThat(fingerprint("public record Example(String name) {}", annotation))
+			.isNotEqualTo(fingerprint("public record Example(@Component String name) {}", annotation));
+	}
+
+	@Test
+	void changingBaseClassOfMultiReleaseJarChangesFingerprint() throws IOException {
+		File base = compile("public class Example { public void one() {} }");
+		File changedBase = compile("public class Example { public void two() {} }");
+		File versioned = compile("public class Example { public void three() {} }");
+		assertThat(AbiFingerprint.of(multiReleaseJar(base, versioned)))
+			.isNotEqualTo(AbiFingerprint.of(multiReleaseJar(changedBase, versioned)));
+	}
+
+	@Test
+	void changingVersionedClassOfMultiReleaseJarChangesFingerprint() throws IOException {
+		File base = compile("public class Example { public void one() {} }");
+		File versioned = compile("public class Example { public void two() {} }");
+		File changedVersioned = compile("public class Example { public void three() {} }");
+		assertThat(AbiFingerprint.of(multiReleaseJar(base, versioned)))
+			.isNotEqualTo(AbiFingerprint.of(multiReleaseJar(base, changedVersioned)));
+	}
+
+	@Test
+	void fingerprintOfJarMatchesFingerprintOfEquivalentDirectory() throws IOException {
+		File classes = compile("public class Example { public void run() {} }");
+		File jar = new File(this.temp, "example.jar");
+		try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar.toPath()))) {
+			addEntry(output, "Example.class", new File(classes, "Example.class"));
+		}
+		assertThat(AbiFingerprint.of(jar)).isEqualTo(AbiFingerprint.of(classes));
+	}
+
+	private String fingerprint(String... sources) throws IOException {
+		return AbiFingerprint.of(compile(sources));
+	}
+
+	private File compile(String... sources) throws IOException {
+		return TestCompiler.compile(new File(this.temp, "classes-" + this.compilations++), sources);
+	}
+
+	private File multiReleaseJar(File base, File versioned) throws IOException {
+		File jar = new File(this.temp, "multi-release-" + this.compilations++ + ".jar");
+		try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar.toPath()))) {
+			addEntry(output, "Example.class", new File(base, "Example.class"));
+			addEntry(output, "META-INF/versions/11/Example.class", new File(versioned, "Example.class"));
+		}
+		return jar;
+	}
+
+	private void addEntry(JarOutputStream output, String name, File file) throws IOException {
+		output.putNextEntry(new JarEntry(name));
+		Files.copy(file.toPath(), output);
+		output.closeEntry();
+	}
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link Bisection}.
+ *
+ * @author Andy Wilkinson
+ */
+class BisectionTests {
+
+	@Test
+	void firstFailureIsFoundByProbingALogarithmicNumberOfVersions() {
+		Bisection bisection = bisect(16, 11);
+		assertThat(bisection.getLastPassing()).isEqualTo(10);
+		assertThat(bisection.getFirstFailing()).isEqualTo(11);
+		assertThat(bisection.getProbed()).isLessThanOrEqualTo(5);
+	}
+
+	@Test
+	void whenEveryVersionPassesThenThereIsNoFirstFailure() {
+		Bisection bisection = bisect(7, 7);
+		assertThat(bisection.getLastPassing()).isEqualTo(6);
+		assertThat(bisection.getFirstFailing()).isEqualTo(-1);
+	}
+
+	@Test
+	void whenEveryVersionFailsThenThereIsNoLastPass() {
+		Bisection bisection = bisect(7, 0);
+		assertThat(bisection.getLastPassing()).isEqualTo(-1);
+		assertThat(bisection.getFirstFailing()).isEqualTo(0);
+	}
+
+	@Test
+	void eachProbeIsAtADeeperLevelThanThePreviousProbe() {
+		for (int size = 1; size <= 32; size++) {
+			for (int firstFailure = 0; firstFailure <= size; firstFailure++) {
+				Bisection bisection = new Bisection(size);
+				int previousLevel = -1;
+				while (!bisection.isComplete()) {
+					int probe = bisection.probe();
+					assertThat(bisection.level(probe)).isGreaterThan(previousLevel).isLessThan(bisection.depth());
+					previousLevel = bisection.level(probe);
+					bisection.record(probe >= firstFailure);
+				}
+				assertThat(bisection.getLastPassing()).isEqualTo(firstFailure - 1);
+			}
+		}
+	}
+
+	private Bisection bisect(int size, int firstFailure) {
+		Bisection bisection = new Bisection(size);
+		while (!bisection.isComplete()) {
+			bisection.record(bisection.probe() >= firstFailure);
+		}
+		return bisection;
+	}
+
+}
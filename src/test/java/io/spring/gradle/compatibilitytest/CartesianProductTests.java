@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2020 the original author or authors.
+ * Copyright 2014-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,14 +16,19 @@
 
 package io.spring.gradle.compatibilitytest;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 /**
  * Tests for {@link CartesianProduct}.
@@ -35,20 +40,20 @@ class CartesianProductTests {
 	@Test
 	void oneSet() {
 		List<Set<String>> list = list(set("a", "b", "c"));
-		Set<List<String>> result = CartesianProduct.of(list);
+		Iterable<List<String>> result = CartesianProduct.of(list);
 		assertThat(result).containsExactly(list("a"), list("b"), list("c"));
 	}
 
 	@Test
 	void twoSets() {
-		Set<List<String>> result = CartesianProduct.of(list(set("a", "b"), set("1", "2", "3")));
+		Iterable<List<String>> result = CartesianProduct.of(list(set("a", "b"), set("1", "2", "3")));
 		assertThat(result).containsExactly(list("a", "1"), list("a", "2"), list("a", "3"), list("b", "1"),
 				list("b", "2"), list("b", "3"));
 	}
 
 	@Test
 	void threeSets() {
-		Set<List<String>> result = CartesianProduct.of(list(set("a", "b"), set("1", "2"), set("red", "blue")));
+		Iterable<List<String>> result = CartesianProduct.of(list(set("a", "b"), set("1", "2"), set("red", "blue")));
 		assertThat(result).containsExactly(list("a", "1", "red"), list("a", "1", "blue"), list("a", "2", "red"),
 				list("a", "2", "blue"), list("b", "1", "red"), list("b", "1", "blue"), list("b", "2", "red"),
 				list("b", "2", "blue"));
@@ -56,8 +61,75 @@ class CartesianProductTests {
 
 	@Test
 	void emptySet() {
-		Set<List<String>> result = CartesianProduct.of(list(set("a", "b"), set()));
-		assertThat(result.isEmpty());
+		Iterable<List<String>> result = CartesianProduct.of(list(set("a", "b"), set()));
+		assertThat(result).isEmpty();
+	}
+
+	@Test
+	void noSets() {
+		Iterable<List<String>> result = CartesianProduct.of(Collections.<Set<String>>emptyList());
+		assertThat(result).containsExactly(Collections.emptyList());
+	}
+
+	@Test
+	void orderMatchesRecursiveImplementation() {
+		List<Set<String>> sets = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			Set<String> set = new LinkedHashSet<>();
+			for (int j = 0; j < i + 2; j++) {
+				set.add(i + "." + j);
+			}
+			sets.add(set);
+		}
+		assertThat(CartesianProduct.of(sets)).containsExactlyElementsOf(recursiveCartesianProduct(sets, 0));
+	}
+
+	@Test
+	void productCanBeIteratedMoreThanOnce() {
+		Iterable<List<String>> result = CartesianProduct.of(list(set("a", "b"), set("1", "2")));
+		assertThat(result).containsExactlyElementsOf(result);
+	}
+
+	@Test
+	void nextWhenExhaustedThrowsNoSuchElementException() {
+		Iterator<List<String>> iterator = CartesianProduct.of(list(set("a"))).iterator();
+		iterator.next();
+		assertThat(iterator.hasNext()).isFalse();
+		assertThatExceptionOfType(NoSuchElementException.class).isThrownBy(iterator::next);
+	}
+
+	@Test
+	void filterRemovesPermutationsWhosePrefixIsRejected() {
+		Iterable<List<String>> result = CartesianProduct.of(list(set("a", "b"), set("1", "2"), set("red", "blue")),
+				(prefix) -> !prefix.equals(list("a", "2")) && !prefix.contains("blue"));
+		assertThat(result).containsExactly(list("a", "1", "red"), list("b", "1", "red"), list("b", "2", "red"));
+	}
+
+	@Test
+	void filterIsNotCalledWithPermutationsThatStartWithARejectedPrefix() {
+		List<List<String>> tested = new ArrayList<>();
+		Iterable<List<String>> result = CartesianProduct.of(list(set("a", "b"), set("1", "2")), (prefix) -> {
+			tested.add(prefix);
+			return !prefix.equals(list("a"));
+		});
+		assertThat(result).containsExactly(list("b", "1"), list("b", "2"));
+		assertThat(tested).containsExactly(list("a"), list("b"), list("b", "1"), list("b"), list("b", "2"));
+	}
+
+	private Set<List<String>> recursiveCartesianProduct(List<Set<String>> sets, int index) {
+		Set<List<String>> result = new LinkedHashSet<>();
+		if (index == sets.size()) {
+			result.add(new ArrayList<>());
+		}
+		else {
+			for (String item : sets.get(index)) {
+				for (List<String> product : recursiveCartesianProduct(sets, index + 1)) {
+					product.add(0, item);
+					result.add(product);
+				}
+			}
+		}
+		return result;
 	}
 
 	private Set<String> set(String... items) {
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.spring.gradle.compatibilitytest.ClassFile.InnerClass;
+import io.spring.gradle.compatibilitytest.ClassFile.Member;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+/**
+ * Tests for {@link ClassFile}.
+ *
+ * @author Andy Wilkinson
+ */
+class ClassFileTests {
+
+	private static final String PREFIX = "io/spring/gradle/compatibilitytest/ClassFileTests$";
+
+	@TempDir
+	File temp;
+
+	@Test
+	void readWhenInputIsNotAClassFileThenIOExceptionIsThrown() {
+		assertThatIOException().isThrownBy(() -> ClassFile.read(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4 })))
+			.withMessage("Not a class file");
+	}
+
+	@Test
+	void nameSuperclassAndInterfacesAreRead() throws IOException {
+		ClassFile classFile = classFile(Example.class);
+		assertThat(classFile.getName()).isEqualTo(PREFIX + "Example");
+		assertThat(classFile.getSuperName()).isEqualTo("java/lang/Object");
+		assertThat(classFile.getInterfaces()).containsExactly("java/util/concurrent/Callable", "java/io/Serializable");
+		assertThat(classFile.getSignature())
+			.isEqualTo("Ljava/lang/Object;Ljava/util/concurrent/Callable<Ljava/lang/String;>;Ljava/io/Serializable;");
+	}
+
+	@Test
+	void fieldsAreRead() throws IOException {
+		ClassFile classFile = classFile(Example.class);
+		Member constant = member(classFile.getFields(), "CONSTANT");
+		assertThat(constant.getDescriptor()).isEqualTo("Ljava/lang/String;");
+		assertThat(constant.getConstantValue()).isEqualTo("constant");
+		assertThat(member(classFile.getFields(), "LONG_CONSTANT").getConstantValue()).isEqualTo(5L);
+		Member values = member(classFile.getFields(), "values");
+		assertThat(values.getSignature()).isEqualTo("Ljava/util/List<Ljava/lang/String;>;");
+		assertThat(values.getConstantValue()).isNull();
+		assertThat(values.getAnnotations())
+			.containsExactly("RuntimeVisibleAnnotations @L" + PREFIX + "Visible;(value=sfield)");
+	}
+
+	@Test
+	void methodsAreRead() throws IOException {
+		Member call = member(classFile(Example.class).getMethods(), "call");
+		assertThat(call.getDescriptor()).isEqualTo("()Ljava/lang/String;");
+		assertThat(call.getExceptions()).containsExactly("java/lang/Exception");
+	}
+
+	@Test
+	void classAnnotationsAreRead() throws IOException {
+		assertThat(classFile(Example.class).getAnnotations()).containsExactlyInAnyOrder(
+				"RuntimeVisibleAnnotations @L" + PREFIX
+						+ "Visible;(value=sclass, unit=eLjava/util/concurrent/TimeUnit;.SECONDS, "
+						+ "types=[cLjava/lang/String;, cI], nested=@L" + PREFIX + "Invisible;())",
+				"RuntimeInvisibleAnnotations @L" + PREFIX + "Invisible;()");
+	}
+
+	@Test
+	void parameterAnnotationsAreRead() throws IOException {
+		Member method = member(classFile(Example.class).getMethods(), "annotatedParameter");
+		assertThat(method.getAnnotations())
+			.containsExactly("RuntimeInvisibleParameterAnnotations 1 @L" + PREFIX + "Invisible;()");
+	}
+
+	@Test
+	void typeAnnotationsAreRead() throws IOException {
+		Member method = member(classFile(Example.class).getMethods(), "annotatedType");
+		assertThat(method.getAnnotations())
+			.containsExactly("RuntimeVisibleTypeAnnotations 14 @L" + PREFIX + "TypeUse;()");
+	}
+
+	@Test
+	void annotationDefaultIsRead() throws IOException {
+		List<Member> methods = classFile(Visible.class).getMethods();
+		assertThat(member(methods, "value").getAnnotationDefault()).isNull();
+		assertThat(member(methods, "unit").getAnnotationDefault())
+			.isEqualTo("eLjava/util/concurrent/TimeUnit;.DAYS");
+		assertThat(member(methods, "types").getAnnotationDefault()).isEqualTo("[]");
+		assertThat(member(methods, "number").getAnnotationDefault()).isEqualTo("I42");
+	}
+
+	@Test
+	void innerClassesAreRead() throws IOException {
+		List<InnerClass> innerClasses = classFile(Example.class).getInnerClasses();
+		InnerClass example = innerClasses.stream()
+			.filter((innerClass) -> innerClass.getName().equals(PREFIX + "Example"))
+			.findFirst()
+			.get();
+		assertThat(example.getOuterName()).isEqualTo("io/spring/gradle/compatibilitytest/ClassFileTests");
+		assertThat(example.getSimpleName()).isEqualTo("Example");
+		assertThat(example.getAccess()).isEqualTo(0x0008 | 0x0004);
+		assertThat(innerClasses.stream().map(InnerClass::getName).collect(Collectors.toList()))
+			.contains(PREFIX + "Example$Nested");
+	}
+
+	@Test
+	@EnabledForJreRange(min = JRE.JAVA_17)
+	void permittedSubclassesAreRead() throws IOException {
+		File classes = TestCompiler.compile(new File(this.temp, "classes"),
+				"public sealed interface Shape permits Circle, Square {}",
+				"public final class Circle implements Shape {}", "public final class Square implements Shape {}");
+		assertThat(classFile(new File(classes, "Shape.class")).getPermittedSubclasses()).containsExactly("Circle",
+				"Square");
+		assertThat(classFile(new File(classes, "Circle.class")).getPermittedSubclasses()).isEmpty();
+	}
+
+	@Test
+	@EnabledForJreRange(min = JRE.JAVA_17)
+	void recordComponentsAreRead() throws IOException {
+		File classes = TestCompiler.compile(new File(this.temp, "classes"),
+				"public record Point(java.util.List<String> names, @Component int y) {}",
+				"@java.lang.annotation.Target(java.lang.annotation.ElementType.RECORD_COMPONENT) "
+						+ "public @interface Component {}");
+		List<Member> components = classFile(new File(classes, "Point.class")).getRecordComponents();
+		assertThat(components.stream().map(Member::getName).collect(Collectors.toList())).containsExactly("names",
+				"y");
+		assertThat(components.get(0).getDescriptor()).isEqualTo("Ljava/util/List;");
+		assertThat(components.get(0).getSignature()).isEqualTo("Ljava/util/List<Ljava/lang/String;>;");
+		assertThat(components.get(1).getDescriptor()).isEqualTo("I");
+		assertThat(components.get(1).getAnnotations()).containsExactly("RuntimeInvisibleAnnotations @LComponent;()");
+	}
+
+	private Member member(List<Member> members, String name) {
+		return members.stream().filter((member) -> member.getName().equals(name)).findFirst().get();
+	}
+
+	private ClassFile classFile(Class<?> type) throws IOException {
+		try (InputStream input = type.getResourceAsStream("/" + type.getName().replace('.', '/') + ".class")) {
+			return ClassFile.read(input);
+		}
+	}
+
+	private ClassFile classFile(File file) throws IOException {
+		try (InputStream input = Files.newInputStream(file.toPath())) {
+			return ClassFile.read(input);
+		}
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface Visible {
+
+		String value();
+
+		TimeUnit unit() default TimeUnit.DAYS;
+
+		Class<?>[] types() default {};
+
+		int number() default 42;
+
+		Invisible nested() default @Invisible;
+
+	}
+
+	@interface Invisible {
+
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target(ElementType.TYPE_USE)
+	@interface TypeUse {
+
+	}
+
+	@Visible(value = "class", unit = TimeUnit.SECONDS, types = { String.class, int.class }, nested = @Invisible)
+	@Invisible
+	protected static class Example implements Callable<String>, Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		public static final String CONSTANT = "constant";
+
+		public static final long LONG_CONSTANT = 5L;
+
+		@Visible("field")
+		List<String> values = Arrays.asList("a", "b");
+
+		@Override
+		public String call() throws Exception {
+			return CONSTANT;
+		}
+
+		void annotatedParameter(String one, @Invisible String two) {
+
+		}
+
+		@TypeUse String annotatedType() {
+			return null;
+		}
+
+		class Nested {
+
+		}
+
+	}
+
+}
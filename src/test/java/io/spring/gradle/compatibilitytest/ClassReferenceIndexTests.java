@@ -0,0 +1,107 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.gradle.api.services.BuildServiceParameters;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ClassReferenceIndex}.
+ *
+ * @author Andy Wilkinson
+ */
+class ClassReferenceIndexTests {
+
+	private static final String JUPITER_TEST = "package org.junit.jupiter.api; "
+			+ "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME) "
+			+ "public @interface Test {}";
+
+	private static final String TEST_CASE = "package junit.framework; public abstract class TestCase {}";
+
+	@TempDir
+	File temp;
+
+	private final ClassReferenceIndex index = new ClassReferenceIndex() {
+
+		@Override
+		public BuildServiceParameters.None getParameters() {
+			return null;
+		}
+
+	};
+
+	@Test
+	void classWithTestMethodIsATestClass() throws IOException {
+		File classes = compile(JUPITER_TEST,
+				"public class ExampleTests { @org.junit.jupiter.api.Test void test() {} }");
+		assertThat(this.index.testClasses(classes)).containsExactly("ExampleTests");
+	}
+
+	@Test
+	void classWithoutTestMethodsIsNotATestClass() throws IOException {
+		File classes = compile(JUPITER_TEST, "public class ExampleAssertions { void assertExample() {} }");
+		assertThat(this.index.testClasses(classes)).isEmpty();
+	}
+
+	@Test
+	void abstractClassWithTestMethodIsNotATestClass() throws IOException {
+		File classes = compile(JUPITER_TEST,
+				"public abstract class AbstractTests { @org.junit.jupiter.api.Test void test() {} }");
+		assertThat(this.index.testClasses(classes)).isEmpty();
+	}
+
+	@Test
+	void classThatInheritsTestMethodIsATestClass() throws IOException {
+		File classes = compile(JUPITER_TEST,
+				"public abstract class AbstractTests { @org.junit.jupiter.api.Test void test() {} }",
+				"public class ConcreteTests extends AbstractTests {}");
+		assertThat(this.index.testClasses(classes)).containsExactly("ConcreteTests");
+	}
+
+	@Test
+	void classThatInheritsTestMethodFromInterfaceIsATestClass() throws IOException {
+		File classes = compile(JUPITER_TEST,
+				"public interface Contract { @org.junit.jupiter.api.Test default void test() {} }",
+				"public class ContractTests implements Contract {}");
+		assertThat(this.index.testClasses(classes)).containsExactly("ContractTests");
+	}
+
+	@Test
+	void subclassOfTestCaseIsATestClass() throws IOException {
+		File classes = compile(TEST_CASE, "public class ExampleTests extends junit.framework.TestCase {}");
+		assertThat(this.index.testClasses(classes)).containsExactly("ExampleTests");
+	}
+
+	@Test
+	void testClassesAreIndexedWithTheClassesTheyReference() throws IOException {
+		File classes = compile(JUPITER_TEST,
+				"public class ExampleTests { @org.junit.jupiter.api.Test void test() { new StringBuilder(); } }");
+		assertThat(this.index.references(classes).get("ExampleTests")).contains("java/lang/StringBuilder");
+		assertThat(this.index.testClasses(classes)).containsExactly("ExampleTests");
+	}
+
+	private File compile(String... sources) throws IOException {
+		return TestCompiler.compile(new File(this.temp, "classes"), sources);
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link CompatibilityMatrixReport} and {@link JUnitXmlReader}.
+ *
+ * @author Andy Wilkinson
+ */
+class CompatibilityMatrixReportTests {
+
+	@TempDir
+	File temp;
+
+	@Test
+	void testsThatPassInEveryPermutationAreCollapsed() throws IOException {
+		CompatibilityMatrixReport report = new CompatibilityMatrixReport(Arrays.asList("one 1.0", "one 2.0"));
+		read(report, 0, "<testsuite><testcase classname=\"com.example.ExampleTests\" name=\"a()\" time=\"0.5\"/>"
+				+ "<testcase classname=\"com.example.ExampleTests\" name=\"b()\" time=\"0.25\"/></testsuite>");
+		read(report, 1, "<testsuite><testcase classname=\"com.example.ExampleTests\" name=\"a()\" time=\"0.5\"/>"
+				+ "<testcase classname=\"com.example.ExampleTests\" name=\"b()\" time=\"1,000.25\">"
+				+ "<failure message=\"boom\">stack</failure></testcase></testsuite>");
+		String html = writeHtml(report);
+		assertThat(html).contains("<details><summary>1 tests passed in every permutation</summary>")
+			.contains("<li>com.example.ExampleTests &gt; a()</li>")
+			.contains("<tr><td>com.example.ExampleTests &gt; b()</td><td class=\"passed\">passed 0.250s</td>"
+					+ "<td class=\"failed\">failed 1000.250s</td></tr>")
+			.contains("<th>one 2.0<br>1 failed, 1000.750s</th>");
+	}
+
+	@Test
+	void testsThatAreSkippedOrNotRunAreReported() throws IOException {
+		CompatibilityMatrixReport report = new CompatibilityMatrixReport(Arrays.asList("one 1.0", "one 2.0"));
+		read(report, 0, "<testsuite><testcase classname=\"com.example.ExampleTests\" name=\"a()\" time=\"0\">"
+				+ "<skipped/></testcase></testsuite>");
+		read(report, 1, "<testsuite><testcase classname=\"com.example.ExampleTests\" name=\"b()\" time=\"0\"/>"
+				+ "</testsuite>");
+		String html = writeHtml(report);
+		assertThat(html)
+			.contains("<tr><td>com.example.ExampleTests &gt; a()</td><td class=\"skipped\">skipped 0.000s</td>"
+					+ "<td class=\"not-run\">not run</td></tr>")
+			.contains("<li>com.example.ExampleTests &gt; b()</li>");
+	}
+
+	private void read(CompatibilityMatrixReport report, int permutation, String xml) throws IOException {
+		File file = new File(this.temp, "TEST-" + permutation + ".xml");
+		Files.write(file.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+		new JUnitXmlReader().read(file, (className, name, outcome, duration) -> report.add(permutation,
+				className + " > " + name, outcome, duration));
+	}
+
+	private String writeHtml(CompatibilityMatrixReport report) {
+		StringWriter output = new StringWriter();
+		report.writeHtml(new PrintWriter(output));
+		return output.toString();
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2025 the original author or authors.
+ * Copyright 2014-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,14 +20,23 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.gradle.api.JavaVersion;
 import org.gradle.testkit.runner.BuildResult;
 import org.gradle.testkit.runner.TaskOutcome;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 
 import io.spring.gradle.compatibilitytest.testkit.GradleBuild;
 import io.spring.gradle.compatibilitytest.testkit.GradleBuildExtension;
+import io.spring.gradle.compatibilitytest.testkit.MavenRepository;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -124,23 +133,561 @@ class CompatibilityTestPluginIntegrationTests {
 	}
 
 	@Test
-	void testsAreExecutedWithoutDeprecationWarnings() throws IOException {
+	void whenJavaVersionsAreConfiguredThenEachPermutationIsTestedOnEachVersion() throws IOException {
+		writeExampleTests();
+		String javaVersion = JavaVersion.current().getMajorVersion();
+		BuildResult result = this.gradleBuild.build("compatibilityTest_spring_framework_5.3.0_java_" + javaVersion);
+		assertThat(result.task(":compileCompatibilityTestJava_spring_framework_5.3.0").getOutcome())
+			.isEqualTo(TaskOutcome.SUCCESS);
+		assertThat(result.task(":compatibilityTest_spring_framework_5.3.0_java_" + javaVersion).getOutcome())
+			.isEqualTo(TaskOutcome.SUCCESS);
+		assertThat(result.getOutput()).contains("Release: " + javaVersion)
+			.contains("Launcher: " + javaVersion);
+	}
+
+	@Test
+	void matrixTasksAreNotRealizedWhenRunningUnrelatedTasks() {
+		BuildResult result = this.gradleBuild.build("countRealizedMatrixTasks");
+		assertThat(result.getOutput()).contains("Realized matrix tasks: 0");
+	}
+
+	@Test
+	void whenAbiIsUnchangedThenCompiledTestClassesAreReused() throws IOException {
 		File projectDir = this.gradleBuild.getProjectDir();
-		File exampleTests = new File(projectDir, "src/test/java/example/ExampleTests.java");
+		new MavenRepository(new File(projectDir, "repository")).publish("com.example", "library", "1.0")
+			.publish("com.example", "library", "1.1")
+			.publish("com.example", "library", "1.2");
+		File example = new File(projectDir, "src/test/java/example/Example.java");
+		example.getParentFile().mkdirs();
+		try (PrintWriter writer = new PrintWriter(new FileWriter(example))) {
+			writer.println("package example;");
+			writer.println("");
+			writer.println("class Example {");
+			writer.println("");
+			writer.println("}");
+		}
+		BuildResult result = this.gradleBuild.build("compileCompatibilityTestJava_library_1.1",
+				"compileCompatibilityTestJava_library_1.2");
+		assertThat(result.getOutput()).contains("Reusing test classes compiled against an identical ABI");
+		assertThat(result.task(":reuseCompatibilityTestClasses_library_1.1").getOutcome())
+			.isEqualTo(TaskOutcome.SUCCESS);
+		assertThat(result.task(":compileCompatibilityTestJava_library_1.1").getOutcome())
+			.isEqualTo(TaskOutcome.SKIPPED);
+		assertThat(result.task(":compileCompatibilityTestJava_library_1.2").getOutcome())
+			.isEqualTo(TaskOutcome.SKIPPED);
+		assertThat(new File(projectDir, "build/classes/java/compatibilityTest_library_1.1/example/Example.class"))
+			.isFile();
+		assertThat(new File(projectDir, "build/classes/java/compatibilityTest_library_1.2/example/Example.class"))
+			.isFile();
+		BuildResult rerun = this.gradleBuild.build("compileCompatibilityTestJava_library_1.1",
+				"compileCompatibilityTestJava_library_1.2");
+		assertThat(rerun.task(":reuseCompatibilityTestClasses_library_1.1").getOutcome())
+			.isEqualTo(TaskOutcome.UP_TO_DATE);
+		assertThat(rerun.task(":compileCompatibilityTestJava_library_1.1").getOutcome())
+			.isEqualTo(TaskOutcome.SKIPPED);
+	}
+
+	@Test
+	void permutationsWithIdenticalRuntimeClasspathsAreEachTestedByDefault() throws IOException {
+		writeExampleTests();
+		BuildResult result = this.gradleBuild.build("compatibilityTest_unused_1.0", "compatibilityTest_unused_2.0");
+		assertThat(result.task(":compatibilityTest_unused_1.0").getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+		assertThat(result.task(":compatibilityTest_unused_2.0").getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+		assertThat(result.getOutput()).doesNotContain("is an alias of");
+	}
+
+	@Test
+	void permutationsWithIdenticalRuntimeClasspathsAreOnlyTestedOnce() throws IOException {
+		writeExampleTests();
+		BuildResult result = this.gradleBuild.build("compatibilityTest_unused_1.0", "compatibilityTest_unused_2.0");
+		assertThat(result.task(":compatibilityTest_unused_1.0").getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+		assertThat(result.task(":compatibilityTest_unused_2.0").getOutcome()).isEqualTo(TaskOutcome.SKIPPED);
+		assertThat(result.getOutput())
+			.contains(":compatibilityTest_unused_2.0 is an alias of :compatibilityTest_unused_1.0");
+	}
+
+	@Test
+	void permutationsCanBeTestedInASingleJvm() throws IOException {
+		writeExampleTests();
+		BuildResult result = this.gradleBuild.build("check");
+		assertThat(result.task(":compatibilityTestInSingleJvm").getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+		assertThat(result.task(":compatibilityTest_spring_framework_5.3.0")).isNull();
+		assertThat(result.task(":compatibilityTest_spring_framework_5.3.1")).isNull();
+		assertThat(result.getOutput()).contains("Spring Framework 5.3.0: 1 tests, 1 succeeded, 0 failed, 0 skipped",
+				"Spring Framework 5.3.1: 1 tests, 1 succeeded, 0 failed, 0 skipped");
+		assertThat(new File(this.gradleBuild.getProjectDir(),
+				"build/test-results/compatibilityTestInSingleJvm/spring_framework_5.3.0/TEST-junit-jupiter.xml"))
+			.isFile();
+	}
+
+	@Test
+	void whenTestingInASingleJvmThenTheConfigurationOfTheTestTaskIsUsed() throws IOException {
+		File exampleTests = new File(this.gradleBuild.getProjectDir(), "src/test/java/example/ExampleTests.java");
+		exampleTests.getParentFile().mkdirs();
+		try (PrintWriter writer = new PrintWriter(new FileWriter(exampleTests))) {
+			writer.println("package example;");
+			writer.println("");
+			writer.println("import org.junit.jupiter.api.Assertions;");
+			writer.println("import org.junit.jupiter.api.Tag;");
+			writer.println("import org.junit.jupiter.api.Test;");
+			writer.println("");
+			writer.println("class ExampleTests {");
+			writer.println("");
+			writer.println("    @Test");
+			writer.println("    void systemProperty() {");
+			writer.println("        Assertions.assertEquals(\"example\", System.getProperty(\"example.property\"));");
+			writer.println("    }");
+			writer.println("");
+			writer.println("    @Test");
+			writer.println("    @Tag(\"slow\")");
+			writer.println("    void slow() {");
+			writer.println("        Assertions.fail();");
+			writer.println("    }");
+			writer.println("");
+			writer.println("}");
+		}
+		BuildResult result = this.gradleBuild.build("check");
+		assertThat(result.task(":compatibilityTestInSingleJvm").getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+		assertThat(result.getOutput()).contains("Spring Framework 5.3.0: 1 tests, 1 succeeded, 0 failed, 0 skipped",
+				"Spring Framework 5.3.1: 1 tests, 1 succeeded, 0 failed, 0 skipped");
+	}
+
+	@Test
+	void whenTestingInASingleJvmWithTestFilterPatternsThenTheBuildFails() throws IOException {
+		writeExampleTests();
+		BuildResult result = this.gradleBuild.buildAndFail("check");
+		assertThat(result.task(":compatibilityTestInSingleJvm").getOutcome()).isEqualTo(TaskOutcome.FAILED);
+		assertThat(result.getOutput()).contains("Tests cannot be run in isolation as the following configuration of "
+				+ "the test task is not supported: test filter patterns");
+	}
+
+	@Test
+	void permutationsCanBeTestedInPooledJvms() throws IOException {
+		File jvms = new File(this.gradleBuild.getProjectDir(), "jvms.txt");
+		File exampleTests = new File(this.gradleBuild.getProjectDir(), "src/test/java/example/ExampleTests.java");
 		exampleTests.getParentFile().mkdirs();
 		try (PrintWriter writer = new PrintWriter(new FileWriter(exampleTests))) {
 			writer.println("package example;");
 			writer.println("");
+			writer.println("import java.lang.management.ManagementFactory;");
+			writer.println("import java.nio.file.Files;");
+			writer.println("import java.nio.file.Paths;");
+			writer.println("import java.nio.file.StandardOpenOption;");
+			writer.println("import java.util.Collections;");
+			writer.println("");
 			writer.println("import org.junit.jupiter.api.Test;");
 			writer.println("");
 			writer.println("class ExampleTests {");
 			writer.println("");
 			writer.println("    @Test");
+			writer.println("    void test() throws Exception {");
+			writer.println("        Files.write(Paths.get(\"" + jvms.getAbsolutePath().replace('\\', '/') + "\"),");
+			writer.println("                Collections.singletonList(jvmName()), StandardOpenOption.CREATE,");
+			writer.println("                StandardOpenOption.APPEND);");
+			writer.println("    }");
+			writer.println("");
+			writer.println("    private String jvmName() {");
+			writer.println("        return ManagementFactory.getRuntimeMXBean().getName();");
+			writer.println("    }");
+			writer.println("");
+			writer.println("}");
+		}
+		BuildResult result = this.gradleBuild.build("check");
+		assertThat(result.task(":compatibilityTest_spring_framework_5.3.0").getOutcome())
+			.isEqualTo(TaskOutcome.SUCCESS);
+		assertThat(result.task(":compatibilityTest_spring_framework_5.3.1").getOutcome())
+			.isEqualTo(TaskOutcome.SUCCESS);
+		assertThat(result.getOutput()).contains("Spring Framework 5.3.0: 1 tests, 1 succeeded, 0 failed, 0 skipped",
+				"Spring Framework 5.3.1: 1 tests, 1 succeeded, 0 failed, 0 skipped");
+		List<String> jvmNames = Files.readAllLines(jvms.toPath());
+		assertThat(jvmNames).hasSize(2);
+		assertThat(jvmNames.get(1)).isEqualTo(jvmNames.get(0));
+		assertThat(new File(this.gradleBuild.getProjectDir(),
+				"build/test-results/compatibilityTest_spring_framework_5.3.0/spring_framework_5.3.0/"
+						+ "TEST-junit-jupiter.xml"))
+			.isFile();
+	}
+
+	@Test
+	void forkingAndConcurrencyOfPermutationsCanBeLimited() {
+		BuildResult result = this.gradleBuild.build("dumpForkSettings");
+		assertThat(result.getOutput()).contains("compatibilityTest_spring_framework_5.3.0: 2 256m",
+				"compatibilityTest_spring_framework_5.3.1: 2 256m", "Max concurrent permutations: 1");
+	}
+
+	@Test
+	void onlyPermutationsInTheSelectedShardAreChecked() {
+		BuildResult result = this.gradleBuild.build("check", "--dry-run", "-PcompatibilityTest.shard=2/2");
+		assertThat(result.getOutput()).contains("Testing 1 of 3 compatibility test permutations in shard 2/2")
+			.contains(":compatibilityTest_spring_framework_5.3.1 SKIPPED")
+			.doesNotContain(":compatibilityTest_spring_framework_5.3.0 SKIPPED")
+			.doesNotContain(":compatibilityTest_spring_framework_5.3.2 SKIPPED");
+	}
+
+	@Test
+	void durationsAreRecordedAndLongestPermutationsRunFirst() throws IOException {
+		writeExampleTests();
+		this.gradleBuild.build("compatibilityTest_spring_framework_5.3.0", "compatibilityTest_spring_framework_5.3.1");
+		File history = new File(this.gradleBuild.getProjectDir(), "build/compatibilityTest/durations.properties");
+		assertThat(PermutationDurations.load(history)).containsOnlyKeys("spring_framework_5.3.0",
+				"spring_framework_5.3.1");
+		try (PrintWriter writer = new PrintWriter(new FileWriter(history))) {
+			writer.println("spring_framework_5.3.0=100");
+			writer.println("spring_framework_5.3.1=500");
+		}
+		String output = this.gradleBuild.build("check", "--dry-run").getOutput();
+		assertThat(output.indexOf(":compatibilityTest_spring_framework_5.3.1"))
+			.isLessThan(output.indexOf(":compatibilityTest_spring_framework_5.3.0"));
+	}
+
+	@Test
+	void whenFailFastIsEnabledThenRemainingPermutationsAreSkippedAfterAFailure() throws IOException {
+		File failingTests = new File(this.gradleBuild.getProjectDir(), "src/test/java/example/FailingTests.java");
+		failingTests.getParentFile().mkdirs();
+		try (PrintWriter writer = new PrintWriter(new FileWriter(failingTests))) {
+			writer.println("package example;");
+			writer.println("");
+			writer.println("import org.junit.jupiter.api.Assertions;");
+			writer.println("import org.junit.jupiter.api.Test;");
+			writer.println("");
+			writer.println("class FailingTests {");
+			writer.println("");
+			writer.println("    @Test");
+			writer.println("    void test() {");
+			writer.println("        Assertions.fail();");
+			writer.println("    }");
+			writer.println("");
+			writer.println("}");
+		}
+		BuildResult result = this.gradleBuild.buildAndFail("compatibilityTest_spring_framework_5.3.0",
+				"compatibilityTest_spring_framework_5.3.1", "--continue");
+		assertThat(result.task(":compatibilityTest_spring_framework_5.3.0").getOutcome())
+			.isEqualTo(TaskOutcome.FAILED);
+		assertThat(result.task(":compatibilityTest_spring_framework_5.3.1").getOutcome())
+			.isEqualTo(TaskOutcome.SKIPPED);
+		assertThat(PermutationFailures
+			.load(new File(this.gradleBuild.getProjectDir(), "build/compatibilityTest/failures.txt")))
+			.containsExactly("spring_framework_5.3.0");
+	}
+
+	@Test
+	void bisectionFindsTheFirstFailingVersionByTestingALogarithmicNumberOfPermutations() throws IOException {
+		File versionTests = new File(this.gradleBuild.getProjectDir(), "src/test/java/example/VersionTests.java");
+		versionTests.getParentFile().mkdirs();
+		try (PrintWriter writer = new PrintWriter(new FileWriter(versionTests))) {
+			writer.println("package example;");
+			writer.println("");
+			writer.println("import org.junit.jupiter.api.Assertions;");
+			writer.println("import org.junit.jupiter.api.Test;");
+			writer.println("import org.springframework.core.SpringVersion;");
+			writer.println("");
+			writer.println("class VersionTests {");
+			writer.println("");
+			writer.println("    @Test");
 			writer.println("    void test() {");
+			writer.println("        Assertions.assertTrue(SpringVersion.getVersion().compareTo(\"5.3.4\") < 0);");
 			writer.println("    }");
 			writer.println("");
 			writer.println("}");
 		}
+		BuildResult result = this.gradleBuild.build("compatibilityTestBisect");
+		assertThat(result.task(":compatibilityTestProbe_spring_framework_5.3.3").getOutcome())
+			.isEqualTo(TaskOutcome.SUCCESS);
+		assertThat(result.task(":compatibilityTestProbe_spring_framework_5.3.4").getOutcome())
+			.isEqualTo(TaskOutcome.SUCCESS);
+		assertThat(result.task(":compatibilityTestProbe_spring_framework_5.3.5").getOutcome())
+			.isEqualTo(TaskOutcome.SUCCESS);
+		assertThat(result.task(":compatibilityTestProbe_spring_framework_5.3.0").getOutcome())
+			.isEqualTo(TaskOutcome.SKIPPED);
+		assertThat(result.task(":compileCompatibilityTestProbeJava_spring_framework_5.3.6").getOutcome())
+			.isEqualTo(TaskOutcome.SKIPPED);
+		assertThat(result.getOutput()).contains("Bisected 7 permutations by testing 3")
+			.contains("Last passing: Spring Framework 5.3.3")
+			.contains("First failing: Spring Framework 5.3.4");
+		BuildResult rerun = this.gradleBuild.build("compatibilityTestBisect");
+		assertThat(rerun.task(":compatibilityTestProbe_spring_framework_5.3.3").getOutcome())
+			.isEqualTo(TaskOutcome.UP_TO_DATE);
+		assertThat(rerun.getOutput()).contains("First failing: Spring Framework 5.3.4");
+		BuildResult check = this.gradleBuild.buildAndFail("check", "compatibilityTestBisect", "--continue");
+		assertThat(check.task(":compatibilityTest_spring_framework_5.3.4").getOutcome())
+			.isEqualTo(TaskOutcome.FAILED);
+		assertThat(check.task(":compileCompatibilityTestProbeJava_spring_framework_5.3.4").getOutcome())
+			.isEqualTo(TaskOutcome.SKIPPED);
+		assertThat(check.task(":compatibilityTestProbe_spring_framework_5.3.4").getOutcome())
+			.isEqualTo(TaskOutcome.SKIPPED);
+		assertThat(check.getOutput()).contains("Bisected 7 permutations by testing 3")
+			.contains("First failing: Spring Framework 5.3.4");
+	}
+
+	@Test
+	void whenImpactedTestsAreSelectedThenOnlyTestsThatReferenceTheDependencyAreRun() throws IOException {
+		writeExampleTests();
+		File springTests = new File(this.gradleBuild.getProjectDir(), "src/test/java/example/SpringTests.java");
+		try (PrintWriter writer = new PrintWriter(new FileWriter(springTests))) {
+			writer.println("package example;");
+			writer.println("");
+			writer.println("import org.junit.jupiter.api.Test;");
+			writer.println("import org.springframework.util.StringUtils;");
+			writer.println("");
+			writer.println("class SpringTests {");
+			writer.println("");
+			writer.println("    @Test");
+			writer.println("    void test() {");
+			writer.println("        StringUtils.hasText(\"spring\");");
+			writer.println("    }");
+			writer.println("");
+			writer.println("}");
+		}
+		BuildResult result = this.gradleBuild.build("compatibilityTest_spring_framework_5.3.0");
+		assertThat(result.task(":compatibilityTest_spring_framework_5.3.0").getOutcome())
+			.isEqualTo(TaskOutcome.SUCCESS);
+		File testResults = new File(this.gradleBuild.getProjectDir(),
+				"build/test-results/compatibilityTest_spring_framework_5.3.0");
+		assertThat(new File(testResults, "TEST-example.SpringTests.xml")).isFile();
+		assertThat(new File(testResults, "TEST-example.ExampleTests.xml")).doesNotExist();
+	}
+
+	@Test
+	void resultsOfEveryPermutationAreAggregatedIntoASingleReport() throws IOException {
+		writeExampleTests();
+		BuildResult result = this.gradleBuild.build("check");
+		assertThat(result.task(":compatibilityTestReport").getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+		File report = new File(this.gradleBuild.getProjectDir(), "build/reports/compatibilityTest/index.html");
+		assertThat(new String(Files.readAllBytes(report.toPath()), StandardCharsets.UTF_8))
+			.contains("<th>Spring Framework 5.3.0<br>0 failed")
+			.contains("<th>Spring Framework 5.3.1<br>0 failed")
+			.contains("<summary>1 tests passed in every permutation</summary>")
+			.contains("<li>example.ExampleTests &gt; test()</li>");
+	}
+
+	@Test
+	void whenConfigurationCacheIsEnabledThenMatrixIsStoredAndReused() throws IOException {
+		writeExampleTests();
+		this.gradleBuild.build("check");
+		BuildResult stored = this.gradleBuild.build("check", "--configuration-cache");
+		assertThat(stored.getOutput()).contains("Configuration cache entry stored.");
+		BuildResult reused = this.gradleBuild.build("check", "--configuration-cache");
+		assertThat(reused.getOutput()).contains("Reusing configuration cache.");
+		assertThat(reused.task(":compatibilityTest_spring_framework_5.3.0").getOutcome())
+			.isEqualTo(TaskOutcome.UP_TO_DATE);
+		assertThat(reused.task(":compatibilityTest_spring_framework_5.3.1").getOutcome())
+			.isEqualTo(TaskOutcome.UP_TO_DATE);
+	}
+
+	@Test
+	void whenProjectIsRelocatedThenMatrixTasksAreLoadedFromTheBuildCache(@TempDir File temp) throws IOException {
+		File original = this.gradleBuild.getProjectDir();
+		writeSettings(original, new File(temp, "build-cache"));
+		writeExampleTests();
+		BuildResult stored = this.gradleBuild.build("compatibilityTest_spring_framework_5.3.0", "--build-cache");
+		assertThat(stored.task(":compatibilityTest_spring_framework_5.3.0").getOutcome())
+			.isEqualTo(TaskOutcome.SUCCESS);
+		File relocated = new File(temp, "relocated");
+		copySources(original.toPath(), relocated.toPath());
+		this.gradleBuild.setProjectDir(relocated);
+		try {
+			BuildResult loaded = this.gradleBuild.build("compatibilityTest_spring_framework_5.3.0", "--build-cache");
+			assertThat(loaded.task(":compileCompatibilityTestJava_spring_framework_5.3.0").getOutcome())
+				.isEqualTo(TaskOutcome.FROM_CACHE);
+			assertThat(loaded.task(":compatibilityTest_spring_framework_5.3.0").getOutcome())
+				.isEqualTo(TaskOutcome.FROM_CACHE);
+		}
+		finally {
+			this.gradleBuild.setProjectDir(original);
+		}
+	}
+
+	@Test
+	void metricsOfEachPermutationAreRecordedAndSummarized() throws IOException {
+		writeExampleTests();
+		BuildResult result = this.gradleBuild.build("check");
+		assertThat(result.getOutput()).contains("Compatibility test permutations, most costly first:")
+			.contains("Spring Framework 5.3.0")
+			.contains("Spring Framework 5.3.1");
+		File metrics = new File(this.gradleBuild.getProjectDir(), "build/reports/compatibilityTest/metrics.json");
+		assertThat(metrics).isFile();
+		String json = new String(Files.readAllBytes(metrics.toPath()), StandardCharsets.UTF_8);
+		assertThat(json).contains("\"identifier\": \"spring_framework_5.3.0\"")
+			.contains("\"identifier\": \"spring_framework_5.3.1\"")
+			.contains("\"testOutcome\": \"executed\"")
+			.contains("\"tests\": 1,")
+			.doesNotContain("\"peakHeapBytes\": null")
+			.doesNotContain("\"artifacts\": null");
+		assertThat(new File(this.gradleBuild.getProjectDir(), "build/reports/compatibilityTest/metrics.csv")).isFile();
+		BuildResult afterClean = this.gradleBuild.build("clean", "check");
+		assertThat(afterClean.task(":compatibilityTestHeapAgentJar").getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+		assertThat(afterClean.task(":compatibilityTest_spring_framework_5.3.0").getOutcome())
+			.isEqualTo(TaskOutcome.SUCCESS);
+	}
+
+	@Test
+	void whenAVersionCannotBeResolvedThenCheckFailsBeforeAnyPermutationIsTested() {
+		File projectDir = this.gradleBuild.getProjectDir();
+		new MavenRepository(new File(projectDir, "repository")).publish("com.example", "library", "1.0")
+			.publish("com.example", "library", "1.1");
+		BuildResult result = this.gradleBuild.buildAndFail("check");
+		assertThat(result.task(":compatibilityTestResolve").getOutcome()).isEqualTo(TaskOutcome.FAILED);
+		assertThat(result.task(":compileCompatibilityTestJava_library_1.1")).isNull();
+		assertThat(result.getOutput())
+			.contains("Failed to resolve the following compatibility test dependency versions:")
+			.contains("Library 1.3: Could not find com.example:library:1.3.")
+			.doesNotContain("Library 1.1:");
+	}
+
+	@Test
+	void whenAVersionCannotBeResolvedThenRunningAPermutationFailsBeforeItIsTested() {
+		File projectDir = this.gradleBuild.getProjectDir();
+		new MavenRepository(new File(projectDir, "repository")).publish("com.example", "library", "1.0")
+			.publish("com.example", "library", "1.1");
+		BuildResult result = this.gradleBuild.buildAndFail("compatibilityTest_library_1.1");
+		assertThat(result.task(":compatibilityTestResolve").getOutcome()).isEqualTo(TaskOutcome.FAILED);
+		assertThat(result.task(":compileCompatibilityTestJava_library_1.1")).isNull();
+		assertThat(result.getOutput()).contains("Library 1.3: Could not find com.example:library:1.3.");
+	}
+
+	@Test
+	void versionsCanBeSelectedFromMavenMetadata() {
+		File projectDir = this.gradleBuild.getProjectDir();
+		new MavenRepository(new File(projectDir, "repository")).publish("com.example", "library", "1.0.0")
+			.publish("com.example", "library", "1.1.0")
+			.publish("com.example", "library", "1.1.1")
+			.publish("com.example", "library", "1.2.0")
+			.publish("com.example", "library", "2.0.0-M1");
+		String output = this.gradleBuild.build("tasks", "--all").getOutput();
+		assertThat(output).contains("compatibilityTest_library_1.1.1")
+			.contains("compatibilityTest_library_1.2.0")
+			.doesNotContain("compatibilityTest_library_1.0.0")
+			.doesNotContain("compatibilityTest_library_1.1.0")
+			.doesNotContain("compatibilityTest_library_2.0.0-M1");
+	}
+
+	@Test
+	void whenVersionsAreSelectedFromMavenMetadataWithoutProjectRepositoriesThenTheBuildFails() throws IOException {
+		File projectDir = this.gradleBuild.getProjectDir();
+		new MavenRepository(new File(projectDir, "repository")).publish("com.example", "library", "1.1.0");
+		try (PrintWriter writer = new PrintWriter(new FileWriter(new File(projectDir, "settings.gradle")))) {
+			writer.println("dependencyResolutionManagement {");
+			writer.println("    repositories {");
+			writer.println("        maven { url = file('repository') }");
+			writer.println("    }");
+			writer.println("}");
+		}
+		BuildResult result = this.gradleBuild.buildAndFail("tasks");
+		assertThat(result.getOutput()).contains("Compatibility test versions are selected from Maven metadata but")
+			.contains("has no Maven repositories. Repositories that are declared in settings are not used");
+	}
+
+	@Test
+	void whenNoVersionsAreFoundInMavenMetadataThenTheBuildFails() {
+		BuildResult result = this.gradleBuild.buildAndFail("tasks");
+		assertThat(result.getOutput())
+			.contains("No published versions of com.example:library were found in the Maven metadata of");
+	}
+
+	@Test
+	void whenConstraintsAreConfiguredThenPermutationsThatViolateThemArePruned() {
+		BuildResult result = this.gradleBuild.build("tasks", "--all");
+		assertThat(result.getOutput()).contains("Pruned 2 compatibility test permutations using 2 constraints")
+			.contains("compatibilityTest_spring_framework_5.3.0_reactor_3.4.1")
+			.contains("compatibilityTest_spring_framework_5.3.1_reactor_3.4.0")
+			.contains("compatibilityTest_spring_framework_5.3.1_reactor_3.4.1")
+			.contains("compatibilityTest_spring_framework_5.3.2_reactor_3.4.1")
+			.doesNotContain("compatibilityTest_spring_framework_5.3.0_reactor_3.4.0")
+			.doesNotContain("compatibilityTest_spring_framework_5.3.2_reactor_3.4.0");
+	}
+
+	@Test
+	void subprojectsInheritTheMatrixOfTheRootProject() throws IOException {
+		File projectDir = this.gradleBuild.getProjectDir();
+		try (PrintWriter writer = new PrintWriter(new FileWriter(new File(projectDir, "settings.gradle")))) {
+			writer.println("include 'one', 'two'");
+		}
+		writeExampleTests(new File(projectDir, "one"));
+		writeExampleTests(new File(projectDir, "two"));
+		BuildResult result = this.gradleBuild.build(":compatibilityTest_spring_framework_5.3.0");
+		assertThat(result.task(":one:compatibilityTest_spring_framework_5.3.0").getOutcome())
+			.isEqualTo(TaskOutcome.SUCCESS);
+		assertThat(result.task(":two:compatibilityTest_spring_framework_5.3.0").getOutcome())
+			.isEqualTo(TaskOutcome.SUCCESS);
+		assertThat(result.task(":one:compatibilityTest_spring_framework_5.3.1")).isNull();
+		assertThat(result.getOutput().split("Pruned 1 compatibility test permutations using 1 constraints", -1))
+			.hasSize(2);
+		assertThat(this.gradleBuild.build(":one:tasks", "--all").getOutput())
+			.contains("compatibilityTest_spring_framework_5.3.1")
+			.doesNotContain("compatibilityTest_spring_framework_5.3.2");
+	}
+
+	@Test
+	void whenProjectsConfigureDifferentConcurrencyLimitsThenTheBuildFails() throws IOException {
+		File projectDir = this.gradleBuild.getProjectDir();
+		try (PrintWriter writer = new PrintWriter(new FileWriter(new File(projectDir, "settings.gradle")))) {
+			writer.println("include 'one', 'two'");
+		}
+		BuildResult result = this.gradleBuild.buildAndFail("check");
+		assertThat(result.getOutput()).contains("The maxConcurrentPermutations of project ':two' (2) differs from the "
+				+ "build-wide limit (1) that was configured by another project");
+	}
+
+	@Test
+	void whenProjectsConfigureDifferentPoolSizesThenTheBuildFails() throws IOException {
+		File projectDir = this.gradleBuild.getProjectDir();
+		try (PrintWriter writer = new PrintWriter(new FileWriter(new File(projectDir, "settings.gradle")))) {
+			writer.println("include 'one', 'two'");
+		}
+		BuildResult result = this.gradleBuild.buildAndFail("check");
+		assertThat(result.getOutput()).contains("The pooledJvms of project ':two' (2) differs from the "
+				+ "build-wide pool size (1) that was configured by another project");
+	}
+
+	@Test
+	void whenLinkageIsCheckedThenPermutationsWithMissingReferencesAreNotTested() throws IOException {
+		File example = new File(this.gradleBuild.getProjectDir(), "src/main/java/example/Example.java");
+		example.getParentFile().mkdirs();
+		try (PrintWriter writer = new PrintWriter(new FileWriter(example))) {
+			writer.println("package example;");
+			writer.println("");
+			writer.println("import org.springframework.core.log.LogMessage;");
+			writer.println("");
+			writer.println("public class Example {");
+			writer.println("");
+			writer.println("    public String message() {");
+			writer.println("        return LogMessage.of(() -> \"example\").toString();");
+			writer.println("    }");
+			writer.println("");
+			writer.println("}");
+		}
+		File exampleTests = new File(this.gradleBuild.getProjectDir(), "src/test/java/example/ExampleTests.java");
+		exampleTests.getParentFile().mkdirs();
+		try (PrintWriter writer = new PrintWriter(new FileWriter(exampleTests))) {
+			writer.println("package example;");
+			writer.println("");
+			writer.println("import org.junit.jupiter.api.Assertions;");
+			writer.println("import org.junit.jupiter.api.Test;");
+			writer.println("");
+			writer.println("class ExampleTests {");
+			writer.println("");
+			writer.println("    @Test");
+			writer.println("    void test() {");
+			writer.println("        Assertions.assertEquals(\"example\", new Example().message());");
+			writer.println("    }");
+			writer.println("");
+			writer.println("}");
+		}
+		BuildResult result = this.gradleBuild.buildAndFail("check", "--continue");
+		assertThat(result.task(":compatibilityLinkageCheck_spring_framework_5.2.0.RELEASE").getOutcome())
+			.isEqualTo(TaskOutcome.SUCCESS);
+		assertThat(result.task(":compatibilityTest_spring_framework_5.2.0.RELEASE").getOutcome())
+			.isEqualTo(TaskOutcome.SUCCESS);
+		assertThat(result.task(":compatibilityLinkageCheck_spring_framework_5.1.0.RELEASE").getOutcome())
+			.isEqualTo(TaskOutcome.FAILED);
+		assertThat(result.task(":compatibilityTest_spring_framework_5.1.0.RELEASE")).isNull();
+		assertThat(result.getOutput()).contains("Found 1 linkage errors:")
+			.contains("example.Example references missing class org.springframework.core.log.LogMessage");
+	}
+
+	@Test
+	void testsAreExecutedWithoutDeprecationWarnings() throws IOException {
+		writeExampleTests();
 		BuildResult result = this.gradleBuild.gradleVersion("8.1").build("build");
 		assertThat(result.task(":compatibilityTest_spring_framework_5.3.0").getOutcome())
 			.isEqualTo(TaskOutcome.SUCCESS);
@@ -149,4 +696,54 @@ class CompatibilityTestPluginIntegrationTests {
 		assertThat(result.getOutput()).doesNotContain("deprecated");
 	}
 
+	private void writeSettings(File projectDir, File buildCache) throws IOException {
+		try (PrintWriter writer = new PrintWriter(new FileWriter(new File(projectDir, "settings.gradle")))) {
+			writer.println("buildCache {");
+			writer.println("    local {");
+			writer.println("        directory = new URI('" + buildCache.toURI() + "')");
+			writer.println("    }");
+			writer.println("}");
+		}
+	}
+
+	private void copySources(Path source, Path destination) throws IOException {
+		try (Stream<Path> paths = Files.walk(source)) {
+			for (Path path : paths.collect(Collectors.toList())) {
+				Path relative = source.relativize(path);
+				if (relative.startsWith("build") || relative.startsWith(".gradle")) {
+					continue;
+				}
+				Path target = destination.resolve(relative.toString());
+				if (Files.isDirectory(path)) {
+					Files.createDirectories(target);
+				}
+				else {
+					Files.copy(path, target);
+				}
+			}
+		}
+	}
+
+	private void writeExampleTests() throws IOException {
+		writeExampleTests(this.gradleBuild.getProjectDir());
+	}
+
+	private void writeExampleTests(File projectDir) throws IOException {
+		File exampleTests = new File(projectDir, "src/test/java/example/ExampleTests.java");
+		exampleTests.getParentFile().mkdirs();
+		try (PrintWriter writer = new PrintWriter(new FileWriter(exampleTests))) {
+			writer.println("package example;");
+			writer.println("");
+			writer.println("import org.junit.jupiter.api.Test;");
+			writer.println("");
+			writer.println("class ExampleTests {");
+			writer.println("");
+			writer.println("    @Test");
+			writer.println("    void test() {");
+			writer.println("    }");
+			writer.println("");
+			writer.println("}");
+		}
+	}
+
 }
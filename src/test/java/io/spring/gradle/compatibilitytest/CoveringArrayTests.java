@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link CoveringArray}.
+ *
+ * @author Andy Wilkinson
+ */
+class CoveringArrayTests {
+
+	@Test
+	void pairwiseCoversEveryPair() {
+		List<Set<String>> sets = sets(5, 6);
+		List<List<String>> result = CoveringArray.of(sets, 2, 0);
+		assertCovers(result, sets, 2);
+		assertThat(result).hasSizeLessThan((int) CartesianProduct.size(sets));
+	}
+
+	@Test
+	void threeWiseCoversEveryTriple() {
+		List<Set<String>> sets = sets(5, 4);
+		List<List<String>> result = CoveringArray.of(sets, 3, 0);
+		assertCovers(result, sets, 3);
+		assertThat(result).hasSizeLessThan((int) CartesianProduct.size(sets));
+	}
+
+	@Test
+	void pairwiseWithThreeSetsOfThreeIsOptimal() {
+		List<List<String>> result = CoveringArray.of(sets(3, 3), 2, 0);
+		assertThat(result).hasSize(9);
+	}
+
+	@Test
+	void sameSeedProducesSameResult() {
+		List<Set<String>> sets = sets(6, 5);
+		assertThat(CoveringArray.of(sets, 2, 42)).isEqualTo(CoveringArray.of(sets, 2, 42));
+	}
+
+	@Test
+	void whenStrengthIsAtLeastTheNumberOfSetsThenResultIsTheCartesianProduct() {
+		List<Set<String>> sets = sets(3, 2);
+		assertThat(CoveringArray.of(sets, 3, 0)).containsExactlyElementsOf(CartesianProduct.of(sets));
+	}
+
+	@Test
+	void whenASetIsEmptyThenResultIsEmpty() {
+		List<Set<String>> sets = sets(3, 2);
+		sets.add(new LinkedHashSet<>());
+		assertThat(CoveringArray.of(sets, 2, 0)).isEmpty();
+	}
+
+	private void assertCovers(List<List<String>> rows, List<Set<String>> sets, int strength) {
+		for (int[] factors : combinations(sets.size(), strength)) {
+			Set<List<String>> covered = new HashSet<>();
+			for (List<String> row : rows) {
+				List<String> tuple = new ArrayList<>();
+				for (int factor : factors) {
+					tuple.add(row.get(factor));
+				}
+				covered.add(tuple);
+			}
+			List<Set<String>> selected = new ArrayList<>();
+			for (int factor : factors) {
+				selected.add(sets.get(factor));
+			}
+			assertThat(covered).containsAll(CartesianProduct.of(selected));
+		}
+	}
+
+	private List<int[]> combinations(int size, int strength) {
+		List<int[]> combinations = new ArrayList<>();
+		for (int mask = 0; mask < (1 << size); mask++) {
+			if (Integer.bitCount(mask) == strength) {
+				int[] factors = new int[strength];
+				int index = 0;
+				for (int factor = 0; factor < size; factor++) {
+					if ((mask & (1 << factor)) != 0) {
+						factors[index++] = factor;
+					}
+				}
+				combinations.add(factors);
+			}
+		}
+		return combinations;
+	}
+
+	private List<Set<String>> sets(int count, int size) {
+		List<Set<String>> sets = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Set<String> set = new LinkedHashSet<>();
+			for (int j = 0; j < size; j++) {
+				set.add(i + "." + j);
+			}
+			sets.add(set);
+		}
+		return sets;
+	}
+
+}
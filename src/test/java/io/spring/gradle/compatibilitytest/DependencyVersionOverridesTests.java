@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import io.spring.gradle.compatibilitytest.CompatibilityMatrix.DependencyVersion;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link DependencyVersionOverrides}.
+ *
+ * @author Andy Wilkinson
+ */
+class DependencyVersionOverridesTests {
+
+	@Test
+	void whenOnlyGroupIsOverriddenThenAllModulesInTheGroupAreOverridden() {
+		DependencyVersionOverrides overrides = overrides(version("org.springframework", null, "5.3.0"));
+		assertThat(overrides.versionFor("org.springframework", "spring-core")).isEqualTo("5.3.0");
+		assertThat(overrides.versionFor("org.springframework", "spring-jcl")).isEqualTo("5.3.0");
+	}
+
+	@Test
+	void whenModuleIsOverriddenThenOtherModulesInTheGroupAreNotOverridden() {
+		DependencyVersionOverrides overrides = overrides(version("org.springframework", "spring-jcl", "5.3.0"));
+		assertThat(overrides.versionFor("org.springframework", "spring-jcl")).isEqualTo("5.3.0");
+		assertThat(overrides.versionFor("org.springframework", "spring-core")).isNull();
+	}
+
+	@Test
+	void whenGroupIsNotOverriddenThenVersionIsNull() {
+		DependencyVersionOverrides overrides = overrides(version("org.springframework", null, "5.3.0"));
+		assertThat(overrides.versionFor("io.projectreactor", "reactor-core")).isNull();
+	}
+
+	@Test
+	void whenModuleOverrideIsDeclaredAfterGroupOverrideThenModuleOverrideWins() {
+		DependencyVersionOverrides overrides = overrides(version("org.springframework", null, "5.3.0"),
+				version("org.springframework", "spring-jcl", "5.3.1"));
+		assertThat(overrides.versionFor("org.springframework", "spring-jcl")).isEqualTo("5.3.1");
+		assertThat(overrides.versionFor("org.springframework", "spring-core")).isEqualTo("5.3.0");
+	}
+
+	@Test
+	void whenGroupOverrideIsDeclaredAfterModuleOverrideThenGroupOverrideWins() {
+		DependencyVersionOverrides overrides = overrides(version("org.springframework", "spring-jcl", "5.3.1"),
+				version("org.springframework", null, "5.3.0"));
+		assertThat(overrides.versionFor("org.springframework", "spring-jcl")).isEqualTo("5.3.0");
+		assertThat(overrides.versionFor("org.springframework", "spring-core")).isEqualTo("5.3.0");
+	}
+
+	private DependencyVersionOverrides overrides(DependencyVersion... dependencyVersions) {
+		return new DependencyVersionOverrides(Arrays.asList(dependencyVersions));
+	}
+
+	private DependencyVersion version(String groupId, String artifactId, String version) {
+		return new DependencyVersion("Example", groupId, artifactId, version);
+	}
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link Digests}.
+ *
+ * @author Andy Wilkinson
+ */
+class DigestsTests {
+
+	@TempDir
+	File temp;
+
+	@Test
+	void ofContentsOfFileIsSha256OfItsBytes() throws IOException {
+		File file = write(new File(this.temp, "example.txt"), "hello");
+		assertThat(Digests.ofContents(file))
+			.isEqualTo("2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824");
+	}
+
+	@Test
+	void ofContentsOfFileThatDoesNotExistIsDigestOfNoBytes() {
+		assertThat(Digests.ofContents(new File(this.temp, "missing.txt")))
+			.isEqualTo("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855");
+	}
+
+	@Test
+	void ofContentsOfFileIsIndependentOfItsNameAndLastModifiedTime() throws IOException {
+		File one = write(new File(this.temp, "one.txt"), "hello");
+		File two = write(new File(this.temp, "two.txt"), "hello");
+		assertThat(two.setLastModified(one.lastModified() - 60000)).isTrue();
+		assertThat(Digests.ofContents(one)).isEqualTo(Digests.ofContents(two));
+	}
+
+	@Test
+	void ofContentsOfDirectoryIsIndependentOfTheOrderInWhichItsFilesWereWritten() throws IOException {
+		File one = new File(this.temp, "one");
+		write(new File(one, "a/Alpha.class"), "alpha");
+		write(new File(one, "b/Bravo.class"), "bravo");
+		File two = new File(this.temp, "two");
+		write(new File(two, "b/Bravo.class"), "bravo");
+		write(new File(two, "a/Alpha.class"), "alpha");
+		assertThat(Digests.ofContents(one)).isEqualTo(Digests.ofContents(two));
+	}
+
+	@Test
+	void ofContentsOfDirectoryChangesWhenAFileIsRenamed() throws IOException {
+		File one = new File(this.temp, "one");
+		write(new File(one, "a/Alpha.class"), "alpha");
+		File two = new File(this.temp, "two");
+		write(new File(two, "a/Bravo.class"), "alpha");
+		assertThat(Digests.ofContents(one)).isNotEqualTo(Digests.ofContents(two));
+	}
+
+	@Test
+	void ofContentsOfDirectoryChangesWhenAFileIsModified() throws IOException {
+		File directory = new File(this.temp, "classes");
+		File file = write(new File(directory, "a/Alpha.class"), "alpha");
+		String before = Digests.ofContents(directory);
+		write(file, "alpha2");
+		assertThat(Digests.ofContents(directory)).isNotEqualTo(before);
+	}
+
+	@Test
+	void combineIsSensitiveToOrder() {
+		assertThat(Digests.combine(Arrays.asList("a", "b"))).isNotEqualTo(Digests.combine(Arrays.asList("b", "a")));
+	}
+
+	@Test
+	void combineIsSensitiveToTheBoundariesBetweenElements() {
+		assertThat(Digests.combine(Arrays.asList("ab", "c"))).isNotEqualTo(Digests.combine(Arrays.asList("a", "bc")));
+	}
+
+	@Test
+	void combineIsStable() {
+		assertThat(Digests.combine(Arrays.asList("a", "b"))).isEqualTo(Digests.combine(Arrays.asList("a", "b")));
+	}
+
+	private File write(File file, String contents) throws IOException {
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.spring.gradle.compatibilitytest.ClassReferenceIndex.ClassDeclaration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link LinkageCheck}.
+ *
+ * @author Andy Wilkinson
+ */
+class LinkageCheckTests {
+
+	private static final String TARGET = "io/spring/gradle/compatibilitytest/LinkageCheckTests$Target";
+
+	private final Map<String, ClassDeclaration> baseline = new HashMap<>();
+
+	private final Map<String, ClassDeclaration> permutation = new HashMap<>();
+
+	@BeforeEach
+	void declareObject() throws IOException {
+		this.baseline.put("java/lang/Object", declaration(Object.class));
+		this.permutation.put("java/lang/Object", declaration(Object.class));
+	}
+
+	@Test
+	void whenReferencesCanBeLinkedThenThereAreNoErrors() throws IOException {
+		this.baseline.put(TARGET, declaration(Target.class));
+		this.permutation.put(TARGET, declaration(Target.class));
+		assertThat(linkageErrors()).isEmpty();
+	}
+
+	@Test
+	void whenReferencedClassIsMissingThenAnErrorIsReported() throws IOException {
+		this.baseline.put(TARGET, declaration(Target.class));
+		assertThat(linkageErrors()).containsExactly("io.spring.gradle.compatibilitytest.LinkageCheckTests$Example "
+				+ "references missing class io.spring.gradle.compatibilitytest.LinkageCheckTests$Target");
+	}
+
+	@Test
+	void whenReferencedMethodIsMissingThenAnErrorIsReported() throws IOException {
+		this.baseline.put(TARGET, declaration(Target.class));
+		this.permutation.put(TARGET, declaration(TargetWithoutMethod.class));
+		assertThat(linkageErrors()).containsExactly("io.spring.gradle.compatibilitytest.LinkageCheckTests$Example "
+				+ "references missing method io.spring.gradle.compatibilitytest.LinkageCheckTests$Target.run()V");
+	}
+
+	@Test
+	void whenReferencedFieldIsMissingThenAnErrorIsReported() throws IOException {
+		this.baseline.put(TARGET, declaration(Target.class));
+		this.permutation.put(TARGET, declaration(TargetWithoutField.class));
+		assertThat(linkageErrors()).containsExactly("io.spring.gradle.compatibilitytest.LinkageCheckTests$Example "
+				+ "references missing field io.spring.gradle.compatibilitytest.LinkageCheckTests$Target"
+				+ ".name:Ljava/lang/String;");
+	}
+
+	@Test
+	void whenReferenceCannotBeLinkedWithTheBaselineThenNoErrorIsReported() throws IOException {
+		assertThat(linkageErrors()).isEmpty();
+	}
+
+	private Set<String> linkageErrors() throws IOException {
+		return LinkageCheck.linkageErrors(Collections.singletonList(classFile(Example.class)), this.baseline::get,
+				this.permutation::get);
+	}
+
+	private ClassDeclaration declaration(Class<?> type) throws IOException {
+		return new ClassDeclaration(classFile(type));
+	}
+
+	private ClassFile classFile(Class<?> type) throws IOException {
+		try (InputStream input = type.getResourceAsStream("/" + type.getName().replace('.', '/') + ".class")) {
+			return ClassFile.read(input);
+		}
+	}
+
+	static class Example {
+
+		String example(Target target) {
+			target.run();
+			return target.name;
+		}
+
+	}
+
+	static class Target {
+
+		String name;
+
+		void run() {
+
+		}
+
+	}
+
+	static class TargetWithoutMethod {
+
+		String name;
+
+	}
+
+	static class TargetWithoutField {
+
+		void run() {
+
+		}
+
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.spring.gradle.compatibilitytest.testkit.MavenRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link MavenMetadataVersions}.
+ *
+ * @author Andy Wilkinson
+ */
+class MavenMetadataVersionsTests {
+
+	private static final long HOUR = 60 * 60 * 1000;
+
+	@TempDir
+	File temp;
+
+	@Test
+	void versionsAreReadFromTheMetadataOfEachRepository() {
+		MavenRepository one = new MavenRepository(new File(this.temp, "one")).publish("com.example", "library", "1.0")
+			.publish("com.example", "library", "1.1");
+		MavenRepository two = new MavenRepository(new File(this.temp, "two")).publish("com.example", "library", "1.2");
+		List<URI> repositories = Arrays.asList(one.getRoot().toURI(), two.getRoot().toURI(),
+				new File(this.temp, "empty").toURI());
+		assertThat(versions(repositories, HOUR, false)).containsExactly("1.0", "1.1", "1.2");
+	}
+
+	@Test
+	void cachedMetadataIsUsedUntilItExpires() {
+		MavenRepository repository = new MavenRepository(new File(this.temp, "repository")).publish("com.example",
+				"library", "1.0");
+		List<URI> repositories = Collections.singletonList(repository.getRoot().toURI());
+		assertThat(versions(repositories, HOUR, false)).containsExactly("1.0");
+		repository.publish("com.example", "library", "1.1");
+		assertThat(versions(repositories, HOUR, false)).containsExactly("1.0");
+		assertThat(versions(repositories, 0, false)).containsExactly("1.0", "1.1");
+	}
+
+	@Test
+	void whenOfflineCachedMetadataIsUsedRegardlessOfItsAge() {
+		MavenRepository repository = new MavenRepository(new File(this.temp, "repository")).publish("com.example",
+				"library", "1.0");
+		List<URI> repositories = Collections.singletonList(repository.getRoot().toURI());
+		assertThat(versions(repositories, 0, false)).containsExactly("1.0");
+		repository.publish("com.example", "library", "1.1");
+		assertThat(versions(repositories, 0, true)).containsExactly("1.0");
+	}
+
+	@Test
+	void repositoryThatRequiresCredentialsIsSkipped() throws IOException {
+		MavenRepository repository = new MavenRepository(new File(this.temp, "repository")).publish("com.example",
+				"library", "1.0");
+		AtomicBoolean requireCredentials = new AtomicBoolean();
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", (exchange) -> {
+			if (requireCredentials.get()) {
+				exchange.sendResponseHeaders(HttpURLConnection.HTTP_UNAUTHORIZED, -1);
+			}
+			else {
+				byte[] metadata = Files
+					.readAllBytes(new File(repository.getRoot(), exchange.getRequestURI().getPath()).toPath());
+				exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, metadata.length);
+				try (OutputStream output = exchange.getResponseBody()) {
+					output.write(metadata);
+				}
+			}
+			exchange.close();
+		});
+		server.start();
+		try {
+			List<URI> repositories = Collections
+				.singletonList(URI.create("http://localhost:" + server.getAddress().getPort()));
+			assertThat(versions(repositories, 0, false)).containsExactly("1.0");
+			requireCredentials.set(true);
+			assertThat(versions(repositories, 0, false)).isEmpty();
+		}
+		finally {
+			server.stop(0);
+		}
+	}
+
+	private Iterable<String> versions(List<URI> repositories, long timeToLive, boolean offline) {
+		return MavenMetadataVersions.versions(repositories, "com.example", "library", new File(this.temp, "cache"),
+				timeToLive, offline);
+	}
+
+}
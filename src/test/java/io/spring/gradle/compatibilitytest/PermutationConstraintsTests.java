@@ -0,0 +1,82 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.gradle.compatibilitytest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.spring.gradle.compatibilitytest.CompatibilityMatrix.DependencyVersion;
+import io.spring.gradle.compatibilitytest.PermutationConstraints.Constraint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PermutationConstraints}.
+ *
+ * @author Andy Wilkinson
+ */
+class PermutationConstraintsTests {
+
+	@Test
+	void exclusionRejectsCombinationsThatMatchEveryCondition() {
+		Map<String, List<String>> conditions = new LinkedHashMap<>();
+		conditions.put("Spring Framework", Collections.singletonList("6.*"));
+		conditions.put("Reactor", Collections.singletonList("3.4.*"));
+		PermutationConstraints constraints = new PermutationConstraints(
+				Collections.singletonList(Constraint.exclude(conditions)));
+		assertThat(constraints.test(versions("6.0.0", "3.4.1"))).isFalse();
+		assertThat(constraints.test(versions("6.0.0", "3.5.0"))).isTrue();
+		assertThat(constraints.test(versions("5.3.0", "3.4.1"))).isTrue();
+	}
+
+	@Test
+	void requirementRejectsCombinationsThatMatchTheConditionsButNotTheRequirements() {
+		Map<String, List<String>> conditions = Collections.singletonMap("Spring Framework",
+				Collections.singletonList("6.*"));
+		Map<String, List<String>> requirements = Collections.singletonMap("Reactor", Arrays.asList("3.5.*", "3.6.*"));
+		PermutationConstraints constraints = new PermutationConstraints(
+				Collections.singletonList(Constraint.require(conditions, requirements)));
+		assertThat(constraints.test(versions("6.0.0", "3.4.1"))).isFalse();
+		assertThat(constraints.test(versions("6.0.0", "3.6.0"))).isTrue();
+		assertThat(constraints.test(versions("5.3.0", "3.4.1"))).isTrue();
+	}
+
+	@Test
+	void constraintIsNotAppliedToAPrefixThatDoesNotContainEveryDependencyItRefersTo() {
+		Map<String, List<String>> conditions = new LinkedHashMap<>();
+		conditions.put("Spring Framework", Collections.singletonList("6.*"));
+		conditions.put("Reactor", Collections.singletonList("3.4.*"));
+		PermutationConstraints constraints = new PermutationConstraints(
+				Collections.singletonList(Constraint.exclude(conditions)));
+		assertThat(constraints.test(versions("6.0.0"))).isTrue();
+	}
+
+	private List<DependencyVersion> versions(String... versions) {
+		List<String> names = Arrays.asList("Spring Framework", "Reactor");
+		List<DependencyVersion> dependencyVersions = new ArrayList<>();
+		for (int i = 0; i < versions.length; i++) {
+			dependencyVersions.add(new DependencyVersion(names.get(i), "com.example", null, versions[i]));
+		}
+		return dependencyVersions;
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Tests for {@link PermutationDurations}.
+ *
+ * @author Andy Wilkinson
+ */
+class PermutationDurationsTests {
+
+	@TempDir
+	File temp;
+
+	@Test
+	void loadWhenFileDoesNotExistReturnsEmptyMap() {
+		assertThat(PermutationDurations.load(new File(this.temp, "durations.properties"))).isEmpty();
+	}
+
+	@Test
+	void updateRetainsDurationsOfOtherPermutations() {
+		File file = new File(this.temp, "history/durations.properties");
+		Map<String, Long> durations = new HashMap<>();
+		durations.put("a", 100L);
+		durations.put("b", 200L);
+		PermutationDurations.update(file, durations);
+		PermutationDurations.update(file, Collections.singletonMap("b", 300L));
+		assertThat(PermutationDurations.load(file)).containsOnly(entry("a", 100L), entry("b", 300L));
+	}
+
+	@Test
+	void longestFirstOrdersPermutationsByDescendingDuration() {
+		Map<String, Long> durations = new HashMap<>();
+		durations.put("a", 100L);
+		durations.put("b", 300L);
+		durations.put("c", 200L);
+		assertThat(PermutationDurations.longestFirst(Arrays.asList("a", "b", "c"), durations)).containsExactly("b",
+				"c", "a");
+	}
+
+	@Test
+	void longestFirstEstimatesUnknownDurationsUsingTheAverage() {
+		Map<String, Long> durations = new HashMap<>();
+		durations.put("a", 100L);
+		durations.put("b", 300L);
+		assertThat(PermutationDurations.longestFirst(Arrays.asList("a", "b", "c"), durations)).containsExactly("b",
+				"c", "a");
+	}
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PermutationFailures}.
+ *
+ * @author Andy Wilkinson
+ */
+class PermutationFailuresTests {
+
+	@TempDir
+	File temp;
+
+	@Test
+	void loadWhenFileDoesNotExistReturnsEmptySet() {
+		assertThat(PermutationFailures.load(new File(this.temp, "failures.txt"))).isEmpty();
+	}
+
+	@Test
+	void updateRemovesPermutationsThatPassedAndRetainsThoseThatWereNotTested() {
+		File file = new File(this.temp, "history/failures.txt");
+		PermutationFailures.update(file, new HashSet<>(Arrays.asList("a", "b")), Collections.emptySet());
+		PermutationFailures.update(file, Collections.singleton("c"), Collections.singleton("a"));
+		assertThat(PermutationFailures.load(file)).containsExactly("b", "c");
+	}
+
+}
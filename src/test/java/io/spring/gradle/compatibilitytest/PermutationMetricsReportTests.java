@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.gradle.compatibilitytest;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+import io.spring.gradle.compatibilitytest.PermutationMetricsReport.Metric;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PermutationMetricsReport}.
+ *
+ * @author Andy Wilkinson
+ */
+class PermutationMetricsReportTests {
+
+	@Test
+	void metricsAreWrittenAsJsonWithUnknownMetricsAsNull() {
+		PermutationMetricsReport report = report();
+		String json = write(report::writeJson);
+		assertThat(json).contains("\"resolveMillis\": 2500")
+			.contains("\"identifier\": \"one_1.0\"")
+			.contains("\"description\": \"one \\\"1.0\\\"\"")
+			.contains("\"compileMillis\": 1200")
+			.contains("\"peakHeapBytes\": 52428800")
+			.contains("\"testOutcome\": \"failed\"")
+			.contains("\"jvmStartupMillis\": null");
+	}
+
+	@Test
+	void metricsAreWrittenAsCsvWithOneRowPerPermutation() {
+		String csv = write(report()::writeCsv);
+		assertThat(csv.split(System.lineSeparator())).containsExactly(
+				"identifier,description,testOutcome,compileMillis,selectTestsMillis,testMillis,jvmStartupMillis,"
+						+ "testExecutionMillis,tests,failedTests,skippedTests,artifacts,artifactBytes,peakHeapBytes",
+				"one_1.0,\"one \"\"1.0\"\"\",executed,1200,,3000,,,12,,,,,52428800",
+				"one_2.0,one 2.0,failed,,,9000,,,,,,,,");
+	}
+
+	@Test
+	void summaryListsThePermutationsThatCostTheMostFirst() {
+		String summary = write((writer) -> report().writeSummary(writer, 1));
+		assertThat(summary.split(System.lineSeparator())).hasSize(4);
+		assertThat(summary).contains("one 2.0")
+			.doesNotContain("one \"1.0\"")
+			.contains("9.0s")
+			.contains("... and 1 more")
+			.contains("Resolving every version in the matrix took 2.5s");
+	}
+
+	@Test
+	void permutationsWithoutMetricsAreNotReported() {
+		Map<String, String> descriptions = new LinkedHashMap<>();
+		descriptions.put("one_1.0", "one 1.0");
+		descriptions.put("one_2.0", "one 2.0");
+		PermutationMetricsReport report = new PermutationMetricsReport(descriptions);
+		assertThat(report.isEmpty()).isTrue();
+		report.set("one_2.0", Metric.TESTS, 5);
+		assertThat(write(report::writeCsv)).doesNotContain("one_1.0").contains("one_2.0");
+	}
+
+	private PermutationMetricsReport report() {
+		Map<String, String> descriptions = new LinkedHashMap<>();
+		descriptions.put("one_1.0", "one \"1.0\"");
+		descriptions.put("one_2.0", "one 2.0");
+		PermutationMetricsReport report = new PermutationMetricsReport(descriptions);
+		report.set("one_1.0", Metric.COMPILE, 1200);
+		report.set("one_1.0", Metric.TEST, 3000);
+		report.set("one_1.0", Metric.TESTS, 12);
+		report.set("one_1.0", Metric.PEAK_HEAP, 50 * 1024 * 1024);
+		report.testOutcome("one_1.0", "executed");
+		report.set("one_2.0", Metric.TEST, 9000);
+		report.testOutcome("one_2.0", "failed");
+		report.resolveMillis(2500);
+		return report;
+	}
+
+	private String write(Consumer<PrintWriter> action) {
+		StringWriter output = new StringWriter();
+		PrintWriter writer = new PrintWriter(output);
+		action.accept(writer);
+		writer.flush();
+		return output.toString();
+	}
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PermutationSchedule}.
+ *
+ * @author Andy Wilkinson
+ */
+class PermutationScheduleTests {
+
+	private static final List<String> IDENTIFIERS = Arrays.asList("a", "b", "c", "d", "e");
+
+	@Test
+	void whenShardsHaveDifferentLocalDurationsThenTheyPartitionThePermutations() {
+		Map<String, Long> firstDurations = new HashMap<>();
+		firstDurations.put("a", 500L);
+		firstDurations.put("e", 10L);
+		Map<String, Long> secondDurations = new HashMap<>();
+		secondDurations.put("b", 10L);
+		secondDurations.put("c", 900L);
+		secondDurations.put("d", 300L);
+		List<String> first = PermutationSchedule.schedule(IDENTIFIERS, Shard.parse("1/2"), Collections.emptyMap(),
+				firstDurations, Collections.emptySet());
+		List<String> second = PermutationSchedule.schedule(IDENTIFIERS, Shard.parse("2/2"),
+				Collections.emptyMap(), secondDurations, Collections.emptySet());
+		List<String> tested = new ArrayList<>(first);
+		tested.addAll(second);
+		assertThat(tested).hasSize(IDENTIFIERS.size()).containsExactlyInAnyOrderElementsOf(IDENTIFIERS);
+		assertThat(first).containsExactly("a", "c", "e");
+		assertThat(second).containsExactly("d", "b");
+	}
+
+	@Test
+	void whenShardDurationsAreProvidedThenPermutationsAreAssignedLongestFirst() {
+		Map<String, Long> shardDurations = new HashMap<>();
+		shardDurations.put("a", 10L);
+		shardDurations.put("b", 70L);
+		shardDurations.put("c", 30L);
+		shardDurations.put("d", 40L);
+		shardDurations.put("e", 50L);
+		List<String> first = PermutationSchedule.schedule(IDENTIFIERS, Shard.parse("1/2"), shardDurations,
+				Collections.emptyMap(), Collections.emptySet());
+		assertThat(first).containsExactly("b", "c");
+	}
+
+	@Test
+	void previousFailuresAreScheduledFirst() {
+		Map<String, Long> durations = new HashMap<>();
+		durations.put("a", 10L);
+		durations.put("b", 20L);
+		List<String> schedule = PermutationSchedule.schedule(IDENTIFIERS, null, Collections.emptyMap(), durations,
+				Collections.singleton("a"));
+		assertThat(schedule).startsWith("a", "b");
+	}
+
+}
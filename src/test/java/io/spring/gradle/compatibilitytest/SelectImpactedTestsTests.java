@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link SelectImpactedTests}.
+ *
+ * @author Andy Wilkinson
+ */
+class SelectImpactedTestsTests {
+
+	private static final Set<String> PACKAGES = Collections.singleton("reactor/core/publisher");
+
+	private final Map<String, Set<String>> mainReferences = new HashMap<>();
+
+	private final Map<String, Set<String>> testReferences = new HashMap<>();
+
+	private final Set<String> testClasses = new HashSet<>();
+
+	@Test
+	void testThatReferencesDependencyIsSelected() {
+		this.testReferences.put("com/example/FluxTests", references("reactor/core/publisher/Flux"));
+		this.testReferences.put("com/example/StringTests", references("java/lang/String"));
+		this.testClasses.addAll(references("com/example/FluxTests", "com/example/StringTests"));
+		assertThat(select()).containsExactly("com.example.FluxTests");
+	}
+
+	@Test
+	void testThatReferencesDependencyThroughMainClassesIsSelected() {
+		this.mainReferences.put("com/example/Service", references("com/example/Repository"));
+		this.mainReferences.put("com/example/Repository", references("reactor/core/publisher/Mono"));
+		this.testReferences.put("com/example/ServiceTests", references("com/example/Service"));
+		this.testClasses.add("com/example/ServiceTests");
+		assertThat(select()).containsExactly("com.example.ServiceTests");
+	}
+
+	@Test
+	void testThatExtendsImpactedTestClassIsSelected() {
+		this.testReferences.put("com/example/AbstractTests", references("reactor/core/publisher/Mono"));
+		this.testReferences.put("com/example/ConcreteTests", references("com/example/AbstractTests"));
+		this.testClasses.add("com/example/ConcreteTests");
+		assertThat(select()).containsExactly("com.example.ConcreteTests");
+	}
+
+	@Test
+	void whenNestedTestClassIsImpactedThenTopLevelClassIsSelected() {
+		this.testReferences.put("com/example/OuterTests", references("com/example/OuterTests$Inner"));
+		this.testReferences.put("com/example/OuterTests$Inner", references("reactor/core/publisher/Mono"));
+		this.testClasses.add("com/example/OuterTests$Inner");
+		assertThat(select()).containsExactly("com.example.OuterTests");
+	}
+
+	@Test
+	void impactedHelperThatIsNotATestClassIsNotSelected() {
+		this.testReferences.put("com/example/MonoAssertions", references("reactor/core/publisher/Mono"));
+		this.testReferences.put("com/example/StringTests", references("java/lang/String"));
+		this.testClasses.add("com/example/StringTests");
+		assertThat(select()).isEmpty();
+	}
+
+	@Test
+	void testThatUsesImpactedHelperIsSelected() {
+		this.testReferences.put("com/example/MonoAssertions", references("reactor/core/publisher/Mono"));
+		this.testReferences.put("com/example/ServiceTests", references("com/example/MonoAssertions"));
+		this.testClasses.add("com/example/ServiceTests");
+		assertThat(select()).containsExactly("com.example.ServiceTests");
+	}
+
+	@Test
+	void mainClassesAreNotSelected() {
+		this.mainReferences.put("com/example/Service", references("reactor/core/publisher/Mono"));
+		assertThat(select()).isEmpty();
+	}
+
+	@Test
+	void classInSubpackageOfDependencyPackageIsNotConsideredADependency() {
+		this.testReferences.put("com/example/OtherTests", references("reactor/core/publisher/internal/Other"));
+		this.testClasses.add("com/example/OtherTests");
+		assertThat(select()).isEmpty();
+	}
+
+	private Set<String> select() {
+		return SelectImpactedTests.select(PACKAGES, this.mainReferences, this.testReferences, this.testClasses);
+	}
+
+	private Set<String> references(String... names) {
+		return new HashSet<>(Arrays.asList(names));
+	}
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.gradle.api.InvalidUserDataException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link Shard}.
+ *
+ * @author Andy Wilkinson
+ */
+class ShardTests {
+
+	private static final List<String> IDENTIFIERS = Arrays.asList("a", "b", "c", "d", "e");
+
+	@Test
+	void parseShard() {
+		assertThat(Shard.parse("2/5")).hasToString("2/5");
+	}
+
+	@Test
+	void parseShardWithInvalidFormatThrowsException() {
+		assertThatExceptionOfType(InvalidUserDataException.class).isThrownBy(() -> Shard.parse("2 of 5"))
+			.withMessageContaining("Expected a value such as '2/5'");
+	}
+
+	@Test
+	void parseShardWithIndexGreaterThanCountThrowsException() {
+		assertThatExceptionOfType(InvalidUserDataException.class).isThrownBy(() -> Shard.parse("6/5"))
+			.withMessageContaining("Shard must be between 1 and 5");
+	}
+
+	@Test
+	void whenDurationsAreUnknownThenPermutationsAreAssignedRoundRobin() {
+		List<List<String>> shards = Shard.assign(IDENTIFIERS, Collections.emptyMap(), 2);
+		assertThat(shards).containsExactly(Arrays.asList("a", "c", "e"), Arrays.asList("b", "d"));
+	}
+
+	@Test
+	void whenDurationsAreKnownThenLongestPermutationsAreAssignedFirst() {
+		Map<String, Long> durations = new HashMap<>();
+		durations.put("a", 10L);
+		durations.put("b", 70L);
+		durations.put("c", 30L);
+		durations.put("d", 40L);
+		durations.put("e", 50L);
+		List<List<String>> shards = Shard.assign(IDENTIFIERS, durations, 2);
+		assertThat(shards).containsExactly(Arrays.asList("b", "c"), Arrays.asList("e", "d", "a"));
+	}
+
+	@Test
+	void everyPermutationIsAssignedToExactlyOneShard() {
+		Map<String, Long> durations = new HashMap<>();
+		durations.put("c", 100L);
+		List<String> assigned = new ArrayList<>();
+		for (int index = 1; index <= 3; index++) {
+			assigned.addAll(Shard.parse(index + "/3").select(IDENTIFIERS, durations));
+		}
+		assertThat(assigned).containsExactlyInAnyOrderElementsOf(IDENTIFIERS);
+	}
+
+}
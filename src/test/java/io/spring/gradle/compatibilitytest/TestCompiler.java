@@ -0,0 +1,76 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles Java source code for use in tests.
+ *
+ * @author Andy Wilkinson
+ */
+final class TestCompiler {
+
+	private static final Pattern TYPE_NAME = Pattern
+		.compile("public\\s+(?:\\w+\\s+)*(?:class|interface|enum|record|@interface)\\s+(\\w+)");
+
+	private TestCompiler() {
+
+	}
+
+	/**
+	 * Compiles the given sources, each of which must declare a public type, into the
+	 * given directory.
+	 * @param output the directory into which the classes are compiled
+	 * @param sources the sources to compile
+	 * @return the output directory
+	 * @throws IOException if the sources cannot be written
+	 */
+	static File compile(File output, String... sources) throws IOException {
+		File sourceDirectory = new File(output.getParentFile(), output.getName() + "-src");
+		sourceDirectory.mkdirs();
+		output.mkdirs();
+		List<String> arguments = new ArrayList<>();
+		arguments.add("-d");
+		arguments.add(output.getAbsolutePath());
+		for (String source : sources) {
+			Matcher matcher = TYPE_NAME.matcher(source);
+			if (!matcher.find()) {
+				throw new IllegalArgumentException("No public type found in " + source);
+			}
+			File file = new File(sourceDirectory, matcher.group(1) + ".java");
+			Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+			arguments.add(file.getAbsolutePath());
+		}
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if (compiler.run(null, null, null, arguments.toArray(new String[0])) != 0) {
+			throw new IllegalStateException("Compilation failed");
+		}
+		return output;
+	}
+
+}
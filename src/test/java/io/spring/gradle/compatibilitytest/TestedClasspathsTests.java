@@ -0,0 +1,145 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.services.BuildServiceParameters;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.spring.gradle.compatibilitytest.TestedClasspaths.UniqueClasspathSpec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link TestedClasspaths}.
+ *
+ * @author Andy Wilkinson
+ */
+class TestedClasspathsTests {
+
+	@TempDir
+	File temp;
+
+	private final TestedClasspaths testedClasspaths = new TestedClasspaths() {
+
+		@Override
+		public BuildServiceParameters.None getParameters() {
+			return null;
+		}
+
+	};
+
+	private Project project;
+
+	@BeforeEach
+	void createProject() {
+		this.project = ProjectBuilder.builder().withProjectDir(new File(this.temp, "project")).build();
+	}
+
+	@Test
+	void fingerprintOfJarsWithIdenticalContentsAtDifferentLocationsIsIdentical() throws IOException {
+		File one = write(new File(this.temp, "one/library-1.0.jar"), "library");
+		File two = write(new File(this.temp, "two/library-2.0.jar"), "library");
+		assertThat(this.testedClasspaths.fingerprint(Arrays.asList(one)))
+			.isEqualTo(this.testedClasspaths.fingerprint(Arrays.asList(two)));
+	}
+
+	@Test
+	void fingerprintOfJarsWithDifferentContentsIsDifferent() throws IOException {
+		File one = write(new File(this.temp, "one/library-1.0.jar"), "library 1.0");
+		File two = write(new File(this.temp, "two/library-2.0.jar"), "library 2.0");
+		assertThat(this.testedClasspaths.fingerprint(Arrays.asList(one)))
+			.isNotEqualTo(this.testedClasspaths.fingerprint(Arrays.asList(two)));
+	}
+
+	@Test
+	void fingerprintIsSensitiveToTheOrderOfTheClasspath() throws IOException {
+		File alpha = write(new File(this.temp, "alpha.jar"), "alpha");
+		File bravo = write(new File(this.temp, "bravo.jar"), "bravo");
+		assertThat(this.testedClasspaths.fingerprint(Arrays.asList(alpha, bravo)))
+			.isNotEqualTo(this.testedClasspaths.fingerprint(Arrays.asList(bravo, alpha)));
+	}
+
+	@Test
+	void fingerprintReflectsChangesToTheContentsOfDirectories() throws IOException {
+		File classes = new File(this.temp, "classes");
+		File example = write(new File(classes, "example/Example.class"), "one");
+		String before = this.testedClasspaths.fingerprint(Arrays.asList(classes));
+		write(example, "two");
+		assertThat(this.testedClasspaths.fingerprint(Arrays.asList(classes))).isNotEqualTo(before);
+	}
+
+	@Test
+	void claimReturnsPathOfTheFirstTaskToClaimTheKey() {
+		assertThat(this.testedClasspaths.claim("key", ":one")).isEqualTo(":one");
+		assertThat(this.testedClasspaths.claim("key", ":two")).isEqualTo(":one");
+		assertThat(this.testedClasspaths.claim("key", ":one")).isEqualTo(":one");
+		assertThat(this.testedClasspaths.claim("other", ":two")).isEqualTo(":two");
+	}
+
+	@Test
+	void specIsOnlySatisfiedByTheFirstTaskWithAnIdenticalClasspath() throws IOException {
+		File one = write(new File(this.temp, "one/library-1.0.jar"), "library");
+		File two = write(new File(this.temp, "two/library-2.0.jar"), "library");
+		Task first = this.project.getTasks().register("first").get();
+		Task second = this.project.getTasks().register("second").get();
+		assertThat(spec(":", two).isSatisfiedBy(second)).isTrue();
+		assertThat(spec(":", one).isSatisfiedBy(first)).isFalse();
+		assertThat(spec(":", two).isSatisfiedBy(second)).isTrue();
+	}
+
+	@Test
+	void specIsSatisfiedByTasksWithIdenticalClasspathsInDifferentScopes() throws IOException {
+		File library = write(new File(this.temp, "library.jar"), "library");
+		Task first = this.project.getTasks().register("first").get();
+		Task second = this.project.getTasks().register("second").get();
+		assertThat(spec(":java 11", library).isSatisfiedBy(first)).isTrue();
+		assertThat(spec(":java 17", library).isSatisfiedBy(second)).isTrue();
+	}
+
+	@Test
+	void specIsSatisfiedByTasksWithDifferentClasspaths() throws IOException {
+		File one = write(new File(this.temp, "library-1.0.jar"), "library 1.0");
+		File two = write(new File(this.temp, "library-2.0.jar"), "library 2.0");
+		Task first = this.project.getTasks().register("first").get();
+		Task second = this.project.getTasks().register("second").get();
+		assertThat(spec(":", one).isSatisfiedBy(first)).isTrue();
+		assertThat(spec(":", two).isSatisfiedBy(second)).isTrue();
+	}
+
+	private UniqueClasspathSpec spec(String scope, File... classpath) {
+		return new UniqueClasspathSpec(this.project.provider(() -> this.testedClasspaths), scope,
+				this.project.files((Object[]) classpath));
+	}
+
+	private File write(File file, String contents) throws IOException {
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.gradle.compatibilitytest;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link VersionSelector}.
+ *
+ * @author Andy Wilkinson
+ */
+class VersionSelectorTests {
+
+	private static final List<String> VERSIONS = Arrays.asList("5.2.9.RELEASE", "5.3.0-M1", "5.3.0", "5.3.2",
+			"5.3.10", "5.3.11-SNAPSHOT", "6.0.0-RC1", "6.0.0", "6.0.1");
+
+	@Test
+	void latestPatchOfSelectsTheLatestReleaseOfTheMinor() {
+		assertThat(VersionSelector.latestPatchOf("5.3").select(VERSIONS)).containsExactly("5.3.10");
+		assertThat(VersionSelector.latestPatchOf("6.0").select(VERSIONS)).containsExactly("6.0.1");
+		assertThat(VersionSelector.latestPatchOf("5.2").select(VERSIONS)).containsExactly("5.2.9.RELEASE");
+	}
+
+	@Test
+	void latestPatchOfWhenMinorHasNoReleasesSelectsNothing() {
+		assertThat(VersionSelector.latestPatchOf("6.1").select(VERSIONS)).isEmpty();
+	}
+
+	@Test
+	void releasesSinceSelectsReleasesInAscendingOrder() {
+		assertThat(VersionSelector.releasesSince("3.4.0")
+			.select(Arrays.asList("3.3.9", "3.4.0-M2", "3.4.0", "3.10.1", "3.9.0", "4.0.0.RELEASE")))
+			.containsExactly("3.4.0", "3.9.0", "3.10.1", "4.0.0.RELEASE");
+	}
+
+	@Test
+	void milestonesReleaseCandidatesAndSnapshotsAreNotReleases() {
+		assertThat(VersionSelector.isRelease("5.3.0")).isTrue();
+		assertThat(VersionSelector.isRelease("5.3.0.RELEASE")).isTrue();
+		assertThat(VersionSelector.isRelease("4.1.85.Final")).isTrue();
+		assertThat(VersionSelector.isRelease("5.3.0-M1")).isFalse();
+		assertThat(VersionSelector.isRelease("5.0.0.RC1")).isFalse();
+		assertThat(VersionSelector.isRelease("5.3.11-SNAPSHOT")).isFalse();
+	}
+
+}
@@ -83,6 +83,15 @@ public class GradleBuild {
 		}
 	}
 
+	public BuildResult buildAndFail(String... arguments) {
+		try {
+			return prepareRunner(arguments).buildAndFail();
+		}
+		catch (Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
 	public GradleRunner prepareRunner(String... arguments) throws IOException {
 		Files.copy(new File(this.script).toPath(), new File(this.projectDir, "build.gradle").toPath(),
 				StandardCopyOption.REPLACE_EXISTING);
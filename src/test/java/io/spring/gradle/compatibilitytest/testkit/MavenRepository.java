@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.spring.gradle.compatibilitytest.testkit;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * A file-based Maven repository to which modules can be published for use in tests.
+ *
+ * @author Andy Wilkinson
+ */
+public class MavenRepository {
+
+	private final File root;
+
+	private final Map<String, List<String>> versions = new LinkedHashMap<>();
+
+	public MavenRepository(File root) {
+		this.root = root;
+	}
+
+	public File getRoot() {
+		return this.root;
+	}
+
+	public MavenRepository publish(String groupId, String artifactId, String version) {
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		entries.put("META-INF/" + artifactId + ".version", version.getBytes(StandardCharsets.UTF_8));
+		return publish(groupId, artifactId, version, entries);
+	}
+
+	public MavenRepository publish(String groupId, String artifactId, String version, Map<String, byte[]> entries) {
+		File moduleDir = new File(this.root, groupId.replace('.', '/') + "/" + artifactId);
+		File versionDir = new File(moduleDir, version);
+		versionDir.mkdirs();
+		try {
+			writePom(new File(versionDir, artifactId + "-" + version + ".pom"), groupId, artifactId, version);
+			writeJar(new File(versionDir, artifactId + "-" + version + ".jar"), entries);
+			List<String> versions = this.versions.computeIfAbsent(groupId + ":" + artifactId,
+					(key) -> new ArrayList<>());
+			versions.add(version);
+			writeMetadata(new File(moduleDir, "maven-metadata.xml"), groupId, artifactId, versions);
+		}
+		catch (IOException ex) {
+			throw new RuntimeException(ex);
+		}
+		return this;
+	}
+
+	private void writePom(File pom, String groupId, String artifactId, String version) throws IOException {
+		try (PrintWriter writer = new PrintWriter(new FileWriter(pom))) {
+			writer.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+			writer.println("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">");
+			writer.println("	<modelVersion>4.0.0</modelVersion>");
+			writer.println("	<groupId>" + groupId + "</groupId>");
+			writer.println("	<artifactId>" + artifactId + "</artifactId>");
+			writer.println("	<version>" + version + "</version>");
+			writer.println("</project>");
+		}
+	}
+
+	private void writeJar(File jar, Map<String, byte[]> entries) throws IOException {
+		try (JarOutputStream output = new JarOutputStream(new FileOutputStream(jar))) {
+			for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+				output.putNextEntry(new ZipEntry(entry.getKey()));
+				output.write(entry.getValue());
+				output.closeEntry();
+			}
+		}
+	}
+
+	private void writeMetadata(File metadata, String groupId, String artifactId, List<String> versions)
+			throws IOException {
+		try (PrintWriter writer = new PrintWriter(new FileWriter(metadata))) {
+			writer.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+			writer.println("<metadata>");
+			writer.println("	<groupId>" + groupId + "</groupId>");
+			writer.println("	<artifactId>" + artifactId + "</artifactId>");
+			writer.println("	<versioning>");
+			writer.println("		<latest>" + versions.get(versions.size() - 1) + "</latest>");
+			writer.println("		<versions>");
+			for (String version : versions) {
+				writer.println("			<version>" + version + "</version>");
+			}
+			writer.println("		</versions>");
+			writer.println("	</versioning>");
+			writer.println("</metadata>");
+		}
+	}
+
+}